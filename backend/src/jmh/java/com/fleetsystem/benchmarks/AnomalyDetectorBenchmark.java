@@ -0,0 +1,85 @@
+package com.fleetsystem.benchmarks;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.service.TelemetryAnomalyDetector;
+
+/**
+ * Per-sample cost of the in-process anomaly detector on the ingest path, including timestamp
+ * parsing. Signals follow slow random walks, so this is the steady state with no alerts raised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AnomalyDetectorBenchmark {
+
+    private static final int SAMPLES = 1 << 18;
+
+    @Param({"1000", "10000", "100000"})
+    private int vehicles;
+
+    private TelemetryAnomalyDetector detector;
+    private TelemetryDto[] samples;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        detector = new TelemetryAnomalyDetector(true, 0.1, 20, 2, 4, 2, 1000, 105, 100, 10, 28, 30, 2);
+        SplittableRandom random = new SplittableRandom(42);
+        double[] baseTemp = new double[vehicles];
+        double[] baseTire = new double[vehicles];
+        double[] temp = new double[vehicles];
+        double[] fuel = new double[vehicles];
+        double[] tire = new double[vehicles];
+        for (int v = 0; v < vehicles; v++) {
+            baseTemp[v] = temp[v] = 85 + random.nextDouble(5);
+            fuel[v] = 40 + random.nextDouble(60);
+            baseTire[v] = tire[v] = 33 + random.nextDouble(2);
+        }
+        // Round-robin over the fleet, one sample per vehicle every 5 seconds. Temperature and tire
+        // pressure revert to their baseline, so replaying the array from the start is no jump
+        Instant start = Instant.parse("2024-10-14T10:00:00Z");
+        samples = new TelemetryDto[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int v = i % vehicles;
+            temp[v] += 0.1 * (baseTemp[v] - temp[v]) + random.nextDouble(-0.2, 0.2);
+            fuel[v] = Math.max(5, fuel[v] - random.nextDouble(0.05));
+            tire[v] += 0.1 * (baseTire[v] - tire[v]) + random.nextDouble(-0.02, 0.02);
+            TelemetrySignals signals = new TelemetrySignals();
+            signals.setEngineTemp(temp[v]);
+            signals.setFuelLevel(fuel[v]);
+            signals.setTirePressure(tire[v]);
+            signals.setSpeed(random.nextDouble(120));
+            String timestamp = start.plusSeconds(5L * (i / vehicles)).toString();
+            samples[i] = new TelemetryDto(BenchmarkData.vehicleId(v), timestamp, null, signals, null);
+        }
+        // Warm every vehicle past the z-score warm-up before measuring
+        for (TelemetryDto dto : samples) {
+            detector.observe(dto);
+        }
+    }
+
+    @Benchmark
+    public int observe() {
+        return detector.observe(samples[next++ & (SAMPLES - 1)]);
+    }
+}
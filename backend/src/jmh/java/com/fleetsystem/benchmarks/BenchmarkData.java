@@ -0,0 +1,75 @@
+package com.fleetsystem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+
+/**
+ * Payloads shaped like the ones simulator/http_simulator.py sends.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    static String vehicleId(int index) {
+        return String.format(Locale.ROOT, "TRUCK-%06d", index);
+    }
+
+    static String simulatorPayload(String vehicleId) {
+        return simulatorPayload(vehicleId, new SplittableRandom(42));
+    }
+
+    static String simulatorPayload(String vehicleId, SplittableRandom random) {
+        return String.format(Locale.ROOT,
+                "{\"vehicleId\":\"%s\",\"timestamp\":\"2024-10-14T10:00:03.123456Z\"," +
+                "\"specs\":{\"make\":\"Scania\",\"model\":\"R450\",\"year\":2023,\"engine_type\":\"DC13\"," +
+                "\"fuel_type\":\"Diesel\",\"vehicle_class\":\"Heavy\"}," +
+                "\"signals\":{\"engine_temp\":%.2f,\"fuel_pressure\":%.2f,\"speed\":%.2f,\"rpm\":%.2f," +
+                "\"oil_pressure\":%.2f,\"fuel_level\":%.2f,\"tire_pressure\":%.2f,\"coolant_temp\":%.2f," +
+                "\"battery_voltage\":%.2f,\"exhaust_temp\":%.2f}," +
+                "\"status\":{\"state\":\"NORMAL\",\"location\":{\"latitude\":59.329323,\"longitude\":18.068581}}}",
+                vehicleId,
+                80 + random.nextDouble(20), 40 + random.nextDouble(10), random.nextDouble(120),
+                800 + random.nextDouble(2000), 30 + random.nextDouble(10), random.nextDouble(100),
+                30 + random.nextDouble(8), 75 + random.nextDouble(20), 12 + random.nextDouble(2),
+                400 + random.nextDouble(100));
+    }
+
+    // Built directly rather than parsed; specs and status maps are shared to keep 1M vehicles in heap
+    static List<TelemetryDto> fleet(int vehicles) {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, Object> specs = new LinkedHashMap<>();
+        specs.put("make", "Scania");
+        specs.put("model", "R450");
+        specs.put("year", 2023);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", "NORMAL");
+
+        List<TelemetryDto> fleet = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            fleet.add(new TelemetryDto(vehicleId(i), "2024-10-14T10:00:03Z", specs, signals(random), status));
+        }
+        return fleet;
+    }
+
+    static TelemetrySignals signals(SplittableRandom random) {
+        TelemetrySignals signals = new TelemetrySignals();
+        signals.setEngineTemp(80 + random.nextDouble(30));
+        signals.setFuelPressure(40 + random.nextDouble(10));
+        signals.setSpeed(random.nextDouble(120));
+        signals.setRpm(800 + random.nextDouble(2000));
+        signals.setOilPressure(30 + random.nextDouble(10));
+        signals.setFuelLevel(random.nextDouble(100));
+        signals.setTirePressure(30 + random.nextDouble(8));
+        signals.setCoolantTemp(75 + random.nextDouble(20));
+        signals.setBatteryVoltage(12 + random.nextDouble(2));
+        signals.setExhaustTemp(400 + random.nextDouble(100));
+        return signals;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fleetsystem.benchmarks;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.service.FleetMetricsAggregator;
+
+/**
+ * Fleet KPIs (active count, mean/min/max speed, mean fuel and engine temperature, low-fuel and
+ * overheating counts) computed by scanning every vehicle's latest sample, against reading and
+ * updating the incremental {@link FleetMetricsAggregator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FleetAggregateBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int vehicles;
+
+    private List<TelemetryDto> fleet;
+    private FleetMetricsAggregator aggregator;
+    // Replacement samples for the update benchmark, applied round-robin over the fleet
+    private TelemetryDto[] replacements;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fleet = BenchmarkData.fleet(vehicles);
+        aggregator = new FleetMetricsAggregator(20, 105);
+        for (TelemetryDto dto : fleet) {
+            aggregator.replace(null, dto);
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        replacements = new TelemetryDto[1024];
+        for (int i = 0; i < replacements.length; i++) {
+            replacements[i] = new TelemetryDto(BenchmarkData.vehicleId(i), "2024-10-14T10:00:04Z", null,
+                    BenchmarkData.signals(random), null);
+        }
+    }
+
+    @Benchmark
+    public FleetMetricsAggregator.FleetMetrics incrementalRead() {
+        return aggregator.snapshot();
+    }
+
+    // Cost of one ingested sample: swap a vehicle's previous sample for a new one
+    @Benchmark
+    public void incrementalUpdate() {
+        int i = next++ & (replacements.length - 1);
+        TelemetryDto current = replacements[i];
+        TelemetryDto previous = fleet.get(i);
+        aggregator.replace(previous, current);
+        replacements[i] = previous;
+        fleet.set(i, current);
+    }
+
+    @Benchmark
+    public double[] fullScan() {
+        long active = 0;
+        long lowFuel = 0;
+        long overheating = 0;
+        double speedSum = 0;
+        double speedMin = Double.POSITIVE_INFINITY;
+        double speedMax = Double.NEGATIVE_INFINITY;
+        double fuelSum = 0;
+        double tempSum = 0;
+        for (TelemetryDto dto : fleet) {
+            TelemetrySignals signals = dto.getSignals();
+            double speed = signals.getSpeed();
+            if (speed > 0) {
+                active++;
+            }
+            speedSum += speed;
+            speedMin = Math.min(speedMin, speed);
+            speedMax = Math.max(speedMax, speed);
+            fuelSum += signals.getFuelLevel();
+            tempSum += signals.getEngineTemp();
+            if (signals.getFuelLevel() < 20) {
+                lowFuel++;
+            }
+            if (signals.getEngineTemp() > 105) {
+                overheating++;
+            }
+        }
+        int n = fleet.size();
+        return new double[] {active, speedSum / n, speedMin, speedMax, fuelSum / n, tempSum / n, lowFuel, overheating};
+    }
+}
@@ -0,0 +1,252 @@
+package com.fleetsystem.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Inserts/sec into a copy of the telemetry history table on a real Postgres, with the default
+ * datasource and with the high-throughput profile's settings. Not a JMH benchmark; run with
+ * <pre>
+ *   mvn -Pbenchmarks clean test-compile exec:exec@load-test
+ * </pre>
+ * It connects with the same {@code DB_HOST}/{@code DB_PORT}/{@code DB_NAME}/{@code DB_USER}/
+ * {@code DB_PASSWORD} environment variables as the application and works in its own
+ * {@code load_test_telemetry_event} table, dropped at the end. {@code LOADTEST_ROWS} (default
+ * 200000) rows are written by {@code LOADTEST_THREADS} (default 4) threads, committing every
+ * 500 rows, in each scenario:
+ * <ul>
+ *   <li>{@code identity} - what Hibernate does for an IDENTITY id: one INSERT per row, reading
+ *       the key back, on a default pool</li>
+ *   <li>{@code batch} - JDBC batches with keys from the column default, on a default pool</li>
+ *   <li>{@code pooled-batch-rewrite} - ids from a pooled sequence (one nextval per 50 rows), as
+ *       Hibernate would allocate them, in JDBC batches that the driver rewrites into multi-row
+ *       INSERTs, on the high-throughput profile's datasource</li>
+ *   <li>{@code multi-row} - the 500-row INSERT that TelemetryHistoryRepository issues, for reference</li>
+ * </ul>
+ */
+public final class HistoryInsertLoadTest {
+
+    private static final String TABLE = "load_test_telemetry_event";
+    private static final String SEQUENCE = TABLE + "_id_seq";
+    private static final int COMMIT_ROWS = 500;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String COLUMNS = "vehicle_id, telemetry_timestamp, speed, fuel_level, engine_temp, rpm, tire_pressure, status";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES (?,?,?,?,?,?,?,?)";
+    private static final String INSERT_WITH_ID_SQL = "INSERT INTO " + TABLE + " (id, " + COLUMNS + ") VALUES (?,?,?,?,?,?,?,?,?)";
+    private static final String[] VEHICLE_IDS = new String[10_000];
+
+    static {
+        for (int i = 0; i < VEHICLE_IDS.length; i++) {
+            VEHICLE_IDS[i] = BenchmarkData.vehicleId(i);
+        }
+    }
+
+    private HistoryInsertLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.parseInt(env("LOADTEST_ROWS", "200000"));
+        int threads = Integer.parseInt(env("LOADTEST_THREADS", "4"));
+
+        try (HikariDataSource defaults = dataSource(threads, false);
+             HikariDataSource tuned = dataSource(threads, true)) {
+            createTable(defaults);
+            try {
+                System.out.printf(Locale.ROOT, "%,d rows, %d threads, commit every %d rows%n", rows, threads, COMMIT_ROWS);
+                run("identity", defaults, rows, threads, HistoryInsertLoadTest::insertIdentity);
+                run("batch", defaults, rows, threads, HistoryInsertLoadTest::insertBatch);
+                run("pooled-batch-rewrite", tuned, rows, threads, HistoryInsertLoadTest::insertPooledBatch);
+                run("multi-row", defaults, rows, threads, HistoryInsertLoadTest::insertMultiRow);
+            } finally {
+                try (Connection connection = defaults.getConnection(); Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                }
+            }
+        }
+    }
+
+    private static void run(String name, HikariDataSource dataSource, int rows, int threads, Writer writer) throws Exception {
+        // A tenth of the rows first, untimed, so every scenario starts with warm plans and JIT
+        write(dataSource, Math.max(threads, rows / 10), threads, writer);
+        truncate(dataSource);
+        long started = System.nanoTime();
+        write(dataSource, rows, threads, writer);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        truncate(dataSource);
+        System.out.printf(Locale.ROOT, "%-22s %10.0f inserts/s  (%.2f s)%n", name, rows / seconds, seconds);
+    }
+
+    private static void write(HikariDataSource dataSource, int rows, int threads, Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int share = rows / threads + (t < rows % threads ? 1 : 0);
+                SplittableRandom random = new SplittableRandom(t);
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        writer.write(connection, share, random);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void insertIdentity(Connection connection, int rows, SplittableRandom random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bindRow(ps, 1, i, random);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                }
+                if ((i + 1) % COMMIT_ROWS == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private static void insertBatch(Connection connection, int rows, SplittableRandom random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < rows; i++) {
+                bindRow(ps, 1, i, random);
+                ps.addBatch();
+                if ((i + 1) % COMMIT_ROWS == 0) {
+                    ps.executeBatch();
+                    connection.commit();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        }
+    }
+
+    // Hibernate's pooled optimizer: each nextval is the top of a block of ALLOCATION_SIZE ids
+    private static void insertPooledBatch(Connection connection, int rows, SplittableRandom random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_WITH_ID_SQL);
+             PreparedStatement nextval = connection.prepareStatement("SELECT nextval('" + SEQUENCE + "')")) {
+            long next = 0;
+            long limit = 0;
+            for (int i = 0; i < rows; i++) {
+                if (next == limit) {
+                    try (ResultSet rs = nextval.executeQuery()) {
+                        rs.next();
+                        limit = rs.getLong(1) + 1;
+                        next = limit - ALLOCATION_SIZE;
+                    }
+                }
+                ps.setLong(1, next++);
+                bindRow(ps, 2, i, random);
+                ps.addBatch();
+                if ((i + 1) % COMMIT_ROWS == 0) {
+                    ps.executeBatch();
+                    connection.commit();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static void insertMultiRow(Connection connection, int rows, SplittableRandom random) throws SQLException {
+        for (int from = 0; from < rows; from += COMMIT_ROWS) {
+            int chunk = Math.min(COMMIT_ROWS, rows - from);
+            StringBuilder sql = new StringBuilder("INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES ");
+            for (int i = 0; i < chunk; i++) {
+                sql.append(i > 0 ? ",(?,?,?,?,?,?,?,?)" : "(?,?,?,?,?,?,?,?)");
+            }
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk; i++) {
+                    bindRow(ps, 1 + i * 8, from + i, random);
+                }
+                ps.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+
+    private static void bindRow(PreparedStatement ps, int index, int row, SplittableRandom random) throws SQLException {
+        ps.setString(index, VEHICLE_IDS[row % VEHICLE_IDS.length]);
+        ps.setTimestamp(index + 1, new Timestamp(System.currentTimeMillis()));
+        ps.setDouble(index + 2, random.nextDouble(120));
+        ps.setDouble(index + 3, random.nextDouble(100));
+        ps.setDouble(index + 4, 80 + random.nextDouble(30));
+        ps.setDouble(index + 5, 800 + random.nextDouble(2000));
+        ps.setDouble(index + 6, 30 + random.nextDouble(8));
+        ps.setString(index + 7, "NORMAL");
+    }
+
+    private static void createTable(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id BIGSERIAL PRIMARY KEY, " +
+                    "vehicle_id VARCHAR(255) NOT NULL, " +
+                    "telemetry_timestamp TIMESTAMPTZ NOT NULL, " +
+                    "speed DOUBLE PRECISION, " +
+                    "fuel_level DOUBLE PRECISION, " +
+                    "engine_temp DOUBLE PRECISION, " +
+                    "rpm DOUBLE PRECISION, " +
+                    "tire_pressure DOUBLE PRECISION, " +
+                    "status VARCHAR(64))");
+            statement.execute("CREATE INDEX ON " + TABLE + " (vehicle_id, telemetry_timestamp DESC)");
+            statement.execute("ALTER SEQUENCE " + SEQUENCE + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+
+    private static void truncate(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + TABLE);
+        }
+    }
+
+    // Mirrors spring.datasource in application.yml and, when tuned, application-high-throughput.yml
+    private static HikariDataSource dataSource(int threads, boolean tuned) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:postgresql://" + env("DB_HOST", "localhost") + ":" + env("DB_PORT", "5434") + "/" + env("DB_NAME", "fleetdb"));
+        config.setUsername(env("DB_USER", "umeshreddy"));
+        config.setPassword(env("DB_PASSWORD", ""));
+        config.setMaximumPoolSize(threads);
+        if (tuned) {
+            Properties properties = new Properties();
+            properties.setProperty("reWriteBatchedInserts", "true");
+            properties.setProperty("preparedStatementCacheQueries", "512");
+            properties.setProperty("preparedStatementCacheSizeMiB", "16");
+            config.setDataSourceProperties(properties);
+        }
+        return new HikariDataSource(config);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Connection connection, int rows, SplittableRandom random) throws SQLException;
+    }
+}
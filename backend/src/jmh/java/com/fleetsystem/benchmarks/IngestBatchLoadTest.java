@@ -0,0 +1,173 @@
+package com.fleetsystem.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+/**
+ * Samples/sec through the single-sample endpoint ({@code POST /api/telemetry}) against
+ * {@code POST /api/telemetry/batch} with several array sizes, plain and gzip, on a running
+ * backend. Not a JMH benchmark; start the backend, then run
+ * <pre>
+ *   mvn -Pbenchmarks clean test-compile exec:exec@batch-load-test
+ * </pre>
+ * Each scenario sends {@code LOADTEST_SAMPLES} (default 100000) samples for 1000 vehicles from
+ * {@code LOADTEST_CLIENTS} (default 8) closed-loop clients to {@code LOADTEST_URL} (default
+ * {@code http://localhost:8081}), after an untimed tenth as warm-up. Every sample gets a later
+ * timestamp than the one before, so none is dropped as stale. Note that the single endpoint
+ * answers once the sample is queued for ingest, while a batch answers after its transaction has
+ * committed.
+ */
+public final class IngestBatchLoadTest {
+
+    private static final int VEHICLES = 1000;
+    private static final int[] BATCH_SIZES = {100, 1000};
+    private static final String PAYLOAD_TIMESTAMP = "2024-10-14T10:00:03.123456Z";
+
+    // Sample n goes to vehicle n % VEHICLES, one millisecond after that vehicle's previous sample
+    private static final long START_MILLIS = System.currentTimeMillis();
+    private static final AtomicLong SAMPLES = new AtomicLong();
+
+    private IngestBatchLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = env("LOADTEST_URL", "http://localhost:8081");
+        int samples = Integer.parseInt(env("LOADTEST_SAMPLES", "100000"));
+        int clients = Integer.parseInt(env("LOADTEST_CLIENTS", "8"));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] payloads = new String[VEHICLES];
+        for (int v = 0; v < VEHICLES; v++) {
+            payloads[v] = BenchmarkData.simulatorPayload(BenchmarkData.vehicleId(v), random);
+        }
+
+        System.out.printf(Locale.ROOT, "%s, %,d samples, %d clients%n", baseUrl, samples, clients);
+        System.out.printf(Locale.ROOT, "%-18s %12s %10s %12s %8s%n", "scenario", "samples/s", "req/s", "p99 req ms", "errors");
+
+        String singleUrl = baseUrl + "/api/telemetry";
+        run("single", client, () -> post(singleUrl, sample(payloads).getBytes(StandardCharsets.UTF_8), false),
+                1, samples, clients);
+
+        String batchUrl = baseUrl + "/api/telemetry/batch";
+        for (int size : BATCH_SIZES) {
+            for (boolean gzip : new boolean[] {false, true}) {
+                run("batch-" + size + (gzip ? "-gzip" : ""), client,
+                        () -> post(batchUrl, array(payloads, size, gzip), gzip), size, samples, clients);
+            }
+        }
+    }
+
+    private static void run(String name, HttpClient client, Supplier<HttpRequest> requests, int samplesPerRequest,
+                            int samples, int clients) throws InterruptedException {
+        int total = Math.max(1, samples / samplesPerRequest);
+        send(client, requests, Math.max(clients, total / 10), clients);
+        long started = System.nanoTime();
+        Result result = send(client, requests, total, clients);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf(Locale.ROOT, "%-18s %12.0f %10.0f %12.1f %8d%n",
+                name,
+                result.latency.getTotalCount() * samplesPerRequest / seconds,
+                result.latency.getTotalCount() / seconds,
+                result.latency.getValueAtPercentile(99) / 1000.0,
+                result.errors.get());
+    }
+
+    private static Result send(HttpClient client, Supplier<HttpRequest> requests, int total, int clients) throws InterruptedException {
+        Result result = new Result();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            sendNext(client, requests, total, next, result, done);
+        }
+        done.await();
+        return result;
+    }
+
+    // Each client chains its next request off the previous response
+    private static void sendNext(HttpClient client, Supplier<HttpRequest> requests, int total, AtomicInteger next,
+                                 Result result, CountDownLatch done) {
+        int index = next.getAndIncrement();
+        if (index >= total) {
+            done.countDown();
+            return;
+        }
+        // Built just before sending, so timestamps follow the order requests go out
+        HttpRequest request = requests.get();
+        long started = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure == null && response.statusCode() == 200) {
+                        result.latency.recordValue(Math.max(1, (System.nanoTime() - started) / 1_000));
+                    } else {
+                        result.errors.incrementAndGet();
+                    }
+                    sendNext(client, requests, total, next, result, done);
+                });
+    }
+
+    private static String sample(String[] payloads) {
+        long n = SAMPLES.getAndIncrement();
+        String timestamp = Instant.ofEpochMilli(START_MILLIS + n / VEHICLES).toString();
+        return payloads[(int) (n % VEHICLES)].replace(PAYLOAD_TIMESTAMP, timestamp);
+    }
+
+    private static byte[] array(String[] payloads, int size, boolean gzip) {
+        StringBuilder json = new StringBuilder(size * payloads[0].length() + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(sample(payloads));
+        }
+        byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        if (!gzip) {
+            return body;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static HttpRequest post(String url, byte[] body, boolean gzip) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (gzip) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    private static final class Result {
+        // Request latency in microseconds at three significant digits, auto-resizing
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
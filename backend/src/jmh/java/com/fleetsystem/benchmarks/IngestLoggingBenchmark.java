@@ -0,0 +1,168 @@
+package com.fleetsystem.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.TelemetryLogSampler;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import net.logstash.logback.encoder.LogstashEncoder;
+
+/**
+ * HTTP ingest throughput (parse one payload, then log as the controller does) from four threads
+ * across 1000 vehicles, with each logging setup:
+ * <ul>
+ *   <li>{@code none} - no log call, the upper bound</li>
+ *   <li>{@code sync-pattern} - the old path: a line with a payload prefix per message, pattern
+ *       layout, written and flushed on the request thread</li>
+ *   <li>{@code async-json} - the prod profile's appender, still logging every message</li>
+ *   <li>{@code async-json-sampled} - the prod profile with per-vehicle sampling, the current path</li>
+ * </ul>
+ * The async appender drops INFO events once its queue is 80% full instead of blocking, so its
+ * figure for {@code async-json} is what ingest sees, not how many lines reach the file. Its
+ * background writer needs a spare core to pay off; sampling removes the work either way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IngestLoggingBenchmark {
+
+    private static final int VEHICLES = 1000;
+
+    @Param({"none", "sync-pattern", "async-json", "async-json-sampled"})
+    private String mode;
+
+    private byte[][] payloads;
+    private ObjectReader reader;
+    private TelemetryLogSampler sampler;
+    private LoggerContext context;
+    private Logger log;
+    private File file;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws IOException {
+        payloads = new byte[VEHICLES][];
+        for (int v = 0; v < VEHICLES; v++) {
+            payloads[v] = BenchmarkData.simulatorPayload(BenchmarkData.vehicleId(v)).getBytes(StandardCharsets.UTF_8);
+        }
+        reader = new ObjectMapper().readerFor(TelemetryDto.class);
+        sampler = new TelemetryLogSampler(60_000);
+
+        context = new LoggerContext();
+        file = Files.createTempFile("ingest-logging", ".log").toFile();
+        log = context.getLogger("com.fleetsystem.telemetry.controller.TelemetryController");
+        log.setLevel(Level.INFO);
+        log.setAdditive(false);
+        switch (mode) {
+            case "none":
+                break;
+            case "sync-pattern":
+                log.addAppender(fileAppender(patternEncoder()));
+                break;
+            default:
+                log.addAppender(asyncAppender(fileAppender(jsonEncoder())));
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        file.delete();
+    }
+
+    @Benchmark
+    public TelemetryDto ingest() throws IOException {
+        byte[] payload = payloads[(next.getAndIncrement() & Integer.MAX_VALUE) % VEHICLES];
+        TelemetryDto dto = reader.readValue(payload);
+        switch (mode) {
+            case "sync-pattern":
+                log.info("Received telemetry data via HTTP: {}",
+                        new String(payload, 0, Math.min(100, payload.length), StandardCharsets.UTF_8) + "...");
+                break;
+            case "async-json":
+                log.info("Received telemetry via HTTP for vehicle {} ({} more since last logged)", dto.getVehicleId(), 0);
+                break;
+            case "async-json-sampled":
+                long suppressed = sampler.sample(dto.getVehicleId());
+                if (suppressed >= 0) {
+                    log.info("Received telemetry via HTTP for vehicle {} ({} more since last logged)", dto.getVehicleId(), suppressed);
+                }
+                break;
+            default:
+                break;
+        }
+        return dto;
+    }
+
+    private Encoder<ILoggingEvent> patternEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        // Spring Boot's console pattern without colours
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 1 --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        return encoder;
+    }
+
+    private Appender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file.getAbsolutePath());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    // Same settings as the prod profile in logback-spring.xml
+    private Appender<ILoggingEvent> asyncAppender(Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.setIncludeCallerData(false);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+}
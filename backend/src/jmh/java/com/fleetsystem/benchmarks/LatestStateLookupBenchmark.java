@@ -0,0 +1,89 @@
+package com.fleetsystem.benchmarks;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.FleetMetricsAggregator;
+import com.fleetsystem.telemetry.service.TelemetryLatestStateRegistry;
+
+/**
+ * Reads against the in-memory latest-state registry that backs /api/telemetry/latest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LatestStateLookupBenchmark {
+
+    @Param({"10000", "100000"})
+    private int vehicles;
+
+    // After the fleet's sample time, so every update below replaces the stored sample
+    private static final Instant UPDATES_FROM = Instant.parse("2024-10-15T00:00:00Z");
+
+    private TelemetryLatestStateRegistry registry;
+    private String[] vehicleIds;
+    private long versionAfterSetUp;
+    // Benchmarks run single-threaded, so a plain counter gives strictly increasing timestamps
+    private long updates;
+
+    @Setup
+    public void setUp() {
+        registry = new TelemetryLatestStateRegistry(null, new FleetMetricsAggregator(20, 105));
+        vehicleIds = new String[vehicles];
+        for (int i = 0; i < vehicles; i++) {
+            vehicleIds[i] = BenchmarkData.vehicleId(i);
+        }
+        for (TelemetryDto dto : BenchmarkData.fleet(vehicles)) {
+            registry.update(dto);
+        }
+        versionAfterSetUp = registry.getVersion();
+    }
+
+    // The registry ignores a sample that is not newer, which would leave updateThenGetAll on the cached snapshot
+    @TearDown
+    public void checkEveryUpdateChangedTheVersion() {
+        if (registry.getVersion() - versionAfterSetUp != updates) {
+            throw new IllegalStateException(updates + " updates but the version moved by "
+                    + (registry.getVersion() - versionAfterSetUp));
+        }
+    }
+
+    @Benchmark
+    public TelemetryDto getByVehicleId() {
+        return registry.get(vehicleIds[ThreadLocalRandom.current().nextInt(vehicles)]);
+    }
+
+    // Repeated dashboard polls with no ingest in between hit the cached snapshot
+    @Benchmark
+    public List<TelemetryDto> getAllUnchanged() {
+        return registry.getAll();
+    }
+
+    // Worst case: every poll follows an ingest that bumps the version, so every poll rebuilds the snapshot
+    @Benchmark
+    public List<TelemetryDto> updateThenGetAll() {
+        TelemetryDto current = registry.get(vehicleIds[ThreadLocalRandom.current().nextInt(vehicles)]);
+        registry.update(new TelemetryDto(current.getVehicleId(), UPDATES_FROM.plusMillis(++updates).toString(),
+                current.getSpecs(), current.getSignals(), current.getStatus()));
+        return registry.getAll();
+    }
+}
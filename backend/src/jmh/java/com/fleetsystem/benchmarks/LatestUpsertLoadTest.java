@@ -0,0 +1,279 @@
+package com.fleetsystem.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Latest-state writes/sec into a copy of {@code vehicle_telemetry_entity} on a real Postgres.
+ * Not a JMH benchmark; run with
+ * <pre>
+ *   mvn -Pbenchmarks clean test-compile exec:exec@upsert-load-test
+ * </pre>
+ * It uses the application's {@code DB_*} environment variables and its own
+ * {@code load_test_vehicle_telemetry} table, dropped at the end. {@code LOADTEST_ROWS} (default
+ * 100000) samples for {@code LOADTEST_VEHICLES} (default 10000) vehicles are written by
+ * {@code LOADTEST_THREADS} (default 4) threads, each owning a disjoint set of vehicles, in each
+ * scenario:
+ * <ul>
+ *   <li>{@code select-update} - what saving the JPA entity did: SELECT the row, then UPDATE
+ *       every column (or INSERT), one transaction per sample</li>
+ *   <li>{@code upsert} - the guarded INSERT ... ON CONFLICT for one sample per statement, as the
+ *       direct ingest path now issues it</li>
+ *   <li>{@code multi-row-upsert} - the same statement with 500 vehicles per execution, as the
+ *       write-behind flush and batch paths issue it</li>
+ * </ul>
+ * Before the timings it checks the guard: a sample older than the stored one must leave the
+ * row unchanged, and one without parseable millis must replace it.
+ */
+public final class LatestUpsertLoadTest {
+
+    private static final String TABLE = "load_test_vehicle_telemetry";
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final String ROW = "(?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb)";
+    // Same statement as VehicleTelemetryJdbcRepository, on the copy table
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO " + TABLE + " AS latest (vehicle_id, timestamp, sampled_at_ms, specs, signals, status) VALUES ";
+    private static final String UPSERT_SUFFIX =
+            " ON CONFLICT (vehicle_id) DO UPDATE SET timestamp = excluded.timestamp, sampled_at_ms = excluded.sampled_at_ms, " +
+            "specs = excluded.specs, signals = excluded.signals, status = excluded.status " +
+            "WHERE excluded.sampled_at_ms IS NULL OR latest.sampled_at_ms IS NULL OR excluded.sampled_at_ms > latest.sampled_at_ms";
+    private static final String SELECT_SQL =
+            "SELECT vehicle_id, timestamp, sampled_at_ms, specs, signals, status FROM " + TABLE + " WHERE vehicle_id = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE " + TABLE + " SET timestamp = ?, sampled_at_ms = ?, specs = ?::jsonb, signals = ?::jsonb, status = ?::jsonb WHERE vehicle_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO " + TABLE + " (vehicle_id, timestamp, sampled_at_ms, specs, signals, status) VALUES " + ROW;
+    private static final String SPECS = "{\"model\":\"R500\",\"engine\":\"DC13\",\"fuel_capacity\":400}";
+    private static final String STATUS = "{\"state\":\"driving\"}";
+
+    private LatestUpsertLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.parseInt(env("LOADTEST_ROWS", "100000"));
+        int vehicles = Integer.parseInt(env("LOADTEST_VEHICLES", "10000"));
+        int threads = Integer.parseInt(env("LOADTEST_THREADS", "4"));
+
+        try (HikariDataSource dataSource = dataSource(threads)) {
+            createTable(dataSource);
+            try {
+                checkGuard(dataSource);
+                System.out.printf(Locale.ROOT, "%,d samples, %,d vehicles, %d threads%n", rows, vehicles, threads);
+                run("select-update", dataSource, rows, vehicles, threads, LatestUpsertLoadTest::selectUpdate);
+                run("upsert", dataSource, rows, vehicles, threads, LatestUpsertLoadTest::upsertSingle);
+                run("multi-row-upsert", dataSource, rows, vehicles, threads, LatestUpsertLoadTest::upsertMultiRow);
+            } finally {
+                try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                }
+            }
+        }
+    }
+
+    private static void checkGuard(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            long now = System.currentTimeMillis();
+            upsert(connection, List.of(new Sample("GUARD", now)));
+            upsert(connection, List.of(new Sample("GUARD", now - 1_000)));
+            expect(connection, now, "an older sample replaced a newer one");
+            upsert(connection, List.of(new Sample("GUARD", now + 1_000)));
+            expect(connection, now + 1_000, "a newer sample was not applied");
+            upsert(connection, List.of(new Sample("GUARD", Long.MIN_VALUE)));
+            expect(connection, Long.MIN_VALUE, "a sample without a parseable timestamp was not applied");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE " + TABLE);
+            }
+        }
+        System.out.println("ordering guard: ok");
+    }
+
+    private static void expect(Connection connection, long sampledAt, String failure) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT sampled_at_ms FROM " + TABLE + " WHERE vehicle_id = 'GUARD'");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            long stored = rs.getLong(1);
+            if (rs.wasNull() ? sampledAt != Long.MIN_VALUE : stored != sampledAt) {
+                throw new IllegalStateException("Ordering guard failed: " + failure);
+            }
+        }
+    }
+
+    private static void run(String name, HikariDataSource dataSource, int rows, int vehicles, int threads, Writer writer) throws Exception {
+        long clock = System.currentTimeMillis();
+        // A tenth of the samples first, untimed, so every scenario starts with warm plans and JIT
+        write(dataSource, Math.max(threads, rows / 10), vehicles, threads, clock, writer);
+        long started = System.nanoTime();
+        write(dataSource, rows, vehicles, threads, clock + rows, writer);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + TABLE);
+        }
+        System.out.printf(Locale.ROOT, "%-18s %10.0f writes/s  (%.2f s)%n", name, rows / seconds, seconds);
+    }
+
+    // Thread t writes vehicles t, t + threads, ...; each round over them is one millisecond later
+    private static void write(HikariDataSource dataSource, int rows, int vehicles, int threads, long clock, Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                int share = rows / threads + (t < rows % threads ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    int owned = vehicles / threads + (thread < vehicles % threads ? 1 : 0);
+                    List<Sample> samples = new ArrayList<>(share);
+                    for (int i = 0; i < share; i++) {
+                        samples.add(new Sample(BenchmarkData.vehicleId(thread + (i % owned) * threads), clock + i / owned));
+                    }
+                    try (Connection connection = dataSource.getConnection()) {
+                        writer.write(connection, samples, new SplittableRandom(thread));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void selectUpdate(Connection connection, List<Sample> samples, SplittableRandom random) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(SELECT_SQL);
+             PreparedStatement update = connection.prepareStatement(UPDATE_SQL);
+             PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (Sample sample : samples) {
+                select.setString(1, sample.vehicleId);
+                boolean exists;
+                try (ResultSet rs = select.executeQuery()) {
+                    exists = rs.next();
+                }
+                if (exists) {
+                    update.setString(1, sample.timestamp());
+                    update.setLong(2, sample.sampledAt);
+                    update.setString(3, SPECS);
+                    update.setString(4, signals(random));
+                    update.setString(5, STATUS);
+                    update.setString(6, sample.vehicleId);
+                    update.executeUpdate();
+                } else {
+                    bind(insert, 1, sample, random);
+                    insert.executeUpdate();
+                }
+                connection.commit();
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void upsertSingle(Connection connection, List<Sample> samples, SplittableRandom random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(UPSERT_PREFIX + ROW + UPSERT_SUFFIX)) {
+            for (Sample sample : samples) {
+                bind(ps, 1, sample, random);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    // Chunks of distinct vehicles, as the write-behind flush produces them
+    private static void upsertMultiRow(Connection connection, List<Sample> samples, SplittableRandom random) throws SQLException {
+        for (int from = 0; from < samples.size(); from += ROWS_PER_STATEMENT) {
+            List<Sample> chunk = samples.subList(from, Math.min(from + ROWS_PER_STATEMENT, samples.size()));
+            upsert(connection, chunk, random);
+        }
+    }
+
+    private static void upsert(Connection connection, List<Sample> chunk) throws SQLException {
+        upsert(connection, chunk, new SplittableRandom(0));
+    }
+
+    private static void upsert(Connection connection, List<Sample> chunk, SplittableRandom random) throws SQLException {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i > 0 ? "," : "").append(ROW);
+        }
+        try (PreparedStatement ps = connection.prepareStatement(sql.append(UPSERT_SUFFIX).toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                bind(ps, 1 + i * 6, chunk.get(i), random);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, int index, Sample sample, SplittableRandom random) throws SQLException {
+        ps.setString(index, sample.vehicleId);
+        if (sample.sampledAt == Long.MIN_VALUE) {
+            ps.setString(index + 1, "not-a-timestamp");
+            ps.setNull(index + 2, Types.BIGINT);
+        } else {
+            ps.setString(index + 1, sample.timestamp());
+            ps.setLong(index + 2, sample.sampledAt);
+        }
+        ps.setString(index + 3, SPECS);
+        ps.setString(index + 4, signals(random));
+        ps.setString(index + 5, STATUS);
+    }
+
+    private static String signals(SplittableRandom random) {
+        return String.format(Locale.ROOT,
+                "{\"engine_temp\":%.1f,\"fuel_level\":%.1f,\"speed\":%.1f,\"rpm\":%.0f,\"tire_pressure\":%.1f}",
+                80 + random.nextDouble(30), random.nextDouble(100), random.nextDouble(120),
+                800 + random.nextDouble(2000), 30 + random.nextDouble(8));
+    }
+
+    private static void createTable(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "vehicle_id VARCHAR(255) PRIMARY KEY, " +
+                    "timestamp VARCHAR(255), " +
+                    "sampled_at_ms BIGINT, " +
+                    "specs JSONB, " +
+                    "signals JSONB, " +
+                    "status JSONB)");
+        }
+    }
+
+    // Mirrors spring.datasource in application.yml
+    private static HikariDataSource dataSource(int threads) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:postgresql://" + env("DB_HOST", "localhost") + ":" + env("DB_PORT", "5434") + "/" + env("DB_NAME", "fleetdb"));
+        config.setUsername(env("DB_USER", "umeshreddy"));
+        config.setPassword(env("DB_PASSWORD", ""));
+        config.setMaximumPoolSize(threads);
+        return new HikariDataSource(config);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    private record Sample(String vehicleId, long sampledAt) {
+        String timestamp() {
+            return Instant.ofEpochMilli(sampledAt).toString();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Connection connection, List<Sample> samples, SplittableRandom random) throws SQLException;
+    }
+}
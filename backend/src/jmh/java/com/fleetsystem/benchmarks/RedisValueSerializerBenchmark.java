@@ -0,0 +1,103 @@
+package com.fleetsystem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.fleetsystem.springbackend.config.CompactRedisSerializer;
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+/**
+ * Encoding and decoding one cached value with the JSON serializer RedisConfig used to hard-wire
+ * (plus java.time support) versus {@link CompactRedisSerializer}. Bytes per entry for each format
+ * are printed once per trial; {@code fleet} is 200 snapshots, enough to cross the compression
+ * threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+    @Param({"telemetry", "vehicle", "fleet"})
+    public String value;
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactRedisSerializer compact;
+    private Object sample;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        json = CompactRedisSerializer.jsonSerializer();
+        compact = new CompactRedisSerializer(1024);
+        sample = switch (value) {
+            case "telemetry" -> telemetry();
+            case "vehicle" -> vehicle();
+            // An ArrayList, as cached lists are; arrays are not an allowed cache value type
+            default -> new ArrayList<>(BenchmarkData.fleet(200));
+        };
+        jsonBytes = json.serialize(sample);
+        compactBytes = compact.serialize(sample);
+        System.out.printf(Locale.ROOT, "%n%s: json=%d bytes, compact=%d bytes%n",
+                value, jsonBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(sample);
+    }
+
+    @Benchmark
+    public byte[] compactEncode() {
+        return compact.serialize(sample);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object compactDecode() {
+        return compact.deserialize(compactBytes);
+    }
+
+    private static TelemetryDto telemetry() {
+        List<TelemetryDto> one = BenchmarkData.fleet(1);
+        return one.get(0);
+    }
+
+    private static VehicleEntity vehicle() {
+        SplittableRandom random = new SplittableRandom(42);
+        VehicleEntity vehicle = new VehicleEntity(BenchmarkData.vehicleId(1), "GPS-000001", "IOT-000001",
+                "Anna Lindqvist", "ABC 123", "Scania", "R450", 2023);
+        vehicle.setFuelLevel(random.nextDouble(100));
+        vehicle.setEngineHealth("good");
+        vehicle.setLocation("59.329323,18.068581");
+        vehicle.setSpeed(random.nextDouble(120));
+        vehicle.setTirePressure(30 + random.nextDouble(8));
+        vehicle.setEngineTemp(80 + random.nextDouble(30));
+        vehicle.setRpm(1500);
+        return vehicle;
+    }
+}
@@ -0,0 +1,125 @@
+package com.fleetsystem.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Closed-loop HTTP load against a running backend: at each concurrency level, that many clients
+ * send a request, wait for the answer and send the next, for a fixed time. Reports completed
+ * requests/sec and latency percentiles, so the platform-thread and virtual-thread modes can be
+ * compared on the same database. Not a JMH benchmark; start the backend, then run
+ * <pre>
+ *   mvn -Pbenchmarks clean test-compile exec:exec@request-load-test
+ * </pre>
+ * once against each mode. Settings come from environment variables:
+ * <ul>
+ *   <li>{@code LOADTEST_URL} - backend base URL, default {@code http://localhost:8081}</li>
+ *   <li>{@code LOADTEST_PATHS} - comma-separated GET paths, requested round-robin; the defaults
+ *       read vehicles and telemetry through JDBC</li>
+ *   <li>{@code LOADTEST_CONCURRENCY} - comma-separated client counts, default {@code 50,200,400,800}</li>
+ *   <li>{@code LOADTEST_SECONDS} - measured seconds per level after a 5 second warm-up, default 20</li>
+ *   <li>{@code LOADTEST_TIMEOUT_MS} - per-request timeout, counted as an error, default 10000</li>
+ * </ul>
+ * Tomcat's default 200 platform threads cap concurrent requests; above that, extra clients wait
+ * in the accept queue and show up as p99 latency rather than throughput.
+ */
+public final class RequestCapacityLoadTest {
+
+    private static final String DEFAULT_PATHS = "/api/vehicles/active,/api/vehicles/" + BenchmarkData.vehicleId(1) +
+            ",/api/telemetry/vehicle/" + BenchmarkData.vehicleId(1) + ",/api/analytics/fleet";
+    private static final int WARMUP_SECONDS = 5;
+
+    private RequestCapacityLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = env("LOADTEST_URL", "http://localhost:8081");
+        String[] paths = env("LOADTEST_PATHS", DEFAULT_PATHS).split(",");
+        String[] levels = env("LOADTEST_CONCURRENCY", "50,200,400,800").split(",");
+        int seconds = Integer.parseInt(env("LOADTEST_SECONDS", "20"));
+        Duration timeout = Duration.ofMillis(Long.parseLong(env("LOADTEST_TIMEOUT_MS", "10000")));
+
+        HttpRequest[] requests = new HttpRequest[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            requests[i] = HttpRequest.newBuilder(URI.create(baseUrl + paths[i].trim())).timeout(timeout).GET().build();
+        }
+
+        System.out.printf(Locale.ROOT, "%s, %d paths, %d s per level%n", baseUrl, paths.length, seconds);
+        System.out.printf(Locale.ROOT, "%8s %10s %9s %9s %9s %9s %8s%n",
+                "clients", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        for (String level : levels) {
+            int clients = Integer.parseInt(level.trim());
+            // A fresh client per level so connections from the previous level do not carry over
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout)
+                    .build();
+            run(client, requests, clients, WARMUP_SECONDS);
+            Result result = run(client, requests, clients, seconds);
+            Histogram latency = result.latency;
+            System.out.printf(Locale.ROOT, "%8d %10.0f %9.1f %9.1f %9.1f %9.1f %8d%n",
+                    clients,
+                    latency.getTotalCount() / (double) seconds,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(90) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0,
+                    result.errors.get());
+            if (result.firstError.get() != null) {
+                System.out.printf(Locale.ROOT, "%8s first error: %s%n", "", result.firstError.get());
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest[] requests, int clients, int seconds) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            send(client, requests, c, deadline, result, done);
+        }
+        done.await();
+        return result;
+    }
+
+    // Each client chains its next request off the previous response, so no thread is held per client
+    private static void send(HttpClient client, HttpRequest[] requests, int index, long deadline, Result result, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long started = System.nanoTime();
+        client.sendAsync(requests[index % requests.length], HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure == null && response.statusCode() < 500) {
+                        result.latency.recordValue(Math.max(1, (System.nanoTime() - started) / 1_000));
+                    } else {
+                        result.errors.incrementAndGet();
+                        result.firstError.compareAndSet(null, failure != null ? failure.toString() : "HTTP " + response.statusCode());
+                    }
+                    send(client, requests, index + 1, deadline, result, done);
+                });
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    private static final class Result {
+        // Microseconds at three significant digits, auto-resizing
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+    }
+}
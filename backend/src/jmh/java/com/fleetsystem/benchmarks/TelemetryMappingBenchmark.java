@@ -0,0 +1,49 @@
+package com.fleetsystem.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.entity.VehicleTelemetryEntity;
+import com.fleetsystem.telemetry.service.TelemetryService;
+
+/**
+ * Entity to DTO mapping, as done for every row read back from vehicle_telemetry_entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryMappingBenchmark {
+
+    private VehicleTelemetryEntity entity;
+
+    @Setup
+    public void setUp() throws Exception {
+        TelemetryDto dto = new ObjectMapper().readValue(BenchmarkData.simulatorPayload("TRUCK-001"), TelemetryDto.class);
+        entity = new VehicleTelemetryEntity();
+        entity.setVehicleId(dto.getVehicleId());
+        entity.setTimestamp(dto.getTimestamp());
+        entity.setSpecs(dto.getSpecs());
+        entity.setSignals(dto.getSignals().toMap());
+        entity.setStatus(dto.getStatus());
+    }
+
+    @Benchmark
+    public TelemetryDto convertToDto() {
+        return TelemetryService.convertToDto(entity);
+    }
+}
@@ -0,0 +1,78 @@
+package com.fleetsystem.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+/**
+ * Parsing one simulator payload. {@code legacy*} reproduce the old ingest path (a fresh
+ * ObjectMapper per message into map-typed fields); compare {@code gc.alloc.rate.norm}
+ * (bytes per message) against {@code typedSharedReaderFromBytes}, the current path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryParseBenchmark {
+
+    private String json;
+    private byte[] jsonBytes;
+    private ObjectMapper sharedMapper;
+    private ObjectReader legacyReader;
+    private ObjectReader typedReader;
+
+    @Setup
+    public void setUp() {
+        json = BenchmarkData.simulatorPayload("TRUCK-001");
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        sharedMapper = new ObjectMapper();
+        legacyReader = sharedMapper.readerFor(LegacyTelemetryDto.class);
+        typedReader = sharedMapper.readerFor(TelemetryDto.class);
+    }
+
+    @Benchmark
+    public LegacyTelemetryDto legacyNewMapperPerMessage() throws Exception {
+        return new ObjectMapper().readValue(json, LegacyTelemetryDto.class);
+    }
+
+    @Benchmark
+    public LegacyTelemetryDto legacySharedReader() throws Exception {
+        return legacyReader.readValue(json);
+    }
+
+    @Benchmark
+    public TelemetryDto typedSharedReaderFromString() throws Exception {
+        return typedReader.readValue(json);
+    }
+
+    @Benchmark
+    public TelemetryDto typedSharedReaderFromBytes() throws Exception {
+        return typedReader.readValue(jsonBytes);
+    }
+
+    // Shape of TelemetryDto before signals were typed
+    public static class LegacyTelemetryDto {
+        public String vehicleId;
+        public String timestamp;
+        public Map<String, Object> specs;
+        public Map<String, Object> signals;
+        public Map<String, Object> status;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fleetsystem.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.service.VehicleSearchIndex;
+
+/**
+ * Search-box queries against {@link VehicleSearchIndex} for 100k vehicles, limit 20:
+ * a two-letter prefix, a driver surname fragment and a registration fragment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class VehicleSearchBenchmark {
+
+    private static final String[] FIRST = {"Anna", "Erik", "Lars", "Maria", "Karin", "Johan", "Sofia", "Nils",
+            "Elsa", "Oskar", "Ingrid", "Magnus", "Astrid", "Henrik", "Linnea", "Gustav"};
+    private static final String[] LAST = {"Lindqvist", "Andersson", "Johansson", "Karlsson", "Nilsson",
+            "Eriksson", "Larsson", "Olsson", "Persson", "Svensson", "Gustafsson", "Pettersson", "Jonsson",
+            "Jansson", "Hansson", "Bengtsson", "Lindberg", "Lindstrom", "Holm", "Sandberg"};
+
+    @Param({"100000"})
+    public int vehicles;
+
+    @Param({"ma", "dqvi", "abc 12"})
+    public String query;
+
+    private VehicleSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new VehicleSearchIndex(null);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < vehicles; i++) {
+            VehicleEntity vehicle = new VehicleEntity();
+            vehicle.setVehicleId(BenchmarkData.vehicleId(i));
+            vehicle.setDriverName(FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]);
+            vehicle.setRegistrationNumber(String.format(Locale.ROOT, "%c%c%c %03d",
+                    'A' + random.nextInt(26), 'A' + random.nextInt(26), 'A' + random.nextInt(26), random.nextInt(1000)));
+            index.put(vehicle);
+        }
+    }
+
+    @Benchmark
+    public List<VehicleSearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
@@ -0,0 +1,279 @@
+package com.fleetsystem.springbackend.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+
+/**
+ * Binary Redis value format: a 4-byte header followed by a Smile-encoded body.
+ * <pre>
+ *   byte 0  MAGIC
+ *   byte 1  format version
+ *   byte 2  type tag (see {@link #TYPES}); 0 means a UTF-8 class name follows
+ *   byte 3  flags, bit 0 set when the body is deflated
+ * </pre>
+ * Known snapshot types are identified by tag instead of an embedded class name; maps and lists
+ * read back as plain {@code LinkedHashMap}/{@code ArrayList} without element types. Values
+ * written by the JSON serializer, or by a newer format version, still decode (JSON) or read
+ * as a cache miss (newer version), so nodes can be rolled one at a time.
+ * <p>
+ * Both formats only ever instantiate the types in {@link #ALLOWED_TYPES}: anything that can
+ * write to Redis must not be able to pick a class for this node to construct.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactRedisSerializer.class);
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte FORMAT_VERSION = 1;
+    static final int HEADER_LENGTH = 4;
+    private static final byte TAG_CLASS_NAME = 0;
+    private static final byte FLAG_DEFLATED = 1;
+
+    // Tags are persisted in Redis: append new types, never reorder
+    private static final Class<?>[] TYPES = {
+            null,
+            TelemetryDto.class,
+            VehicleEntity.class,
+            LinkedHashMap.class,
+            ArrayList.class,
+    };
+
+    // Every type a cached value, or a value nested in one, may carry as a class name or JSON
+    // type id. Add a type here before caching it
+    static final Map<String, Class<?>> ALLOWED_TYPES = Stream.of(
+                    TelemetryDto.class, VehicleEntity.class, TelemetrySignals.class,
+                    LinkedHashMap.class, HashMap.class, ArrayList.class,
+                    String.class, Integer.class, Long.class, Double.class, Boolean.class)
+            .collect(Collectors.toUnmodifiableMap(Class::getName, Function.identity()));
+
+    private final ObjectMapper smileMapper;
+    private final GenericJackson2JsonRedisSerializer legacyJson = jsonSerializer();
+    private final int compressionThreshold;
+
+    public CompactRedisSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        this.smileMapper = new ObjectMapper(new SmileFactory())
+                .registerModule(new JavaTimeModule())
+                // Lets an older node read a snapshot written with fields it does not know yet
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    // The previous value format; java.time support is needed for VehicleEntity timestamps
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        mapper.setDefaultTyping(new AllowedTypesTyping().init(JsonTypeInfo.Id.CLASS, null).inclusion(JsonTypeInfo.As.PROPERTY));
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte tag = tagFor(value.getClass());
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            if (tag == TAG_CLASS_NAME) {
+                if (ALLOWED_TYPES.get(value.getClass().getName()) != value.getClass()) {
+                    throw new SerializationException(value.getClass().getName() + " is not an allowed cache value type");
+                }
+                byte[] className = value.getClass().getName().getBytes(StandardCharsets.UTF_8);
+                out.write(className.length >>> 8);
+                out.write(className.length);
+                out.write(className);
+            }
+            smileMapper.writeValue(out, value);
+            byte[] body = out.toByteArray();
+
+            byte flags = 0;
+            if (body.length >= compressionThreshold) {
+                byte[] deflated = deflate(body);
+                if (deflated.length < body.length) {
+                    body = deflated;
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+
+            byte[] bytes = new byte[HEADER_LENGTH + body.length];
+            bytes[0] = MAGIC;
+            bytes[1] = FORMAT_VERSION;
+            bytes[2] = tag;
+            bytes[3] = flags;
+            System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            // Written by the JSON serializer before this format was rolled out
+            return legacyJson.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] > FORMAT_VERSION) {
+            log.debug("Skipping cache value in unsupported format version {}", bytes.length > 1 ? bytes[1] : -1);
+            return null;
+        }
+        try {
+            boolean deflated = (bytes[3] & FLAG_DEFLATED) != 0;
+            byte[] body = deflated ? inflate(bytes, HEADER_LENGTH) : bytes;
+            int offset = deflated ? 0 : HEADER_LENGTH;
+            int tag = bytes[2];
+            if (tag != TAG_CLASS_NAME) {
+                if (tag < 0 || tag >= TYPES.length) {
+                    return null;
+                }
+                return smileMapper.readValue(body, offset, body.length - offset, TYPES[tag]);
+            }
+            int nameLength = ((body[offset] & 0xFF) << 8) | (body[offset + 1] & 0xFF);
+            String className = new String(body, offset + 2, nameLength, StandardCharsets.UTF_8);
+            offset += 2 + nameLength;
+            Class<?> type = ALLOWED_TYPES.get(className);
+            if (type == null) {
+                throw new SerializationException("Cached value has a type that is not allowed: " + className);
+            }
+            return smileMapper.readValue(body, offset, body.length - offset, type);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read cached value", e);
+        }
+    }
+
+    private static byte tagFor(Class<?> type) {
+        for (byte tag = 1; tag < TYPES.length; tag++) {
+            if (TYPES[tag] == type) {
+                return tag;
+            }
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return tagFor(LinkedHashMap.class);
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return tagFor(ArrayList.class);
+        }
+        return TAG_CLASS_NAME;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate stream");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The default typing of {@link GenericJackson2JsonRedisSerializer}, which types every value
+     * except primitives, wrappers, enums and final JDK types, but resolving type ids only to
+     * {@link #ALLOWED_TYPES} instead of to any class on the classpath.
+     */
+    private static class AllowedTypesTyping extends ObjectMapper.DefaultTypeResolverBuilder {
+
+        AllowedTypesTyping() {
+            super(ObjectMapper.DefaultTyping.EVERYTHING, new AllowedTypesValidator());
+        }
+
+        @Override
+        public boolean useForType(JavaType type) {
+            if (type.isJavaLangObject()) {
+                return true;
+            }
+            while (type.isArrayType() || type.isReferenceType()) {
+                type = type.getContentType();
+            }
+            Class<?> raw = type.getRawClass();
+            if (type.isEnumType() || ClassUtils.isPrimitiveOrWrapper(raw)) {
+                return false;
+            }
+            if (type.isFinal() && raw.getPackageName().startsWith("java")) {
+                return false;
+            }
+            return !TreeNode.class.isAssignableFrom(raw);
+        }
+    }
+
+    // Decides on the type id alone, so a class that is not allowed is never even loaded. The JDK's
+    // immutable and wrapper collections are allowed too: the JSON format names a value's concrete type
+    private static class AllowedTypesValidator extends PolymorphicTypeValidator.Base {
+
+        @Override
+        public Validity validateSubClassName(MapperConfig<?> config, JavaType baseType, String subClassName) {
+            return isAllowed(subClassName) ? Validity.ALLOWED : Validity.DENIED;
+        }
+
+        @Override
+        public Validity validateSubType(MapperConfig<?> config, JavaType baseType, JavaType subType) {
+            return isAllowed(subType.getRawClass().getName()) ? Validity.ALLOWED : Validity.DENIED;
+        }
+
+        private static boolean isAllowed(String className) {
+            return ALLOWED_TYPES.containsKey(className)
+                    || className.startsWith("java.util.ImmutableCollections$")
+                    || className.startsWith("java.util.Collections$");
+        }
+    }
+}
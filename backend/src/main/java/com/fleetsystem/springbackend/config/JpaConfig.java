@@ -0,0 +1,18 @@
+package com.fleetsystem.springbackend.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fleetsystem.telemetry.service.TelemetryHistoryPartitionManager;
+
+@Configuration
+public class JpaConfig {
+
+    // telemetry_event is partitioned; it has to exist before ddl-auto runs, or Hibernate
+    // creates it as a plain table that partitions can never be attached to
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor telemetryHistoryTableDependsOn() {
+        return new EntityManagerFactoryDependsOnPostProcessor(TelemetryHistoryPartitionManager.class);
+    }
+}
@@ -3,22 +3,36 @@ package com.fleetsystem.springbackend.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.transaction.TransactionException;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableKafka
@@ -32,6 +46,40 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${kafka.telemetry.topic:scania-telemetry}")
+    private String telemetryTopic;
+
+    // Listener concurrency defaults to the partition count so every partition gets its own consumer
+    @Value("${kafka.telemetry.partitions:3}")
+    private int telemetryPartitions;
+
+    @Value("${kafka.telemetry.concurrency:${kafka.telemetry.partitions:3}}")
+    private int listenerConcurrency;
+
+    @Value("${kafka.telemetry.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.telemetry.retry-initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${kafka.telemetry.retry-max-interval-ms:30000}")
+    private long retryMaxIntervalMs;
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaAdmin(configProps);
+    }
+
+    @Bean
+    public NewTopic telemetryTopic() {
+        return TopicBuilder.name(telemetryTopic)
+                .partitions(telemetryPartitions)
+                .replicas(1)
+                .build();
+    }
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -47,21 +95,48 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, String> consumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "smartfleet-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        DefaultKafkaConsumerFactory<String, String> factory = new DefaultKafkaConsumerFactory<>(configProps);
+        // Binds the client's own metrics, including records-lag-max per partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory, Environment environment) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(listenerConcurrency);
+        // Offsets are committed by the listener once the whole batch has been persisted
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setCommonErrorHandler(telemetryErrorHandler());
+        // Boot only does this for its own factory; true with spring.threads.virtual.enabled on Java 21+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("telemetry-consumer-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
+
+    // A failed batch is retried with doubling pauses, capped at retry-max-interval-ms, for as long
+    // as it keeps failing: skipping it would commit offsets of samples that were never written
+    DefaultErrorHandler telemetryErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialIntervalMs, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(backOff);
+        // Database outages are transient; never hand such a batch to the (logging) recoverer
+        errorHandler.addRetryableExceptions(DataAccessException.class, TransactionException.class);
+        return errorHandler;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.fleetsystem.springbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import com.fleetsystem.telemetry.service.TelemetryPushService;
+
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private static final String BROKER_PREFIX = "/topic";
+
+    private final TelemetryPushService telemetryPushService;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(TelemetryPushService telemetryPushService,
+                           @Value("${websocket.allowed-origins:http://localhost:5173,http://localhost:3000}") String[] allowedOrigins) {
+        this.telemetryPushService = telemetryPushService;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Only the dashboard's own origins, so other sites cannot open a socket in a user's browser
+        registry.addEndpoint("/ws/telemetry").setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        // The broker only tracks subscriptions; TelemetryPushService sends the frames itself
+        registry.enableSimpleBroker(BROKER_PREFIX);
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that cannot drain its socket within these limits is disconnected
+        registration.setSendTimeLimit(10_000).setSendBufferSizeLimit(512 * 1024);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Frames on /topic come from the server only; a client SEND there would reach every subscriber
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor != null && accessor.getCommand() == StompCommand.SEND && isBrokerDestination(accessor.getDestination())) {
+                    throw new MessageDeliveryException(message, "Clients may not send to " + accessor.getDestination());
+                }
+                return message;
+            }
+        });
+    }
+
+    private static boolean isBrokerDestination(String destination) {
+        return destination != null && (destination.equals(BROKER_PREFIX) || destination.startsWith(BROKER_PREFIX + "/"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel,
+                                            MessageHandler handler, Exception ex) {
+                telemetryPushService.onFrameHandled(message);
+            }
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.fleetsystem.springbackend.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fleetsystem.springbackend.service.BulkTransferService;
+import com.fleetsystem.springbackend.service.BulkTransferService.Format;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Bulk CSV / NDJSON import and export. Request and response bodies are streamed, so file size
+ * is not bounded by heap; the format comes from {@code format} or, for imports, the Content-Type.
+ */
+@RestController
+@RequestMapping("/api/bulk")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class BulkTransferController {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTransferController.class);
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @PostMapping("/vehicles")
+    public ResponseEntity<Map<String, Object>> importVehicles(HttpServletRequest request,
+                                                              @RequestParam(required = false) String format) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BulkTransferService.ImportSummary summary =
+                    bulkTransferService.importVehicles(request.getInputStream(), importFormat(format, request));
+            log.info("Vehicle import: {} rows, {} imported, {} failed", summary.rows(), summary.imported(), summary.failed());
+            return ResponseEntity.ok(summaryResponse(response, summary));
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (JsonProcessingException e) {
+            // Malformed CSV; chunks written before this point stay imported
+            response.put("success", false);
+            response.put("error", "Malformed input: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Vehicle import error: {}", e.getMessage());
+            response.put("success", false);
+            response.put("error", "Vehicle import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping("/telemetry")
+    public ResponseEntity<Map<String, Object>> importTelemetry(HttpServletRequest request,
+                                                               @RequestParam(required = false) String format) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BulkTransferService.ImportSummary summary =
+                    bulkTransferService.importTelemetry(request.getInputStream(), importFormat(format, request));
+            log.info("Telemetry import: {} rows, {} imported, {} failed", summary.rows(), summary.imported(), summary.failed());
+            return ResponseEntity.ok(summaryResponse(response, summary));
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (JsonProcessingException e) {
+            // Malformed CSV; chunks written before this point stay imported
+            response.put("success", false);
+            response.put("error", "Malformed input: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Telemetry import error: {}", e.getMessage());
+            response.put("success", false);
+            response.put("error", "Telemetry import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/vehicles")
+    public ResponseEntity<StreamingResponseBody> exportVehicles(@RequestParam(defaultValue = "csv") String format) {
+        Format exportFormat;
+        try {
+            exportFormat = parseFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                bulkTransferService.exportVehicles(out, exportFormat);
+            } catch (IOException | RuntimeException e) {
+                // Status is already committed; the client sees a truncated file
+                log.error("Vehicle export error: {}", e.getMessage());
+                throw e;
+            }
+        };
+        return download("vehicles", exportFormat, body);
+    }
+
+    /**
+     * Exports telemetry history between {@code from} and {@code to} (default: the last 24 hours),
+     * for one vehicle or the whole fleet, ordered by sample timestamp.
+     */
+    @GetMapping("/telemetry")
+    public ResponseEntity<StreamingResponseBody> exportTelemetry(@RequestParam(required = false) String vehicleId,
+                                                                 @RequestParam(required = false) Instant from,
+                                                                 @RequestParam(required = false) Instant to,
+                                                                 @RequestParam(defaultValue = "csv") String format) {
+        Format exportFormat;
+        try {
+            exportFormat = parseFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(24));
+        StreamingResponseBody body = out -> {
+            try {
+                bulkTransferService.exportTelemetry(out, exportFormat, vehicleId, start, end);
+            } catch (IOException | RuntimeException e) {
+                log.error("Telemetry export error (vehicle {}): {}", vehicleId, e.getMessage());
+                throw e;
+            }
+        };
+        return download("telemetry", exportFormat, body);
+    }
+
+    private static Map<String, Object> summaryResponse(Map<String, Object> response, BulkTransferService.ImportSummary summary) {
+        response.put("success", summary.failed() == 0);
+        response.put("rows", summary.rows());
+        response.put("imported", summary.imported());
+        response.put("failed", summary.failed());
+        response.put("errors", summary.errors());
+        return response;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String name, Format format, StreamingResponseBody body) {
+        String extension = format == Format.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(format == Format.CSV ? TEXT_CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"")
+                .body(body);
+    }
+
+    private static Format importFormat(String format, HttpServletRequest request) {
+        if (format != null) {
+            return parseFormat(format);
+        }
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().contains("csv") ? Format.CSV : Format.NDJSON;
+    }
+
+    private static Format parseFormat(String format) {
+        switch (format.toLowerCase()) {
+            case "csv":
+                return Format.CSV;
+            case "ndjson":
+            case "jsonl":
+                return Format.NDJSON;
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or ndjson)");
+        }
+    }
+}
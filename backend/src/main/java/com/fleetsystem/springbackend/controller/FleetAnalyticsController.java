@@ -1,11 +1,17 @@
 package com.fleetsystem.springbackend.controller;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,12 +19,24 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fleetsystem.telemetry.entity.VehicleTelemetryEntity;
-import com.fleetsystem.telemetry.repository.VehicleTelemetryRepository;
+import com.fleetsystem.telemetry.controller.TelemetryController;
+import com.fleetsystem.telemetry.dto.RollupPoint;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.FleetMetricsAggregator;
+import com.fleetsystem.telemetry.service.TelemetryBackpressureException;
+import com.fleetsystem.telemetry.service.TelemetryIngestDispatcher;
+import com.fleetsystem.telemetry.service.TelemetryLogSampler;
 import com.fleetsystem.telemetry.service.TelemetryService;
+import com.fleetsystem.telemetry.service.TelemetryStreamIngestService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
@@ -26,26 +44,31 @@ import com.fleetsystem.telemetry.service.TelemetryService;
 public class FleetAnalyticsController {
     
     private static final Logger log = LoggerFactory.getLogger(FleetAnalyticsController.class);
-    private final VehicleTelemetryRepository repository;
     private final TelemetryService telemetryService;
+    private final TelemetryIngestDispatcher ingestDispatcher;
+    private final TelemetryLogSampler logSampler;
+    private final TelemetryStreamIngestService streamIngestService;
     
     @Autowired(required = false)
     private KafkaTemplate<String, String> kafkaTemplate;
 
-    public FleetAnalyticsController(VehicleTelemetryRepository repository, TelemetryService telemetryService) {
-        this.repository = repository;
+    public FleetAnalyticsController(TelemetryService telemetryService, TelemetryIngestDispatcher ingestDispatcher,
+                                    TelemetryLogSampler logSampler, TelemetryStreamIngestService streamIngestService) {
         this.telemetryService = telemetryService;
+        this.ingestDispatcher = ingestDispatcher;
+        this.logSampler = logSampler;
+        this.streamIngestService = streamIngestService;
     }
 
     @GetMapping("/vehicle-telemetry/{vehicleId}")
-    public ResponseEntity<VehicleTelemetryEntity> getVehicleTelemetry(@PathVariable String vehicleId) {
+    public ResponseEntity<TelemetryDto> getVehicleTelemetry(@PathVariable String vehicleId) {
         try {
-            Optional<VehicleTelemetryEntity> vehicle = repository.findById(vehicleId);
-            if (vehicle.isPresent()) {
-                log.info("Returning telemetry for vehicle: {}", vehicleId);
-                return ResponseEntity.ok(vehicle.get());
+            TelemetryDto vehicle = telemetryService.getLatestTelemetry(vehicleId);
+            if (vehicle != null) {
+                log.debug("Returning telemetry for vehicle: {}", vehicleId);
+                return ResponseEntity.ok(vehicle);
             } else {
-                log.warn("Vehicle not found: {}", vehicleId);
+                log.debug("Vehicle not found: {}", vehicleId);
                 return ResponseEntity.notFound().build();
             }
         } catch (Exception e) {
@@ -55,21 +78,87 @@ public class FleetAnalyticsController {
     }
 
     @GetMapping("/vehicle-telemetry")
-    public List<VehicleTelemetryEntity> getAllVehicleTelemetry() {
-        List<VehicleTelemetryEntity> vehicles = repository.findAll();
-        log.info("Returning telemetry for all vehicles, count: {}", vehicles.size());
-        return vehicles;
+    public ResponseEntity<List<TelemetryDto>> getAllVehicleTelemetry(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = "\"" + telemetryService.getLatestTelemetryVersion() + "\"";
+        if (TelemetryController.etagMatches(ifNoneMatch, etag)) {
+            return TelemetryController.notModified(etag);
+        }
+        List<TelemetryDto> vehicles = telemetryService.getLatestTelemetryData();
+        log.debug("Returning telemetry for all vehicles, count: {}", vehicles.size());
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(vehicles);
+    }
+    
+    // Fleet KPIs over every vehicle's latest sample, shares the ETag of the telemetry listings
+    @GetMapping("/analytics/fleet")
+    public ResponseEntity<FleetMetricsAggregator.FleetMetrics> getFleetMetrics(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = "\"" + telemetryService.getLatestTelemetryVersion() + "\"";
+        if (TelemetryController.etagMatches(ifNoneMatch, etag)) {
+            return TelemetryController.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(telemetryService.getFleetMetrics());
+    }
+    
+    /**
+     * Chart series for one vehicle from the 1m/5m/1h rollups: per-bucket count/min/max/avg/last of
+     * each signal in [from, to). Defaults to the last 60 buckets of the chosen resolution.
+     */
+    @GetMapping("/analytics/vehicle/{vehicleId}/series")
+    public ResponseEntity<Map<String, Object>> getVehicleSeries(@PathVariable String vehicleId,
+                                                                @RequestParam(defaultValue = "1m") String resolution,
+                                                                @RequestParam(required = false) Instant from,
+                                                                @RequestParam(required = false) Instant to) {
+        Map<String, Object> response = new HashMap<>();
+        RollupResolution rollupResolution;
+        try {
+            rollupResolution = RollupResolution.fromCode(resolution);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minusMillis(rollupResolution.getWidthMillis() * 60);
+        try {
+            List<RollupPoint> points = telemetryService.getVehicleSeries(vehicleId, rollupResolution, start, end);
+            response.put("vehicleId", vehicleId);
+            response.put("resolution", rollupResolution.getCode());
+            response.put("from", start);
+            response.put("to", end);
+            response.put("points", points);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error retrieving {} series for vehicle {}: {}", resolution, vehicleId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    // Anomalies from the in-process detector: currently active ones and the latest transitions
+    @GetMapping("/analytics/alerts")
+    public ResponseEntity<Map<String, Object>> getAlerts(@RequestParam(required = false) String vehicleId,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("active", telemetryService.getActiveAlerts(vehicleId));
+        response.put("recent", telemetryService.getRecentAlerts(vehicleId, Math.max(0, Math.min(limit, 1000))));
+        return ResponseEntity.ok(response);
     }
     
     @PostMapping("/telemetry/ingest")
-    public ResponseEntity<String> ingestTelemetry(@RequestBody String telemetryJson) {
+    public ResponseEntity<String> ingestTelemetry(@RequestBody byte[] telemetryJson) {
         try {
-            log.info("Received telemetry data via HTTP: {}", telemetryJson.substring(0, Math.min(100, telemetryJson.length())) + "...");
-            
-            // Process the telemetry data using the existing service
-            telemetryService.processTelemetryMessage(telemetryJson);
-            
+            // Parsed on the request thread; applied on the vehicle's ingest lane
+            TelemetryDto dto = telemetryService.parseTelemetryMessage(telemetryJson);
+            ingestDispatcher.dispatch(dto);
+
+            // Payloads are never logged; a sampled line per vehicle is enough to see who is sending
+            long suppressed = logSampler.sample(dto.getVehicleId());
+            if (suppressed >= 0) {
+                log.info("Received telemetry via HTTP for vehicle {} ({} more since last logged)", dto.getVehicleId(), suppressed);
+            }
             return ResponseEntity.ok("{\"status\":\"success\",\"message\":\"Telemetry data ingested successfully\"}");
+        } catch (TelemetryBackpressureException e) {
+            log.warn("Telemetry ingest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "1")
+                .body("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             log.error("Error processing telemetry data: {}", e.getMessage(), e);
             return ResponseEntity.status(500)
@@ -77,6 +166,16 @@ public class FleetAnalyticsController {
         }
     }
     
+    /**
+     * Long-lived NDJSON upload, one telemetry message per line, for gateways multiplexing many
+     * vehicles over one connection. The body is read without holding a request thread; the
+     * response is a summary (lines, accepted, failed) written when the client ends the body.
+     */
+    @PostMapping(value = "/telemetry/ingest/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void ingestTelemetryStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamIngestService.ingest(request, response);
+    }
+
     @PostMapping("/test/kafka")
     public ResponseEntity<String> testKafka() {
         if (kafkaTemplate != null) {
@@ -1,5 +1,8 @@
 package com.fleetsystem.springbackend.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,42 +24,50 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.service.VehicleConflictException;
 import com.fleetsystem.springbackend.service.VehicleService;
 
 @RestController
 @RequestMapping("/api/vehicles")
-@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true", exposedHeaders = VehicleController.NEXT_CURSOR_HEADER)
 public class VehicleController {
     
     private static final Logger log = LoggerFactory.getLogger(VehicleController.class);
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    
     @Autowired
     private VehicleService vehicleService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Lists vehicles ordered by vehicleId as a streamed JSON array. {@code fields} selects a
+     * subset of columns (vehicleId is always included). Without {@code limit} the whole fleet
+     * is streamed in keyset chunks; with it, one page is returned and the cursor for the next
+     * page, if any, is sent in the {@code X-Next-Cursor} header to pass back as {@code after}.
+     */
     @GetMapping
-    public ResponseEntity<List<VehicleEntity>> getAllVehicles() {
-        try {
-            List<VehicleEntity> vehicles = vehicleService.getAllVehicles();
-            log.info("Returning {} vehicles", vehicles.size());
-            return ResponseEntity.ok(vehicles);
-        } catch (Exception e) {
-            log.error("Error retrieving all vehicles: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-        }
+    public ResponseEntity<StreamingResponseBody> getAllVehicles(@RequestParam(required = false) String after,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String fields) {
+        return listVehicles(null, after, limit, fields);
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<VehicleEntity>> getActiveVehicles() {
-        try {
-            List<VehicleEntity> vehicles = vehicleService.getActiveVehicles();
-            log.info("Returning {} active vehicles", vehicles.size());
-            return ResponseEntity.ok(vehicles);
-        } catch (Exception e) {
-            log.error("Error retrieving active vehicles: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-        }
+    public ResponseEntity<StreamingResponseBody> getActiveVehicles(@RequestParam(required = false) String after,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String fields) {
+        return listVehicles("active", after, limit, fields);
     }
     
     @GetMapping("/{vehicleId}")
@@ -76,25 +88,34 @@ public class VehicleController {
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<VehicleEntity>> getVehiclesByStatus(@PathVariable String status) {
-        try {
-            List<VehicleEntity> vehicles = vehicleService.getVehiclesByStatus(status);
-            log.info("Returning {} vehicles with status: {}", vehicles.size(), status);
-            return ResponseEntity.ok(vehicles);
-        } catch (Exception e) {
-            log.error("Error retrieving vehicles by status {}: {}", status, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-        }
+    public ResponseEntity<StreamingResponseBody> getVehiclesByStatus(@PathVariable String status,
+                                                                     @RequestParam(required = false) String after,
+                                                                     @RequestParam(required = false) Integer limit,
+                                                                     @RequestParam(required = false) String fields) {
+        return listVehicles(status, after, limit, fields);
     }
     
+    /**
+     * Ranked substring search. {@code driverName} searches driver names only (the original
+     * parameter); {@code q} searches driver names and registration numbers.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<VehicleEntity>> searchVehiclesByDriver(@RequestParam String driverName) {
+    public ResponseEntity<List<VehicleEntity>> searchVehiclesByDriver(@RequestParam(required = false) String driverName,
+                                                                      @RequestParam(required = false) String q,
+                                                                      @RequestParam(defaultValue = "50") int limit) {
+        String query = q != null ? q : driverName;
+        if (query == null) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<VehicleEntity> vehicles = vehicleService.searchVehiclesByDriver(driverName);
-            log.info("Returning {} vehicles for driver search: {}", vehicles.size(), driverName);
+            int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<VehicleEntity> vehicles = q != null
+                    ? vehicleService.searchVehicles(q, size)
+                    : vehicleService.searchVehiclesByDriver(driverName, size);
+            log.info("Returning {} vehicles for search: {}", vehicles.size(), query);
             return ResponseEntity.ok(vehicles);
         } catch (Exception e) {
-            log.error("Error searching vehicles by driver {}: {}", driverName, e.getMessage());
+            log.error("Error searching vehicles for {}: {}", query, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
@@ -123,6 +144,13 @@ public class VehicleController {
             log.info("Vehicle created successfully: {}", request.getVehicleId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
+        } catch (VehicleConflictException e) {
+            log.warn("Vehicle creation conflict on {}: {}", e.getField(), e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            response.put("field", e.getField());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (RuntimeException e) {
             log.error("Vehicle creation failed: {}", e.getMessage());
             Map<String, Object> response = new HashMap<>();
@@ -138,6 +166,41 @@ public class VehicleController {
         }
     }
     
+    /**
+     * Bulk import. Rows are inserted independently: the response lists the rows that failed,
+     * by position in the request, with the conflicting or missing field where known.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> createVehicles(@RequestBody List<CreateVehicleRequest> requests) {
+        Map<String, Object> response = new HashMap<>();
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            response.put("success", false);
+            response.put("error", "Batch must contain between 1 and " + MAX_BATCH_SIZE + " vehicles");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            List<VehicleEntity> vehicles = new ArrayList<>(requests.size());
+            for (CreateVehicleRequest request : requests) {
+                vehicles.add(new VehicleEntity(request.getVehicleId(), request.getGpsId(), request.getIotDeviceId(),
+                        request.getDriverName(), request.getRegistrationNumber(),
+                        request.getMake(), request.getModel(), request.getYear()));
+            }
+            VehicleService.ImportResult result = vehicleService.importVehicles(vehicles);
+            
+            response.put("success", result.errors().isEmpty());
+            response.put("inserted", result.inserted());
+            response.put("failed", result.errors().size());
+            response.put("errors", result.errors());
+            log.info("Batch import: {} inserted, {} failed", result.inserted(), result.errors().size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Batch import error: {}", e.getMessage());
+            response.put("success", false);
+            response.put("error", "Batch import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     @PutMapping("/{vehicleId}")
     public ResponseEntity<Map<String, Object>> updateVehicle(@PathVariable String vehicleId, 
                                                            @RequestBody VehicleEntity updatedVehicle) {
@@ -211,6 +274,76 @@ public class VehicleController {
         }
     }
     
+    private ResponseEntity<StreamingResponseBody> listVehicles(String status, String after, Integer limit, String fields) {
+        List<String> columns;
+        try {
+            columns = vehicleService.resolveListingFields(fields);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, response));
+        }
+        
+        if (limit == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> streamAll(out, status, after, columns));
+        }
+        
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            // One extra row tells whether another page exists
+            List<Map<String, Object>> rows = vehicleService.getVehiclePage(status, after, pageSize + 1, columns);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            if (rows.size() > pageSize) {
+                rows = rows.subList(0, pageSize);
+                response.header(NEXT_CURSOR_HEADER, (String) rows.get(pageSize - 1).get("vehicleId"));
+            }
+            List<Map<String, Object>> page = rows;
+            return response.body(out -> writeRows(out, page));
+        } catch (Exception e) {
+            log.error("Error listing vehicles (status {}): {}", status, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private void streamAll(OutputStream out, String status, String after, List<String> columns) throws IOException {
+        int count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            String cursor = after;
+            List<Map<String, Object>> chunk;
+            do {
+                chunk = vehicleService.getVehiclePage(status, cursor, STREAM_CHUNK_SIZE, columns);
+                for (Map<String, Object> row : chunk) {
+                    generator.writeObject(row);
+                }
+                if (!chunk.isEmpty()) {
+                    cursor = (String) chunk.get(chunk.size() - 1).get("vehicleId");
+                }
+                count += chunk.size();
+                generator.flush();
+            } while (chunk.size() == STREAM_CHUNK_SIZE);
+            generator.writeEndArray();
+        } catch (IOException | RuntimeException e) {
+            // Status is already committed; the client sees a truncated array
+            log.error("Error streaming vehicles (status {}) after {} rows: {}", status, count, e.getMessage());
+            throw e;
+        }
+        log.info("Streamed {} vehicles (status {})", count, status != null ? status : "any");
+    }
+    
+    private void writeRows(OutputStream out, List<Map<String, Object>> rows) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (Map<String, Object> row : rows) {
+                generator.writeObject(row);
+            }
+            generator.writeEndArray();
+        }
+    }
+    
     // Request DTOs
     public static class CreateVehicleRequest {
         private String vehicleId;
@@ -0,0 +1,192 @@
+package com.fleetsystem.springbackend.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+
+/**
+ * Plain JDBC access to the vehicles table for bulk imports and exports.
+ * Rows are written with multi-row INSERTs that skip conflicting rows instead of failing the chunk.
+ */
+@Repository
+public class VehicleJdbcRepository {
+
+    // Unique columns in the order conflicts are reported, keyed by entity field name
+    public static final Map<String, String> UNIQUE_COLUMNS = Collections.unmodifiableMap(uniqueColumns());
+
+    // 11 bind parameters per row keeps a full chunk well under Postgres' 32767 parameter limit
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int COLUMNS = 11;
+
+    private static final String INSERT_PREFIX = "INSERT INTO vehicles " +
+            "(vehicle_id, gps_id, iot_device_id, driver_name, registration_number, make, model, year, status, created_at, updated_at) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING RETURNING vehicle_id";
+
+    private static final String FIND_CONFLICTS_SQL =
+            "SELECT vehicle_id, gps_id, iot_device_id, registration_number FROM vehicles " +
+            "WHERE vehicle_id = ANY(?) OR gps_id = ANY(?) OR iot_device_id = ANY(?) OR registration_number = ANY(?)";
+
+    // Export columns, named as in the vehicle JSON so an export can be imported again
+    public static final List<String> EXPORT_FIELDS = List.of(
+            "vehicleId", "gpsId", "iotDeviceId", "driverName", "registrationNumber", "make", "model", "year",
+            "status", "createdAt", "updatedAt", "fuelLevel", "engineHealth", "location", "speed",
+            "tirePressure", "engineTemp", "rpm");
+
+    private static final String EXPORT_SQL =
+            "SELECT vehicle_id, gps_id, iot_device_id, driver_name, registration_number, make, model, year, " +
+            "status, created_at, updated_at, fuel_level, engine_health, location, speed, tire_pressure, engine_temp, rpm " +
+            "FROM vehicles ORDER BY vehicle_id";
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VehicleJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts one chunk (at most {@link #maxRowsPerStatement()} rows) in a single statement.
+     * Rows that collide with an existing vehicle, or an earlier row of the same chunk, are skipped.
+     *
+     * @return ids of the vehicles actually inserted
+     */
+    public Set<String> insertSkippingConflicts(List<VehicleEntity> chunk) {
+        if (chunk.isEmpty()) {
+            return Set.of();
+        }
+        if (chunk.size() > ROWS_PER_STATEMENT) {
+            throw new IllegalArgumentException("At most " + ROWS_PER_STATEMENT + " rows per statement");
+        }
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(buildInsertSql(chunk.size()), ps -> {
+            int index = 1;
+            for (VehicleEntity vehicle : chunk) {
+                bindRow(ps, index, vehicle);
+                index += COLUMNS;
+            }
+        }, (RowCallbackHandler) rs -> {
+            inserted.add(rs.getString(1));
+        });
+        return inserted;
+    }
+
+    public int maxRowsPerStatement() {
+        return ROWS_PER_STATEMENT;
+    }
+
+    /**
+     * Existing values of the unique columns that match any of the given vehicles, keyed by entity
+     * field name, in one query.
+     */
+    public Map<String, Set<String>> findTakenValues(Collection<VehicleEntity> vehicles) {
+        List<String> vehicleIds = new ArrayList<>();
+        List<String> gpsIds = new ArrayList<>();
+        List<String> iotDeviceIds = new ArrayList<>();
+        List<String> registrationNumbers = new ArrayList<>();
+        for (VehicleEntity vehicle : vehicles) {
+            vehicleIds.add(vehicle.getVehicleId());
+            gpsIds.add(vehicle.getGpsId());
+            iotDeviceIds.add(vehicle.getIotDeviceId());
+            registrationNumbers.add(vehicle.getRegistrationNumber());
+        }
+
+        Map<String, Set<String>> taken = new LinkedHashMap<>();
+        for (String field : UNIQUE_COLUMNS.keySet()) {
+            taken.put(field, new HashSet<>());
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_CONFLICTS_SQL);
+            ps.setArray(1, textArray(connection, vehicleIds));
+            ps.setArray(2, textArray(connection, gpsIds));
+            ps.setArray(3, textArray(connection, iotDeviceIds));
+            ps.setArray(4, textArray(connection, registrationNumbers));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            for (Map.Entry<String, String> column : UNIQUE_COLUMNS.entrySet()) {
+                taken.get(column.getKey()).add(rs.getString(column.getValue()));
+            }
+        });
+        return taken;
+    }
+
+    /**
+     * Streams every vehicle, in {@link #EXPORT_FIELDS} order, through a server-side cursor.
+     * Postgres only honours the fetch size inside a transaction, hence the read-only one.
+     */
+    @Transactional(readOnly = true)
+    public void forEachVehicle(Consumer<Object[]> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Object[] row = new Object[EXPORT_FIELDS.size()];
+            for (int i = 0; i < row.length; i++) {
+                Object value = rs.getObject(i + 1);
+                row[i] = value instanceof Timestamp ? ((Timestamp) value).toInstant().toString() : value;
+            }
+            consumer.accept(row);
+        });
+    }
+
+    private static void bindRow(PreparedStatement ps, int index, VehicleEntity vehicle) throws SQLException {
+        Instant now = Instant.now();
+        ps.setString(index, vehicle.getVehicleId());
+        ps.setString(index + 1, vehicle.getGpsId());
+        ps.setString(index + 2, vehicle.getIotDeviceId());
+        ps.setString(index + 3, vehicle.getDriverName());
+        ps.setString(index + 4, vehicle.getRegistrationNumber());
+        ps.setString(index + 5, vehicle.getMake());
+        ps.setString(index + 6, vehicle.getModel());
+        ps.setInt(index + 7, vehicle.getYear());
+        ps.setString(index + 8, vehicle.getStatus());
+        ps.setTimestamp(index + 9, Timestamp.from(vehicle.getCreatedAt() != null ? vehicle.getCreatedAt() : now));
+        ps.setTimestamp(index + 10, Timestamp.from(vehicle.getUpdatedAt() != null ? vehicle.getUpdatedAt() : now));
+    }
+
+    private static Array textArray(Connection connection, List<String> values) throws SQLException {
+        return connection.createArrayOf("varchar", values.toArray());
+    }
+
+    private static String buildInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * 26 + INSERT_SUFFIX.length())
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(?,?,?,?,?,?,?,?,?,?,?)");
+        }
+        return sql.append(INSERT_SUFFIX).toString();
+    }
+
+    private static Map<String, String> uniqueColumns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("vehicleId", "vehicle_id");
+        columns.put("gpsId", "gps_id");
+        columns.put("iotDeviceId", "iot_device_id");
+        columns.put("registrationNumber", "registration_number");
+        return columns;
+    }
+}
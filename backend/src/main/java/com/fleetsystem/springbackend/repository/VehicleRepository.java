@@ -3,6 +3,8 @@ package com.fleetsystem.springbackend.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,12 +12,15 @@ import org.springframework.stereotype.Repository;
 import com.fleetsystem.springbackend.entity.VehicleEntity;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<VehicleEntity, String> {
+public interface VehicleRepository extends JpaRepository<VehicleEntity, String>, VehicleRepositoryCustom {
     
     Optional<VehicleEntity> findByVehicleId(String vehicleId);
     
     List<VehicleEntity> findByStatus(String status);
     
+    // Slice skips the count query a Page would run for every chunk
+    Slice<VehicleEntity> findAllBy(Pageable pageable);
+    
     boolean existsByVehicleId(String vehicleId);
     
     boolean existsByGpsId(String gpsId);
@@ -29,7 +34,4 @@ public interface VehicleRepository extends JpaRepository<VehicleEntity, String>
     
     @Query("SELECT COUNT(v) FROM VehicleEntity v WHERE v.status = 'active'")
     long countActiveVehicles();
-    
-    @Query("SELECT v FROM VehicleEntity v WHERE v.driverName LIKE %?1%")
-    List<VehicleEntity> findByDriverNameContaining(String driverName);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.fleetsystem.springbackend.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+
+public interface VehicleRepositoryCustom {
+
+    /**
+     * Inserts a new vehicle with a single INSERT, never updating an existing row the way
+     * {@code save} would for an assigned id. A unique constraint violation surfaces as
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    VehicleEntity insert(VehicleEntity vehicle);
+
+    /**
+     * One keyset page ordered by vehicleId: rows with {@code vehicleId > after} (all rows when
+     * {@code after} is null), optionally filtered by status. Only the requested attributes are
+     * selected; each row is returned as attribute name to value.
+     */
+    List<Map<String, Object>> findPage(String status, String after, int limit, List<String> fields);
+
+    // Attribute names accepted in {@code fields}
+    Set<String> listableFields();
+}
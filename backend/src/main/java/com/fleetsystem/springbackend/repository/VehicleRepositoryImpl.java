@@ -0,0 +1,95 @@
+package com.fleetsystem.springbackend.repository;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+
+// Tuple query so only the requested columns are read; field sets are chosen per request,
+// which a fixed interface projection per combination would not cover
+public class VehicleRepositoryImpl implements VehicleRepositoryCustom {
+
+    private static final String KEY = "vehicleId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Set<String> listableFields;
+
+    @Override
+    @Transactional
+    public VehicleEntity insert(VehicleEntity vehicle) {
+        entityManager.persist(vehicle);
+        // Flush here so a constraint violation is raised from this call, not at commit
+        entityManager.flush();
+        return vehicle;
+    }
+
+    @Override
+    public List<Map<String, Object>> findPage(String status, String after, int limit, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<VehicleEntity> vehicle = query.from(VehicleEntity.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(vehicle.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        List<Predicate> where = new ArrayList<>(2);
+        if (after != null) {
+            where.add(cb.greaterThan(vehicle.get(KEY), after));
+        }
+        if (status != null) {
+            where.add(cb.equal(vehicle.get("status"), status));
+        }
+        query.where(where.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(vehicle.get(KEY)));
+
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public Set<String> listableFields() {
+        Set<String> fields = listableFields;
+        if (fields == null) {
+            EntityType<VehicleEntity> entity = entityManager.getMetamodel().entity(VehicleEntity.class);
+            fields = new LinkedHashSet<>();
+            // Declaration order, so default listings keep the column order of the entity JSON
+            for (Field field : VehicleEntity.class.getDeclaredFields()) {
+                if (entity.getAttributes().stream().anyMatch(a -> a.getName().equals(field.getName()))) {
+                    fields.add(field.getName());
+                }
+            }
+            listableFields = fields;
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,382 @@
+package com.fleetsystem.springbackend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.repository.VehicleJdbcRepository;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.service.TelemetryService;
+
+/**
+ * Streaming CSV / NDJSON import and export of vehicles and telemetry history. Imports read the
+ * body one record at a time and write every {@link #CHUNK_SIZE} records; exports write rows
+ * as a database cursor produces them. Memory use does not depend on the size of the transfer.
+ */
+@Service
+public class BulkTransferService {
+
+    public enum Format { CSV, NDJSON }
+
+    public record ImportSummary(long rows, long imported, long failed, List<VehicleService.RowError> errors) {}
+
+    static final int CHUNK_SIZE = 500;
+    // Only the first errors are reported; the counts cover all of them
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Every vehicle needs these; a CSV header lacking one would fail every row
+    private static final List<String> REQUIRED_VEHICLE_COLUMNS = List.of(
+            "vehicleId", "gpsId", "iotDeviceId", "driverName", "registrationNumber", "make", "model", "year");
+
+    private final VehicleService vehicleService;
+    private final VehicleJdbcRepository vehicleJdbcRepository;
+    private final TelemetryService telemetryService;
+    private final TelemetryHistoryRepository historyRepository;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final ObjectReader mapReader;
+    private final ObjectReader telemetryReader;
+
+    public BulkTransferService(VehicleService vehicleService,
+                               VehicleJdbcRepository vehicleJdbcRepository,
+                               TelemetryService telemetryService,
+                               TelemetryHistoryRepository historyRepository,
+                               ObjectMapper objectMapper) {
+        this.vehicleService = vehicleService;
+        this.vehicleJdbcRepository = vehicleJdbcRepository;
+        this.telemetryService = telemetryService;
+        this.historyRepository = historyRepository;
+        this.objectMapper = objectMapper;
+        this.mapReader = objectMapper.readerFor(Map.class);
+        this.telemetryReader = objectMapper.readerFor(TelemetryDto.class);
+    }
+
+    /**
+     * Imports vehicles. Columns / keys may use the JSON names ({@code vehicleId}) or snake_case
+     * ({@code vehicle_id}); unknown ones are ignored. Device ids, driver and registration are not
+     * derived, so a CSV without those columns (such as the specifications-only
+     * {@code fleet_specifications.csv}) is refused before anything is written.
+     *
+     * @throws IllegalArgumentException if the CSV header lacks a required column
+     */
+    public ImportSummary importVehicles(InputStream body, Format format) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        List<VehicleEntity> chunk = new ArrayList<>(CHUNK_SIZE);
+        forEachRecord(body, format, (index, record, error) -> {
+            if (error != null) {
+                progress.fail(index, null, error);
+                return;
+            }
+            Map<String, Object> fields = camelCaseKeys(record);
+            if (index == 0 && format == Format.CSV) {
+                requireVehicleColumns(fields);
+            }
+            try {
+                chunk.add(objectMapper.convertValue(fields, VehicleEntity.class));
+            } catch (IllegalArgumentException e) {
+                progress.fail(index, String.valueOf(fields.get("vehicleId")), "Invalid row: " + e.getMessage());
+                return;
+            }
+            progress.indexes.add(index);
+            if (chunk.size() == CHUNK_SIZE) {
+                flushVehicles(chunk, progress);
+            }
+        });
+        flushVehicles(chunk, progress);
+        return progress.summary();
+    }
+
+    /**
+     * Imports telemetry samples: NDJSON lines in the ingest payload format, or flat rows in the
+     * layout of {@code fleet_operational_data.csv} (vehicle_id, timestamp, one column per signal,
+     * optional state) as CSV or NDJSON. Each chunk goes through the same batched path as Kafka
+     * batches.
+     */
+    public ImportSummary importTelemetry(InputStream body, Format format) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        List<TelemetryDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        if (format == Format.NDJSON) {
+            forEachLine(body, (index, line) -> {
+                try {
+                    TelemetryDto dto = telemetryReader.readValue(line);
+                    if (dto.getSignals() == null) {
+                        // Flat row, as written by the telemetry export
+                        dto = telemetryFromFlat(mapReader.readValue(line));
+                    }
+                    if (dto.getVehicleId() == null) {
+                        progress.fail(index, null, "vehicleId is required");
+                        return;
+                    }
+                    addTelemetry(chunk, dto, index, progress);
+                } catch (JsonProcessingException e) {
+                    progress.fail(index, null, "Invalid JSON: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    progress.fail(index, null, e.getMessage());
+                }
+            });
+        } else {
+            forEachRecord(body, format, (index, record, error) -> {
+                if (error != null) {
+                    progress.fail(index, null, error);
+                    return;
+                }
+                try {
+                    addTelemetry(chunk, telemetryFromFlat(record), index, progress);
+                } catch (IllegalArgumentException e) {
+                    progress.fail(index, (String) record.get("vehicle_id"), e.getMessage());
+                }
+            });
+        }
+        flushTelemetry(chunk, progress);
+        return progress.summary();
+    }
+
+    public void exportVehicles(OutputStream out, Format format) throws IOException {
+        try (SequenceWriter writer = rowWriter(out, format, VehicleJdbcRepository.EXPORT_FIELDS)) {
+            vehicleJdbcRepository.forEachVehicle(rowSink(writer, format, VehicleJdbcRepository.EXPORT_FIELDS));
+        }
+    }
+
+    public void exportTelemetry(OutputStream out, Format format, String vehicleId, Instant from, Instant to) throws IOException {
+        try (SequenceWriter writer = rowWriter(out, format, TelemetryHistoryRepository.EXPORT_FIELDS)) {
+            historyRepository.forEachInRange(vehicleId, from, to,
+                    rowSink(writer, format, TelemetryHistoryRepository.EXPORT_FIELDS));
+        }
+    }
+
+    private void flushVehicles(List<VehicleEntity> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        VehicleService.ImportResult result = vehicleService.importVehicles(chunk);
+        progress.imported += result.inserted();
+        for (VehicleService.RowError error : result.errors()) {
+            progress.fail(progress.indexes.get(error.index()), error.vehicleId(), error.field(), error.error());
+        }
+        chunk.clear();
+        progress.indexes.clear();
+    }
+
+    private void addTelemetry(List<TelemetryDto> chunk, TelemetryDto dto, long index, ImportProgress progress) {
+        chunk.add(dto);
+        progress.indexes.add(index);
+        if (chunk.size() == CHUNK_SIZE) {
+            flushTelemetry(chunk, progress);
+        }
+    }
+
+    private void flushTelemetry(List<TelemetryDto> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            telemetryService.processTelemetryBatch(chunk);
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                progress.fail(progress.indexes.get(i), chunk.get(i).getVehicleId(), "Write failed: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        progress.indexes.clear();
+    }
+
+    // One sample per row: vehicle_id, timestamp, optional state, every other column a signal
+    private static TelemetryDto telemetryFromFlat(Map<String, Object> record) {
+        Object vehicleId = record.get("vehicle_id");
+        if (vehicleId == null || vehicleId.toString().isBlank()) {
+            throw new IllegalArgumentException("vehicle_id is required");
+        }
+        TelemetrySignals signals = new TelemetrySignals();
+        Map<String, Object> status = null;
+        for (Map.Entry<String, Object> column : record.entrySet()) {
+            String name = column.getKey();
+            Object value = column.getValue();
+            if (name.equals("vehicle_id") || name.equals("timestamp") || value == null || "".equals(value)) {
+                continue;
+            }
+            if (name.equals("state")) {
+                status = new HashMap<>();
+                status.put("state", value.toString());
+                continue;
+            }
+            Number number = value instanceof Number ? (Number) value : parseNumber(name, value.toString());
+            // Integers stay integers on the way back out, as they do for JSON ingest
+            boolean known = number instanceof Long || number instanceof Integer
+                    ? signals.set(name, number.longValue())
+                    : signals.set(name, number.doubleValue());
+            if (!known) {
+                signals.putExtra(name, number);
+            }
+        }
+        Object timestamp = record.get("timestamp");
+        return new TelemetryDto(vehicleId.toString(), timestamp != null ? timestamp.toString() : null, null, signals, status);
+    }
+
+    private static Number parseNumber(String column, String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // not an integer
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Column " + column + " is not a number: " + text);
+        }
+    }
+
+    // CSV rows all carry the header's columns, so checking the first row checks the file
+    private static void requireVehicleColumns(Map<String, Object> fields) {
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_VEHICLE_COLUMNS) {
+            if (!fields.containsKey(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV has no " + String.join(", ", missing) + " column(s); every vehicle needs "
+                    + String.join(", ", REQUIRED_VEHICLE_COLUMNS) + " (or their snake_case names)");
+        }
+    }
+
+    private static Map<String, Object> camelCaseKeys(Map<String, Object> record) {
+        Map<String, Object> converted = new HashMap<>(record.size() * 2);
+        for (Map.Entry<String, Object> entry : record.entrySet()) {
+            Object value = entry.getValue();
+            // Empty CSV cells mean "not set"
+            converted.put(camelCase(entry.getKey()), "".equals(value) ? null : value);
+        }
+        return converted;
+    }
+
+    private static String camelCase(String key) {
+        if (key.indexOf('_') < 0) {
+            return key;
+        }
+        StringBuilder camel = new StringBuilder(key.length());
+        boolean upper = false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '_') {
+                upper = true;
+            } else {
+                camel.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return camel.toString();
+    }
+
+    private interface RecordHandler {
+        void accept(long index, Map<String, Object> record, String error);
+    }
+
+    private interface LineHandler {
+        void accept(long index, String line);
+    }
+
+    // CSV rows come back with string values keyed by header; NDJSON lines are parsed one at a time
+    private void forEachRecord(InputStream body, Format format, RecordHandler handler) throws IOException {
+        if (format == Format.NDJSON) {
+            forEachLine(body, (index, line) -> {
+                try {
+                    handler.accept(index, mapReader.readValue(line), null);
+                } catch (JsonProcessingException e) {
+                    handler.accept(index, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            });
+            return;
+        }
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, Object>> rows = csvMapper.readerFor(Map.class).with(schema).readValues(body)) {
+            long index = 0;
+            while (rows.hasNextValue()) {
+                handler.accept(index++, rows.nextValue(), null);
+            }
+        }
+    }
+
+    private static void forEachLine(InputStream body, LineHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long index = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.isBlank()) {
+                handler.accept(index++, line);
+            }
+        }
+    }
+
+    private SequenceWriter rowWriter(OutputStream out, Format format, List<String> columns) throws IOException {
+        if (format == Format.CSV) {
+            CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+            columns.forEach(schema::addColumn);
+            return csvMapper.writer(schema.build()).writeValues(out);
+        }
+        return objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+    }
+
+    // CSV takes the positional row; NDJSON gets one object per line keyed by column name
+    private static Consumer<Object[]> rowSink(SequenceWriter writer, Format format, List<String> columns) {
+        return row -> {
+            try {
+                if (format == Format.CSV) {
+                    writer.write(row);
+                } else {
+                    Map<String, Object> object = new LinkedHashMap<>(columns.size() * 2);
+                    for (int i = 0; i < row.length; i++) {
+                        object.put(columns.get(i), row[i]);
+                    }
+                    writer.write(object);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static final class ImportProgress {
+        // Source record index of each row in the pending chunk
+        final List<Long> indexes = new ArrayList<>(CHUNK_SIZE);
+        final List<VehicleService.RowError> errors = new ArrayList<>();
+        long imported;
+        long failed;
+
+        void fail(long index, String vehicleId, String error) {
+            fail(index, vehicleId, null, error);
+        }
+
+        void fail(long index, String vehicleId, String field, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new VehicleService.RowError((int) index, vehicleId, field, error));
+            }
+        }
+
+        ImportSummary summary() {
+            return new ImportSummary(imported + failed, imported, failed, errors);
+        }
+    }
+}
@@ -1,62 +1,322 @@
 package com.fleetsystem.springbackend.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Two-tier cache: a size-bounded in-process tier with a short TTL in front of Redis.
+ * Writes and invalidations are published on a Redis channel so other nodes drop their
+ * in-process copy. Per-tier hit/miss counters are registered as {@code cache.gets}
+ * (tags {@code cache=vehicle}, {@code tier=local|redis}), plus {@code cache.evictions}
+ * and {@code cache.size} for the local tier. The same channel tells other nodes which vehicles
+ * changed, for per-node state kept outside the cache (see {@link #publishVehicleChanges}).
+ */
 @Service
 @ConditionalOnProperty(name = "redis.enabled", havingValue = "true", matchIfMissing = false)
 public class CacheService {
 
+    private static final Logger log = LoggerFactory.getLogger(CacheService.class);
+
+    static final String INVALIDATION_CHANNEL = "cache:invalidate";
+    private static final byte[] INVALIDATION_CHANNEL_BYTES = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+    private static final String FLEET_METRICS_KEY = "fleet:metrics";
+    // Marks a vehicle change in an invalidation message; no cache entry uses these keys
+    private static final String VEHICLE_CHANGE_PREFIX = "changed:vehicle:";
+    private static final long VEHICLE_TTL_MINUTES = 5;
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.near.max-size:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${cache.near.ttl-seconds:30}")
+    private long nearCacheTtlSeconds;
+
+    // Lets a node ignore its own invalidation messages
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong redisMisses = new AtomicLong();
+    private final List<Consumer<List<String>>> vehicleChangeListeners = new CopyOnWriteArrayList<>();
+
+    private Cache<String, Object> nearCache;
+
+    @PostConstruct
+    public void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "vehicle", Tags.of("tier", "local"));
+        FunctionCounter.builder("cache.gets", redisHits, AtomicLong::get)
+                .tags("cache", "vehicle", "tier", "redis", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", redisMisses, AtomicLong::get)
+                .tags("cache", "vehicle", "tier", "redis", "result", "miss")
+                .register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) -> onInvalidation(message.getBody()),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
     public void cacheVehicleData(String vehicleId, Object data) {
         try {
-            String key = "vehicle:" + vehicleId;
-            redisTemplate.opsForValue().set(key, data, 5, TimeUnit.MINUTES);
+            put(vehicleKey(vehicleId), data, VEHICLE_TTL_MINUTES, TimeUnit.MINUTES);
         } catch (Exception e) {
             // Log error but don't fail the operation
-            System.err.println("Failed to cache data for vehicle " + vehicleId + ": " + e.getMessage());
+            log.warn("Failed to cache data for vehicle {}: {}", vehicleId, e.getMessage());
         }
     }
 
     public Object getCachedVehicleData(String vehicleId) {
         try {
-            String key = "vehicle:" + vehicleId;
-            return redisTemplate.opsForValue().get(key);
+            return get(vehicleKey(vehicleId));
         } catch (Exception e) {
-            System.err.println("Failed to retrieve cached data for vehicle " + vehicleId + ": " + e.getMessage());
+            log.warn("Failed to retrieve cached data for vehicle {}: {}", vehicleId, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Writes many vehicles in one pipelined round trip. Only Redis is written; the local tier
+     * (here and on other nodes) drops its copies and refills on the next read.
+     */
+    public void cacheVehicleData(Map<String, ?> dataByVehicleId) {
+        cacheVehicleData(dataByVehicleId, Duration.ofMinutes(VEHICLE_TTL_MINUTES));
+    }
+
+    // As above, with a TTL of the caller's choosing, e.g. the warmer's, which outlives its refresh interval
+    public void cacheVehicleData(Map<String, ?> dataByVehicleId, Duration ttl) {
+        if (dataByVehicleId.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(dataByVehicleId.size());
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, Object> values = (ValueOperations<String, Object>) operations.opsForValue();
+                    for (Map.Entry<String, ?> entry : dataByVehicleId.entrySet()) {
+                        String key = vehicleKey(entry.getKey());
+                        keys.add(key);
+                        values.set(key, entry.getValue(), ttl);
+                    }
+                    return null;
+                }
+            });
+            nearCache.invalidateAll(keys);
+            publishInvalidation(keys);
+        } catch (Exception e) {
+            log.warn("Failed to cache data for {} vehicles: {}", dataByVehicleId.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Looks vehicles up in the local tier first and fetches the rest with a single MGET.
+     * Vehicles found in neither tier are absent from the result.
+     */
+    public Map<String, Object> getCachedVehicleData(Collection<String> vehicleIds) {
+        Map<String, Object> found = new LinkedHashMap<>();
+        try {
+            List<String> missingIds = new ArrayList<>();
+            List<String> missingKeys = new ArrayList<>();
+            for (String vehicleId : vehicleIds) {
+                Object value = nearCache.getIfPresent(vehicleKey(vehicleId));
+                if (value != null) {
+                    found.put(vehicleId, value);
+                } else {
+                    missingIds.add(vehicleId);
+                    missingKeys.add(vehicleKey(vehicleId));
+                }
+            }
+            if (missingKeys.isEmpty()) {
+                return found;
+            }
+            List<Object> values = redisTemplate.opsForValue().multiGet(missingKeys);
+            for (int i = 0; i < missingKeys.size(); i++) {
+                Object value = values != null ? values.get(i) : null;
+                if (value != null) {
+                    redisHits.incrementAndGet();
+                    nearCache.put(missingKeys.get(i), value);
+                    found.put(missingIds.get(i), value);
+                } else {
+                    redisMisses.incrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to retrieve cached data for {} vehicles: {}", vehicleIds.size(), e.getMessage());
+        }
+        return found;
+    }
+
     public void cacheFleetMetrics(Object metrics) {
         try {
-            redisTemplate.opsForValue().set("fleet:metrics", metrics, 2, TimeUnit.MINUTES);
+            put(FLEET_METRICS_KEY, metrics, 2, TimeUnit.MINUTES);
         } catch (Exception e) {
-            System.err.println("Failed to cache fleet metrics: " + e.getMessage());
+            log.warn("Failed to cache fleet metrics: {}", e.getMessage());
         }
     }
 
     public Object getCachedFleetMetrics() {
         try {
-            return redisTemplate.opsForValue().get("fleet:metrics");
+            return get(FLEET_METRICS_KEY);
         } catch (Exception e) {
-            System.err.println("Failed to retrieve cached fleet metrics: " + e.getMessage());
+            log.warn("Failed to retrieve cached fleet metrics: {}", e.getMessage());
             return null;
         }
     }
 
     public void invalidateVehicleCache(String vehicleId) {
         try {
-            String key = "vehicle:" + vehicleId;
+            String key = vehicleKey(vehicleId);
+            nearCache.invalidate(key);
             redisTemplate.delete(key);
+            publishInvalidation(List.of(key));
         } catch (Exception e) {
-            System.err.println("Failed to invalidate cache for vehicle " + vehicleId + ": " + e.getMessage());
+            log.warn("Failed to invalidate cache for vehicle {}: {}", vehicleId, e.getMessage());
+        }
+    }
+
+    // One DEL and one invalidation message for the whole set
+    public void invalidateVehicleCache(Collection<String> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(vehicleIds.size());
+            for (String vehicleId : vehicleIds) {
+                keys.add(vehicleKey(vehicleId));
+            }
+            nearCache.invalidateAll(keys);
+            redisTemplate.delete(keys);
+            publishInvalidation(keys);
+        } catch (Exception e) {
+            log.warn("Failed to invalidate cache for {} vehicles: {}", vehicleIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Tells the other nodes that these vehicles were created, updated or deleted. Their
+     * {@link #addVehicleChangeListener listeners} get the ids; nodes without the listener treat
+     * the message as an invalidation of keys they do not hold.
+     */
+    public void publishVehicleChanges(Collection<String> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(vehicleIds.size());
+            for (String vehicleId : vehicleIds) {
+                keys.add(VEHICLE_CHANGE_PREFIX + vehicleId);
+            }
+            publishInvalidation(keys);
+        } catch (Exception e) {
+            log.warn("Failed to publish changes of {} vehicles: {}", vehicleIds.size(), e.getMessage());
+        }
+    }
+
+    // Called on the listener container's thread with the ids another node published
+    public void addVehicleChangeListener(Consumer<List<String>> listener) {
+        vehicleChangeListeners.add(listener);
+    }
+
+    private static String vehicleKey(String vehicleId) {
+        return "vehicle:" + vehicleId;
+    }
+
+    private Object get(String key) {
+        Object value = nearCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = redisTemplate.opsForValue().get(key);
+        if (value != null) {
+            redisHits.incrementAndGet();
+            nearCache.put(key, value);
+        } else {
+            redisMisses.incrementAndGet();
+        }
+        return value;
+    }
+
+    private void put(String key, Object value, long ttl, TimeUnit unit) {
+        redisTemplate.opsForValue().set(key, value, ttl, unit);
+        nearCache.put(key, value);
+        publishInvalidation(List.of(key));
+    }
+
+    // Message format: "<nodeId>|<key>[\n<key>...]"
+    private void publishInvalidation(List<String> keys) {
+        byte[] payload = (nodeId + "|" + String.join("\n", keys)).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(INVALIDATION_CHANNEL_BYTES, payload));
+    }
+
+    private void onInvalidation(byte[] body) {
+        String message = new String(body, StandardCharsets.UTF_8);
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.startsWith(nodeId + "|")) {
+            return;
+        }
+        List<String> keys = Arrays.asList(message.substring(separator + 1).split("\n"));
+        List<String> changedVehicleIds = new ArrayList<>();
+        for (String key : keys) {
+            if (key.startsWith(VEHICLE_CHANGE_PREFIX)) {
+                changedVehicleIds.add(key.substring(VEHICLE_CHANGE_PREFIX.length()));
+            }
+        }
+        if (changedVehicleIds.isEmpty()) {
+            nearCache.invalidateAll(keys);
+            return;
+        }
+        for (Consumer<List<String>> listener : vehicleChangeListeners) {
+            try {
+                listener.accept(changedVehicleIds);
+            } catch (Exception e) {
+                log.warn("Failed to apply changes of {} vehicles from another node: {}", changedVehicleIds.size(), e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+}
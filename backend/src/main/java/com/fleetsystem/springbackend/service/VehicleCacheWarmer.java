@@ -0,0 +1,78 @@
+package com.fleetsystem.springbackend.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.repository.VehicleRepository;
+
+/**
+ * Loads every vehicle into Redis once the application is up, one pipelined write per chunk,
+ * so the first dashboard reads after a deploy do not all fall through to Postgres. The load is
+ * repeated every {@code cache.warm.interval-minutes}, and warmed entries live for
+ * {@code cache.warm.ttl-minutes}, longer than the interval, so they do not all expire at once
+ * between runs. Updates and deletes evict a vehicle in between.
+ */
+@Component
+@ConditionalOnProperty(name = {"redis.enabled", "cache.warm.enabled"}, havingValue = "true")
+public class VehicleCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleCacheWarmer.class);
+
+    private final VehicleRepository vehicleRepository;
+    private final CacheService cacheService;
+    private final int chunkSize;
+    private final Duration ttl;
+
+    public VehicleCacheWarmer(VehicleRepository vehicleRepository, CacheService cacheService,
+                              @Value("${cache.warm.chunk-size:500}") int chunkSize,
+                              @Value("${cache.warm.ttl-minutes:60}") long ttlMinutes) {
+        this.vehicleRepository = vehicleRepository;
+        this.cacheService = cacheService;
+        this.chunkSize = chunkSize;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        long started = System.nanoTime();
+        int warmed = 0;
+        PageRequest page = PageRequest.of(0, chunkSize, Sort.by("vehicleId"));
+        try {
+            Slice<VehicleEntity> chunk;
+            do {
+                chunk = vehicleRepository.findAllBy(page);
+                Map<String, Object> byVehicleId = new LinkedHashMap<>();
+                for (VehicleEntity vehicle : chunk) {
+                    byVehicleId.put(vehicle.getVehicleId(), vehicle);
+                }
+                cacheService.cacheVehicleData(byVehicleId, ttl);
+                warmed += byVehicleId.size();
+                page = page.next();
+            } while (chunk.hasNext());
+            log.info("Warmed vehicle cache with {} vehicles in {} ms", warmed, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Vehicle cache warm-up stopped after {} vehicles: {}", warmed, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.warm.interval-minutes:45}",
+            initialDelayString = "${cache.warm.interval-minutes:45}", timeUnit = TimeUnit.MINUTES)
+    public void rewarm() {
+        warm();
+    }
+}
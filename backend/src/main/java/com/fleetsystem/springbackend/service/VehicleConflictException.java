@@ -0,0 +1,26 @@
+package com.fleetsystem.springbackend.service;
+
+import java.util.Map;
+
+/**
+ * A vehicle could not be created because one of its unique fields is already taken.
+ */
+public class VehicleConflictException extends RuntimeException {
+
+    private static final Map<String, String> LABELS = Map.of(
+            "vehicleId", "ID",
+            "gpsId", "GPS ID",
+            "iotDeviceId", "IoT Device ID",
+            "registrationNumber", "Registration Number");
+
+    private final String field;
+
+    public VehicleConflictException(String field, String value) {
+        super("Vehicle with " + LABELS.getOrDefault(field, field) + " " + value + " already exists");
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
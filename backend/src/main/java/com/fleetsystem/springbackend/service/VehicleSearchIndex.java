@@ -0,0 +1,420 @@
+package com.fleetsystem.springbackend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.repository.VehicleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory substring search over driver names and registration numbers. Queries of three or
+ * more characters intersect trigram posting lists; shorter ones use a sorted word-prefix map.
+ * Only a bounded top-k heap of candidates is kept per query.
+ * Matching is case-insensitive, and registration numbers also ignore spaces and dashes.
+ * Kept current by {@link VehicleService}, which also applies changes other nodes publish on
+ * the cache invalidation channel; loaded from the vehicles table at startup.
+ */
+@Component
+public class VehicleSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    // Bounds the work for one- and two-character queries, which can match most of the fleet
+    private static final int MAX_PREFIX_TERMS = 10_000;
+
+    public enum Field { DRIVER, REGISTRATION }
+
+    public record Hit(String vehicleId, Field field, int score) {}
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt((Candidate c) -> c.score)
+            .thenComparingInt(c -> c.length)
+            .thenComparing(c -> c.doc.vehicleId);
+
+    private final VehicleRepository vehicleRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final FieldIndex drivers = new FieldIndex();
+    private final FieldIndex registrations = new FieldIndex();
+    private final Map<String, Integer> docIdByVehicle = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int nextDocId;
+
+    public VehicleSearchIndex(VehicleRepository vehicleRepository) {
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (vehicleRepository == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        PageRequest page = PageRequest.of(0, LOAD_CHUNK_SIZE, Sort.by("vehicleId"));
+        Slice<VehicleEntity> chunk;
+        do {
+            chunk = vehicleRepository.findAllBy(page);
+            chunk.forEach(this::put);
+            page = page.next();
+        } while (chunk.hasNext());
+        log.info("Indexed {} vehicles for search in {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void put(VehicleEntity vehicle) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(vehicle.getVehicleId());
+            if (nextDocId == docs.length) {
+                compactOrGrow();
+            }
+            int docId = nextDocId++;
+            Doc doc = new Doc(vehicle.getVehicleId(),
+                    normalizeName(vehicle.getDriverName()), normalizeRegistration(vehicle.getRegistrationNumber()));
+            docs[docId] = doc;
+            docIdByVehicle.put(doc.vehicleId, docId);
+            drivers.add(docId, doc.driver);
+            registrations.add(docId, doc.registration);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String vehicleId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(vehicleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByVehicle.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} vehicles whose driver name or registration number contains
+     * {@code query}, best first: exact match, then prefix, then word prefix, then any substring;
+     * ties go to the shorter field, then vehicleId. {@code fields} restricts what is searched.
+     */
+    public List<Hit> search(String query, int limit, Field... fields) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        Field[] searched = fields.length > 0 ? fields : Field.values();
+        TopHits top = new TopHits(limit);
+        lock.readLock().lock();
+        try {
+            for (Field field : searched) {
+                String normalized = field == Field.DRIVER ? normalizeName(query) : normalizeRegistration(query);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                FieldIndex index = field == Field.DRIVER ? drivers : registrations;
+                // Scored once per distinct field value, then expanded to the vehicles that share it
+                index.collect(normalized, term -> {
+                    int score = score(term.value, normalized);
+                    if (score < 0 || !top.mayAccept(score, term.value.length())) {
+                        return;
+                    }
+                    for (int i = 0; i < term.docs.size; i++) {
+                        int docId = term.docs.values[i];
+                        Doc doc = docs[docId];
+                        if (doc != null) {
+                            top.offer(docId, doc, field, score, term.value.length());
+                        }
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.toHits();
+    }
+
+    private void removeLocked(String vehicleId) {
+        Integer docId = docIdByVehicle.remove(vehicleId);
+        if (docId != null) {
+            // Term lists keep the id; it is skipped while docs[id] is null and dropped on compaction
+            docs[docId] = null;
+        }
+    }
+
+    // Rebuilds the posting lists without removed documents, growing the table if it is mostly live
+    private void compactOrGrow() {
+        Doc[] live = new Doc[docIdByVehicle.size()];
+        int count = 0;
+        for (int i = 0; i < nextDocId; i++) {
+            if (docs[i] != null) {
+                live[count++] = docs[i];
+            }
+        }
+        int capacity = count * 2 > docs.length ? docs.length * 2 : docs.length;
+        docs = new Doc[capacity];
+        docIdByVehicle.clear();
+        drivers.clear();
+        registrations.clear();
+        nextDocId = 0;
+        for (int i = 0; i < count; i++) {
+            Doc doc = live[i];
+            int docId = nextDocId++;
+            docs[docId] = doc;
+            docIdByVehicle.put(doc.vehicleId, docId);
+            drivers.add(docId, doc.driver);
+            registrations.add(docId, doc.registration);
+        }
+    }
+
+    private static int score(String value, String query) {
+        int at = value.indexOf(query);
+        if (at < 0) {
+            return -1;
+        }
+        if (at == 0) {
+            return value.length() == query.length() ? 0 : 1;
+        }
+        for (; at > 0; at = value.indexOf(query, at + 1)) {
+            if (value.charAt(at - 1) == ' ') {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    static String normalizeName(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String normalizeRegistration(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ' && c != '-') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private record Doc(String vehicleId, String driver, String registration) {}
+
+    private record Candidate(int docId, Doc doc, Field field, int score, int length) {}
+
+    // Keeps the best {@code limit} candidates in a heap whose head is the worst of them
+    private static final class TopHits {
+
+        private final int limit;
+        private final PriorityQueue<Candidate> heap;
+        private final Map<Integer, Candidate> byDoc = new HashMap<>();
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 256) + 1, RANKING.reversed());
+        }
+
+        // False when every vehicle with this score and field length would rank below the current worst
+        boolean mayAccept(int score, int length) {
+            if (heap.size() < limit) {
+                return true;
+            }
+            Candidate worst = heap.peek();
+            return score < worst.score || (score == worst.score && length <= worst.length);
+        }
+
+        void offer(int docId, Doc doc, Field field, int score, int length) {
+            // Anything that cannot beat the current worst also cannot improve an entry already held
+            if (heap.size() == limit && !beats(score, length, doc.vehicleId, heap.peek())) {
+                return;
+            }
+            Candidate existing = byDoc.get(docId);
+            if (existing != null) {
+                // Same vehicle matched on the other field; keep the better match
+                if (score >= existing.score) {
+                    return;
+                }
+                heap.remove(existing);
+                byDoc.remove(docId);
+            }
+            Candidate candidate = new Candidate(docId, doc, field, score, length);
+            heap.add(candidate);
+            byDoc.put(docId, candidate);
+            if (heap.size() > limit) {
+                byDoc.remove(heap.poll().docId);
+            }
+        }
+
+        List<Hit> toHits() {
+            List<Candidate> ranked = new ArrayList<>(heap);
+            ranked.sort(RANKING);
+            List<Hit> hits = new ArrayList<>(ranked.size());
+            for (Candidate candidate : ranked) {
+                hits.add(new Hit(candidate.doc.vehicleId, candidate.field, candidate.score));
+            }
+            return hits;
+        }
+
+        private static boolean beats(int score, int length, String vehicleId, Candidate worst) {
+            if (score != worst.score) {
+                return score < worst.score;
+            }
+            if (length != worst.length) {
+                return length < worst.length;
+            }
+            return vehicleId.compareTo(worst.doc.vehicleId) < 0;
+        }
+    }
+
+    // A distinct normalized field value and the documents that carry it
+    private static final class Term {
+        final String value;
+        final IntList docs = new IntList();
+
+        Term(String value) {
+            this.value = value;
+        }
+    }
+
+    private interface TermConsumer {
+        void accept(Term term);
+    }
+
+    /**
+     * Trigram and word-prefix postings for one field. Postings hold term ids, so vehicles sharing
+     * a value (common surnames, say) cost one posting entry and one score computation. Ids are
+     * appended in increasing order, so every list is sorted.
+     */
+    private static final class FieldIndex {
+
+        private final Map<String, Term> terms = new HashMap<>();
+        private final List<Term> termsById = new ArrayList<>();
+        private final Map<String, IntList> grams = new HashMap<>();
+        private final TreeMap<String, IntList> words = new TreeMap<>();
+
+        void add(int docId, String value) {
+            Term term = terms.get(value);
+            if (term == null) {
+                term = new Term(value);
+                terms.put(value, term);
+                indexTerm(termsById.size(), value);
+                termsById.add(term);
+            }
+            term.docs.addDistinct(docId);
+        }
+
+        private void indexTerm(int termId, String value) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.computeIfAbsent(value.substring(i, i + GRAM), g -> new IntList()).addDistinct(termId);
+            }
+            int start = 0;
+            while (start < value.length()) {
+                int end = value.indexOf(' ', start);
+                if (end < 0) {
+                    end = value.length();
+                }
+                if (end > start) {
+                    words.computeIfAbsent(value.substring(start, end), w -> new IntList()).addDistinct(termId);
+                }
+                start = end + 1;
+            }
+        }
+
+        void clear() {
+            terms.clear();
+            termsById.clear();
+            grams.clear();
+            words.clear();
+        }
+
+        void collect(String query, TermConsumer consumer) {
+            if (query.length() >= GRAM) {
+                collectByGrams(query, consumer);
+            } else {
+                collectByWordPrefix(query, consumer);
+            }
+        }
+
+        private void collectByGrams(String query, TermConsumer consumer) {
+            int gramCount = query.length() - GRAM + 1;
+            IntList[] postings = new IntList[gramCount];
+            for (int i = 0; i < gramCount; i++) {
+                IntList list = grams.get(query.substring(i, i + GRAM));
+                if (list == null) {
+                    return;
+                }
+                postings[i] = list;
+            }
+            Arrays.sort(postings, Comparator.comparingInt(list -> list.size));
+            IntList smallest = postings[0];
+            outer:
+            for (int i = 0; i < smallest.size; i++) {
+                int termId = smallest.values[i];
+                for (int p = 1; p < postings.length; p++) {
+                    if (!postings[p].contains(termId)) {
+                        continue outer;
+                    }
+                }
+                consumer.accept(termsById.get(termId));
+            }
+        }
+
+        private void collectByWordPrefix(String query, TermConsumer consumer) {
+            NavigableMap<String, IntList> matches = words.subMap(query, true, query + Character.MAX_VALUE, true);
+            int seen = 0;
+            for (IntList list : matches.values()) {
+                for (int i = 0; i < list.size; i++) {
+                    consumer.accept(termsById.get(list.values[i]));
+                    if (++seen >= MAX_PREFIX_TERMS) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
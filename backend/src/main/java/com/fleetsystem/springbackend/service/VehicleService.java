@@ -1,40 +1,60 @@
 package com.fleetsystem.springbackend.service;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.repository.VehicleJdbcRepository;
 import com.fleetsystem.springbackend.repository.VehicleRepository;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class VehicleService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+    // Postgres reports the violated key as "Key (gps_id)=(...) already exists."
+    private static final Pattern DUPLICATE_KEY_DETAIL = Pattern.compile("Key \\((\\w+)\\)=");
+
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private VehicleJdbcRepository vehicleJdbcRepository;
+
+    @Autowired
+    private VehicleSearchIndex searchIndex;
+
+    // Absent when Redis is disabled; reads then always go to Postgres
+    @Autowired(required = false)
+    private CacheService cacheService;
+
+    // The search index is per node; changes made on other nodes arrive over Redis
+    @PostConstruct
+    public void subscribeToVehicleChanges() {
+        if (cacheService != null) {
+            cacheService.addVehicleChangeListener(this::reindex);
+        }
+    }
+
     public VehicleEntity createVehicle(String vehicleId, String gpsId, String iotDeviceId, 
                                      String driverName, String registrationNumber, 
                                      String make, String model, Integer year) {
-        // Check if vehicle already exists
-        if (vehicleRepository.existsByVehicleId(vehicleId)) {
-            throw new RuntimeException("Vehicle with ID " + vehicleId + " already exists");
-        }
-        
-        if (vehicleRepository.existsByGpsId(gpsId)) {
-            throw new RuntimeException("Vehicle with GPS ID " + gpsId + " already exists");
-        }
-        
-        if (vehicleRepository.existsByIotDeviceId(iotDeviceId)) {
-            throw new RuntimeException("Vehicle with IoT Device ID " + iotDeviceId + " already exists");
-        }
-        
-        if (vehicleRepository.existsByRegistrationNumber(registrationNumber)) {
-            throw new RuntimeException("Vehicle with Registration Number " + registrationNumber + " already exists");
-        }
-
         // Create new vehicle
         VehicleEntity vehicle = new VehicleEntity();
         vehicle.setVehicleId(vehicleId);
@@ -47,7 +67,160 @@ public class VehicleService {
         vehicle.setYear(year);
         vehicle.setStatus("active");
 
-        return vehicleRepository.save(vehicle);
+        // One INSERT; the unique constraints do the duplicate checks, race-free
+        VehicleEntity saved;
+        try {
+            saved = vehicleRepository.insert(vehicle);
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e, vehicle);
+        }
+        searchIndex.put(saved);
+        publishChanges(List.of(saved.getVehicleId()));
+        return saved;
+    }
+
+    /**
+     * Bulk import: valid rows are inserted with one multi-row statement per chunk, skipping rows
+     * that collide with an existing vehicle or an earlier row. Conflicting fields are then
+     * resolved with a single lookup. Errors carry the row's position in {@code vehicles}.
+     */
+    public ImportResult importVehicles(List<VehicleEntity> vehicles) {
+        List<RowError> errors = new ArrayList<>();
+        List<VehicleEntity> valid = new ArrayList<>(vehicles.size());
+        List<Integer> validIndexes = new ArrayList<>(vehicles.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            VehicleEntity vehicle = vehicles.get(i);
+            String missing = missingRequiredField(vehicle);
+            if (missing != null) {
+                errors.add(new RowError(i, vehicle.getVehicleId(), missing, missing + " is required"));
+                continue;
+            }
+            if (vehicle.getStatus() == null) {
+                vehicle.setStatus("active");
+            }
+            valid.add(vehicle);
+            validIndexes.add(i);
+        }
+
+        int inserted = 0;
+        List<Integer> skipped = new ArrayList<>();
+        int chunkSize = vehicleJdbcRepository.maxRowsPerStatement();
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, valid.size());
+            List<VehicleEntity> chunk = valid.subList(from, to);
+            try {
+                Set<String> insertedIds = vehicleJdbcRepository.insertSkippingConflicts(chunk);
+                publishChanges(insertedIds);
+                for (int i = from; i < to; i++) {
+                    VehicleEntity vehicle = valid.get(i);
+                    // remove() so a repeated vehicleId later in the chunk is not counted twice
+                    if (insertedIds.remove(vehicle.getVehicleId())) {
+                        inserted++;
+                        searchIndex.put(vehicle);
+                    } else {
+                        skipped.add(i);
+                    }
+                }
+            } catch (DataAccessException e) {
+                String error = "Insert failed: " + e.getMostSpecificCause().getMessage();
+                for (int i = from; i < to; i++) {
+                    errors.add(new RowError(validIndexes.get(i), valid.get(i).getVehicleId(), null, error));
+                }
+            }
+        }
+
+        if (!skipped.isEmpty()) {
+            List<VehicleEntity> conflicting = new ArrayList<>(skipped.size());
+            for (int i : skipped) {
+                conflicting.add(valid.get(i));
+            }
+            Map<String, Set<String>> taken = vehicleJdbcRepository.findTakenValues(conflicting);
+            for (int i : skipped) {
+                VehicleEntity vehicle = valid.get(i);
+                String field = takenField(vehicle, taken);
+                String error = field != null
+                        ? new VehicleConflictException(field, uniqueValue(vehicle, field)).getMessage()
+                        : "Vehicle conflicts with an existing vehicle";
+                errors.add(new RowError(validIndexes.get(i), vehicle.getVehicleId(), field, error));
+            }
+        }
+        errors.sort(Comparator.comparingInt(RowError::index));
+        return new ImportResult(inserted, errors);
+    }
+
+    public record RowError(int index, String vehicleId, String field, String error) {}
+
+    public record ImportResult(int inserted, List<RowError> errors) {}
+
+    // Rethrows anything other than a unique violation, e.g. a missing required column
+    private VehicleConflictException toConflict(DataIntegrityViolationException e, VehicleEntity vehicle) {
+        SQLException sqlException = null;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                sqlException = (SQLException) cause;
+                break;
+            }
+        }
+        if (sqlException == null || !UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+            throw e;
+        }
+        String field = null;
+        Matcher matcher = DUPLICATE_KEY_DETAIL.matcher(String.valueOf(sqlException.getMessage()));
+        if (matcher.find()) {
+            field = fieldForColumn(matcher.group(1));
+        }
+        if (field == null) {
+            // Driver did not include the key detail; find the taken value instead
+            field = takenField(vehicle, vehicleJdbcRepository.findTakenValues(List.of(vehicle)));
+        }
+        if (field == null) {
+            throw e;
+        }
+        return new VehicleConflictException(field, uniqueValue(vehicle, field));
+    }
+
+    private static String fieldForColumn(String column) {
+        for (Map.Entry<String, String> entry : VehicleJdbcRepository.UNIQUE_COLUMNS.entrySet()) {
+            if (entry.getValue().equals(column)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static String takenField(VehicleEntity vehicle, Map<String, Set<String>> taken) {
+        for (String field : VehicleJdbcRepository.UNIQUE_COLUMNS.keySet()) {
+            if (taken.get(field).contains(uniqueValue(vehicle, field))) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String uniqueValue(VehicleEntity vehicle, String field) {
+        switch (field) {
+            case "vehicleId": return vehicle.getVehicleId();
+            case "gpsId": return vehicle.getGpsId();
+            case "iotDeviceId": return vehicle.getIotDeviceId();
+            case "registrationNumber": return vehicle.getRegistrationNumber();
+            default: return null;
+        }
+    }
+
+    private static String missingRequiredField(VehicleEntity vehicle) {
+        if (isBlank(vehicle.getVehicleId())) return "vehicleId";
+        if (isBlank(vehicle.getGpsId())) return "gpsId";
+        if (isBlank(vehicle.getIotDeviceId())) return "iotDeviceId";
+        if (isBlank(vehicle.getDriverName())) return "driverName";
+        if (isBlank(vehicle.getRegistrationNumber())) return "registrationNumber";
+        if (isBlank(vehicle.getMake())) return "make";
+        if (isBlank(vehicle.getModel())) return "model";
+        if (vehicle.getYear() == null) return "year";
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
     
     public VehicleEntity updateVehicle(String vehicleId, VehicleEntity updatedVehicle) {
@@ -85,7 +258,11 @@ public class VehicleService {
                 vehicle.setRpm(updatedVehicle.getRpm());
             }
             
-            return vehicleRepository.save(vehicle);
+            VehicleEntity saved = vehicleRepository.save(vehicle);
+            searchIndex.put(saved);
+            evictCached(vehicleId);
+            publishChanges(List.of(vehicleId));
+            return saved;
         } else {
             throw new RuntimeException("Vehicle with ID " + vehicleId + " not found");
         }
@@ -94,11 +271,45 @@ public class VehicleService {
     public void deleteVehicle(String vehicleId) {
         if (vehicleRepository.existsByVehicleId(vehicleId)) {
             vehicleRepository.deleteById(vehicleId);
+            searchIndex.remove(vehicleId);
+            evictCached(vehicleId);
+            publishChanges(List.of(vehicleId));
         } else {
             throw new RuntimeException("Vehicle with ID " + vehicleId + " not found");
         }
     }
 
+    /**
+     * Resolves a {@code fields} request parameter against the listable vehicle attributes.
+     * vehicleId is always included since it is the pagination key.
+     *
+     * @throws IllegalArgumentException on an unknown field name
+     */
+    public List<String> resolveListingFields(String fields) {
+        Set<String> listable = vehicleRepository.listableFields();
+        if (fields == null || fields.isBlank()) {
+            return new ArrayList<>(listable);
+        }
+        Set<String> resolved = new LinkedHashSet<>();
+        resolved.add("vehicleId");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!listable.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            resolved.add(name);
+        }
+        return new ArrayList<>(resolved);
+    }
+
+    // status == null lists every vehicle; after == null starts from the first vehicleId
+    public List<Map<String, Object>> getVehiclePage(String status, String after, int limit, List<String> fields) {
+        return vehicleRepository.findPage(status, after, limit, fields);
+    }
+
     public List<VehicleEntity> getAllVehicles() {
         return vehicleRepository.findAll();
     }
@@ -107,16 +318,80 @@ public class VehicleService {
         return vehicleRepository.findActiveVehicles();
     }
 
+    // Read through the two-tier cache, which the warmer keeps filled; a miss is loaded and cached
     public Optional<VehicleEntity> getVehicleById(String vehicleId) {
-        return vehicleRepository.findByVehicleId(vehicleId);
+        if (cacheService == null) {
+            return vehicleRepository.findByVehicleId(vehicleId);
+        }
+        if (cacheService.getCachedVehicleData(vehicleId) instanceof VehicleEntity cached) {
+            return Optional.of(cached);
+        }
+        Optional<VehicleEntity> vehicle = vehicleRepository.findByVehicleId(vehicleId);
+        vehicle.ifPresent(found -> cacheService.cacheVehicleData(vehicleId, found));
+        return vehicle;
+    }
+
+    private void evictCached(String vehicleId) {
+        if (cacheService != null) {
+            cacheService.invalidateVehicleCache(vehicleId);
+        }
+    }
+
+    private void publishChanges(Collection<String> vehicleIds) {
+        if (cacheService != null) {
+            cacheService.publishVehicleChanges(vehicleIds);
+        }
+    }
+
+    // Re-reads vehicles another node changed; one that is gone was deleted there
+    private void reindex(List<String> vehicleIds) {
+        Map<String, VehicleEntity> current = new HashMap<>();
+        for (VehicleEntity vehicle : vehicleRepository.findAllById(vehicleIds)) {
+            current.put(vehicle.getVehicleId(), vehicle);
+        }
+        for (String vehicleId : vehicleIds) {
+            VehicleEntity vehicle = current.get(vehicleId);
+            if (vehicle != null) {
+                searchIndex.put(vehicle);
+            } else {
+                searchIndex.remove(vehicleId);
+            }
+        }
     }
 
     public List<VehicleEntity> getVehiclesByStatus(String status) {
         return vehicleRepository.findByStatus(status);
     }
     
-    public List<VehicleEntity> searchVehiclesByDriver(String driverName) {
-        return vehicleRepository.findByDriverNameContaining(driverName);
+    public List<VehicleEntity> searchVehiclesByDriver(String driverName, int limit) {
+        return loadRanked(searchIndex.search(driverName, limit, VehicleSearchIndex.Field.DRIVER));
+    }
+
+    // Matches driver names and registration numbers
+    public List<VehicleEntity> searchVehicles(String query, int limit) {
+        return loadRanked(searchIndex.search(query, limit));
+    }
+
+    private List<VehicleEntity> loadRanked(List<VehicleSearchIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(hits.size());
+        for (VehicleSearchIndex.Hit hit : hits) {
+            ids.add(hit.vehicleId());
+        }
+        Map<String, VehicleEntity> byId = new HashMap<>();
+        for (VehicleEntity vehicle : vehicleRepository.findAllById(ids)) {
+            byId.put(vehicle.getVehicleId(), vehicle);
+        }
+        List<VehicleEntity> ranked = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            VehicleEntity vehicle = byId.get(id);
+            if (vehicle != null) {
+                ranked.add(vehicle);
+            }
+        }
+        return ranked;
     }
     
     public long getActiveVehicleCount() {
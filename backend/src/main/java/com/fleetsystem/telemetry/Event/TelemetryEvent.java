@@ -2,11 +2,7 @@ package com.fleetsystem.telemetry.Event;
 
 import java.io.Serializable;
 import java.time.Instant;
-import java.util.Map;
 
-import org.hibernate.annotations.Type;
-
-import io.hypersistence.utils.hibernate.type.json.JsonType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -14,6 +10,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+/**
+ * One row of the append-only telemetry history. The table is range-partitioned by day
+ * on {@code telemetry_timestamp} and is created and maintained by
+ * {@link com.fleetsystem.telemetry.service.TelemetryHistoryPartitionManager}.
+ */
 @Entity
 @Table(name = "telemetry_event")
 public class TelemetryEvent implements Serializable {
@@ -24,30 +25,38 @@ public class TelemetryEvent implements Serializable {
     @Column(name = "vehicle_id")
     private String vehicleId;
     
-    @Type(JsonType.class)
-    @Column(columnDefinition = "jsonb")
-    private Map<String, Object> specs;
-    
-    @Type(JsonType.class)
-    @Column(columnDefinition = "jsonb")
-    private Map<String, Object> signals;
-    
     @Column(name = "telemetry_timestamp")
     private Instant telemetryTimestamp;
     
+    private Double speed;
+    
+    @Column(name = "fuel_level")
+    private Double fuelLevel;
+    
+    @Column(name = "engine_temp")
+    private Double engineTemp;
+    
+    private Double rpm;
+    
+    @Column(name = "tire_pressure")
+    private Double tirePressure;
+    
     private String status;
 
     public TelemetryEvent() {}
 
-    public TelemetryEvent(Long id, String vehicleId, Map<String, Object> specs, 
-                         Map<String, Object> signals, String status, 
-                         Instant telemetryTimestamp) {
+    public TelemetryEvent(Long id, String vehicleId, Instant telemetryTimestamp, Double speed,
+                         Double fuelLevel, Double engineTemp, Double rpm, Double tirePressure,
+                         String status) {
         this.id = id;
         this.vehicleId = vehicleId;
-        this.specs = specs;
-        this.signals = signals;
-        this.status = status;
         this.telemetryTimestamp = telemetryTimestamp;
+        this.speed = speed;
+        this.fuelLevel = fuelLevel;
+        this.engineTemp = engineTemp;
+        this.rpm = rpm;
+        this.tirePressure = tirePressure;
+        this.status = status;
     }
 
     public Long getId() {
@@ -66,28 +75,52 @@ public class TelemetryEvent implements Serializable {
         this.vehicleId = vehicleId;
     }
 
-    public Map<String, Object> getSpecs() {
-        return specs;
+    public Instant getTelemetryTimestamp() {
+        return telemetryTimestamp;
     }
 
-    public void setSpecs(Map<String, Object> specs) {
-        this.specs = specs;
+    public void setTelemetryTimestamp(Instant telemetryTimestamp) {
+        this.telemetryTimestamp = telemetryTimestamp;
     }
 
-    public Map<String, Object> getSignals() {
-        return signals;
+    public Double getSpeed() {
+        return speed;
     }
 
-    public void setSignals(Map<String, Object> signals) {
-        this.signals = signals;
+    public void setSpeed(Double speed) {
+        this.speed = speed;
     }
 
-    public Instant getTelemetryTimestamp() {
-        return telemetryTimestamp;
+    public Double getFuelLevel() {
+        return fuelLevel;
     }
 
-    public void setTelemetryTimestamp(Instant telemetryTimestamp) {
-        this.telemetryTimestamp = telemetryTimestamp;
+    public void setFuelLevel(Double fuelLevel) {
+        this.fuelLevel = fuelLevel;
+    }
+
+    public Double getEngineTemp() {
+        return engineTemp;
+    }
+
+    public void setEngineTemp(Double engineTemp) {
+        this.engineTemp = engineTemp;
+    }
+
+    public Double getRpm() {
+        return rpm;
+    }
+
+    public void setRpm(Double rpm) {
+        this.rpm = rpm;
+    }
+
+    public Double getTirePressure() {
+        return tirePressure;
+    }
+
+    public void setTirePressure(Double tirePressure) {
+        this.tirePressure = tirePressure;
     }
 
     public String getStatus() {
@@ -97,4 +130,4 @@ public class TelemetryEvent implements Serializable {
     public void setStatus(String status) {
         this.status = status;
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,61 @@
 package com.fleetsystem.telemetry.consumer;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.TelemetryMetrics;
+import com.fleetsystem.telemetry.service.TelemetryService;
+
 @Component
 @ConditionalOnProperty(value = "kafka.enabled", havingValue = "true", matchIfMissing = false)
 public class TelemetryConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(TelemetryConsumer.class);
 
-    @KafkaListener(topics = "scania-telemetry", groupId = "smartfleet-group")
-    public void consumeTelemetry(String message) {
-        log.info("Received telemetry message: {}", message);
-        // TODO: Parse message and process telemetry data
+    private final TelemetryService telemetryService;
+    private final TelemetryMetrics metrics;
+
+    public TelemetryConsumer(TelemetryService telemetryService, TelemetryMetrics metrics) {
+        this.telemetryService = telemetryService;
+        this.metrics = metrics;
     }
-    
-    // Manual method to simulate telemetry processing for testing
-    public void simulateTelemetryProcessing() {
-        log.info("Simulating telemetry processing - Kafka consumer is disabled");
+
+    @KafkaListener(topics = "${kafka.telemetry.topic:scania-telemetry}", groupId = "smartfleet-group")
+    public void consumeTelemetry(ConsumerRecords<String, String> records, Acknowledgment ack) {
+        long start = System.nanoTime();
+        List<TelemetryDto> batch = new ArrayList<>(records.count());
+        int skipped = 0;
+
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                batch.add(telemetryService.parseTelemetryMessage(record.value()));
+            } catch (Exception e) {
+                // A malformed message must not block the partition; skip it and move on
+                skipped++;
+                log.warn("Skipping unparseable telemetry record {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
+        }
+
+        // Throws on failure so the container's error handler retries the batch before anything is committed
+        int written = telemetryService.processTelemetryBatch(batch);
+        ack.acknowledge();
+        metrics.recordKafkaBatch(start, records.count(), skipped);
+
+        if (log.isDebugEnabled()) {
+            long micros = (System.nanoTime() - start) / 1_000;
+            log.debug("Telemetry batch: {} records, {} skipped, {} vehicles written in {} us",
+                    records.count(), skipped, written, micros);
+        }
     }
-}
\ No newline at end of file
+}
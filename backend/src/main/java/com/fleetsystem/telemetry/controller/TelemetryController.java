@@ -1,74 +1,196 @@
 package com.fleetsystem.telemetry.controller;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fleetsystem.telemetry.Event.TelemetryEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.TelemetryBackpressureException;
+import com.fleetsystem.telemetry.service.TelemetryBatchIngestService;
+import com.fleetsystem.telemetry.service.TelemetryBatchTooLargeException;
+import com.fleetsystem.telemetry.service.TelemetryIngestDispatcher;
+import com.fleetsystem.telemetry.service.TelemetryLogSampler;
 import com.fleetsystem.telemetry.service.TelemetryService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/telemetry")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 public class TelemetryController {
 
+    private static final Logger log = LoggerFactory.getLogger(TelemetryController.class);
+
     @Autowired
     private TelemetryService telemetryService;
 
+    @Autowired
+    private TelemetryIngestDispatcher ingestDispatcher;
+
+    @Autowired
+    private TelemetryLogSampler logSampler;
+
+    @Autowired
+    private TelemetryBatchIngestService batchIngestService;
+
     @PostMapping
     public ResponseEntity<?> receiveTelemetry(@RequestBody TelemetryDto telemetryDto) {
         try {
-            System.out.println("Received telemetry data for vehicle: " + telemetryDto.getVehicleId());
-            
-            // Save telemetry data
-            telemetryService.processTelemetryData(telemetryDto);
-            
+            // Queued on the vehicle's ingest lane, which applies its samples in order
+            ingestDispatcher.dispatch(telemetryDto);
+
+            long suppressed = logSampler.sample(telemetryDto.getVehicleId());
+            if (suppressed >= 0) {
+                log.info("Received telemetry for vehicle {} ({} more since last logged)", telemetryDto.getVehicleId(), suppressed);
+            }
             return ResponseEntity.ok().body("{\"status\":\"success\",\"message\":\"Telemetry data received\"}");
+        } catch (TelemetryBackpressureException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "1")
+                .body("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
-            System.err.println("Error processing telemetry: " + e.getMessage());
+            log.error("Error processing telemetry: {}", e.getMessage());
             return ResponseEntity.internalServerError()
                 .body("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}");
         }
     }
 
+    /**
+     * Array of telemetry messages in one request, e.g. a gateway replaying what it buffered while
+     * offline; {@code Content-Encoding: gzip} is accepted. Valid messages are written in one
+     * transaction and the response has a status per message, by position in the array.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> receiveTelemetryBatch(HttpServletRequest request,
+                                                                     @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            TelemetryBatchIngestService.BatchResult result =
+                    batchIngestService.ingest(request.getInputStream(), "gzip".equalsIgnoreCase(contentEncoding));
+            response.put("success", result.rejected() == 0);
+            response.put("received", result.received());
+            response.put("accepted", result.accepted());
+            response.put("rejected", result.rejected());
+            response.put("items", result.items());
+            log.debug("Telemetry batch: {} received, {} accepted, {} rejected",
+                    result.received(), result.accepted(), result.rejected());
+            return ResponseEntity.ok(response);
+        } catch (TelemetryBatchTooLargeException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (JsonProcessingException e) {
+            response.put("success", false);
+            response.put("error", "Malformed JSON: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (ZipException e) {
+            response.put("success", false);
+            response.put("error", "Body is not valid gzip: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            // Nothing from the batch was written; the whole request can be retried
+            log.error("Error processing telemetry batch: {}", e.getMessage());
+            response.put("success", false);
+            response.put("error", "Telemetry batch failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<TelemetryDto>> getAllTelemetry() {
         try {
             List<TelemetryDto> telemetryData = telemetryService.getAllTelemetryData();
             return ResponseEntity.ok(telemetryData);
         } catch (Exception e) {
-            System.err.println("Error retrieving telemetry: " + e.getMessage());
+            log.error("Error retrieving telemetry: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping("/vehicle/{vehicleId}")
-    public ResponseEntity<List<TelemetryDto>> getTelemetryByVehicle(@PathVariable String vehicleId) {
+    public ResponseEntity<List<TelemetryDto>> getTelemetryByVehicle(@PathVariable String vehicleId,
+                                                                    @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
+            String etag = latestEtag();
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
             List<TelemetryDto> telemetryData = telemetryService.getTelemetryByVehicleId(vehicleId);
-            return ResponseEntity.ok(telemetryData);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(telemetryData);
+        } catch (Exception e) {
+            log.error("Error retrieving telemetry for vehicle {}: {}", vehicleId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/vehicle/{vehicleId}/history")
+    public ResponseEntity<List<TelemetryEvent>> getTelemetryHistory(@PathVariable String vehicleId,
+                                                                    @RequestParam(required = false) Instant from,
+                                                                    @RequestParam(required = false) Instant to,
+                                                                    @RequestParam(defaultValue = "500") int limit) {
+        try {
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(Duration.ofHours(1));
+            List<TelemetryEvent> history = telemetryService.getTelemetryHistory(vehicleId, start, end, Math.min(limit, 10_000));
+            return ResponseEntity.ok(history);
         } catch (Exception e) {
-            System.err.println("Error retrieving telemetry for vehicle " + vehicleId + ": " + e.getMessage());
+            log.error("Error retrieving telemetry history for vehicle {}: {}", vehicleId, e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<List<TelemetryDto>> getLatestTelemetry() {
+    public ResponseEntity<List<TelemetryDto>> getLatestTelemetry(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
+            String etag = latestEtag();
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
             List<TelemetryDto> latestTelemetry = telemetryService.getLatestTelemetryData();
-            return ResponseEntity.ok(latestTelemetry);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(latestTelemetry);
         } catch (Exception e) {
-            System.err.println("Error retrieving latest telemetry: " + e.getMessage());
+            log.error("Error retrieving latest telemetry: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // The version is read before the data, so a client holding this ETag never misses an update
+    private String latestEtag() {
+        return "\"" + telemetryService.getLatestTelemetryVersion() + "\"";
+    }
+
+    public static boolean etagMatches(String ifNoneMatch, String etag) {
+        return ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"));
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
 }
\ No newline at end of file
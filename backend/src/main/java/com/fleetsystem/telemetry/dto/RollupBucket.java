@@ -0,0 +1,113 @@
+package com.fleetsystem.telemetry.dto;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates of one vehicle's samples within one rollup bucket, one array slot per entry of
+ * {@link #SIGNALS}. Buckets over disjoint sets of samples combine with {@link #merge}, which is
+ * how unflushed in-memory deltas are added to what the rollup table already holds.
+ */
+public class RollupBucket {
+
+    // The signals kept in the history table; rollups cover the same set
+    public static final List<String> SIGNALS = List.of(
+            TelemetrySignals.SPEED, TelemetrySignals.FUEL_LEVEL, TelemetrySignals.ENGINE_TEMP,
+            TelemetrySignals.RPM, TelemetrySignals.TIRE_PRESSURE);
+
+    private final long bucketStart;
+    // Timestamp of the newest sample, which supplied the last values
+    private long lastAt;
+    private final int[] count = new int[SIGNALS.size()];
+    private final double[] min = new double[SIGNALS.size()];
+    private final double[] max = new double[SIGNALS.size()];
+    private final double[] sum = new double[SIGNALS.size()];
+    private final double[] last = new double[SIGNALS.size()];
+
+    public RollupBucket(long bucketStart, long lastAt) {
+        this.bucketStart = bucketStart;
+        this.lastAt = lastAt;
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+        Arrays.fill(last, Double.NaN);
+    }
+
+    // Signal values in SIGNALS order, NaN where the sample lacks the signal
+    public static void read(TelemetrySignals signals, double[] values) {
+        values[0] = signals.getSpeed();
+        values[1] = signals.getFuelLevel();
+        values[2] = signals.getEngineTemp();
+        values[3] = signals.getRpm();
+        values[4] = signals.getTirePressure();
+    }
+
+    public void set(int signal, int count, double min, double max, double sum, double last) {
+        this.count[signal] = count;
+        this.min[signal] = min;
+        this.max[signal] = max;
+        this.sum[signal] = sum;
+        this.last[signal] = last;
+    }
+
+    public void merge(RollupBucket other) {
+        boolean newer = other.lastAt >= lastAt;
+        for (int i = 0; i < count.length; i++) {
+            if (other.count[i] == 0) {
+                continue;
+            }
+            if (count[i] == 0) {
+                set(i, other.count[i], other.min[i], other.max[i], other.sum[i], other.last[i]);
+                continue;
+            }
+            count[i] += other.count[i];
+            sum[i] += other.sum[i];
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+            if (newer) {
+                last[i] = other.last[i];
+            }
+        }
+        lastAt = Math.max(lastAt, other.lastAt);
+    }
+
+    public RollupPoint toPoint() {
+        Map<String, RollupPoint.Stats> signals = new LinkedHashMap<>();
+        for (int i = 0; i < count.length; i++) {
+            if (count[i] > 0) {
+                signals.put(SIGNALS.get(i), new RollupPoint.Stats(count[i], min[i], max[i], sum[i] / count[i], last[i]));
+            }
+        }
+        return new RollupPoint(Instant.ofEpochMilli(bucketStart), signals);
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getLastAt() {
+        return lastAt;
+    }
+
+    public int getCount(int signal) {
+        return count[signal];
+    }
+
+    public double getMin(int signal) {
+        return min[signal];
+    }
+
+    public double getMax(int signal) {
+        return max[signal];
+    }
+
+    public double getSum(int signal) {
+        return sum[signal];
+    }
+
+    public double getLast(int signal) {
+        return last[signal];
+    }
+}
@@ -0,0 +1,10 @@
+package com.fleetsystem.telemetry.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+// One chart point: per-signal aggregates of a vehicle's samples in [bucketStart, bucketStart + width)
+public record RollupPoint(Instant bucketStart, Map<String, Stats> signals) {
+
+    public record Stats(long count, double min, double max, double avg, double last) {}
+}
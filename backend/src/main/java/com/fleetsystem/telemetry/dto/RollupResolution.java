@@ -0,0 +1,48 @@
+package com.fleetsystem.telemetry.dto;
+
+/**
+ * Bucket widths of the per-vehicle telemetry rollups. {@code slots} is how many buckets each
+ * vehicle keeps in memory: enough to cover several flush intervals plus late samples; older
+ * buckets are served from the rollup table.
+ */
+public enum RollupResolution {
+
+    MINUTE("1m", 60_000L, 10),
+    FIVE_MINUTES("5m", 300_000L, 4),
+    HOUR("1h", 3_600_000L, 2);
+
+    private final String code;
+    private final long widthMillis;
+    private final int slots;
+
+    RollupResolution(String code, long widthMillis, int slots) {
+        this.code = code;
+        this.widthMillis = widthMillis;
+        this.slots = slots;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getWidthMillis() {
+        return widthMillis;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, widthMillis) * widthMillis;
+    }
+
+    public static RollupResolution fromCode(String code) {
+        for (RollupResolution resolution : values()) {
+            if (resolution.code.equals(code)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported resolution: " + code + " (expected 1m, 5m or 1h)");
+    }
+}
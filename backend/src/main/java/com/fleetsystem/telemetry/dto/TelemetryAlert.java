@@ -0,0 +1,13 @@
+package com.fleetsystem.telemetry.dto;
+
+/**
+ * A raised or cleared anomaly. {@code zScore} and {@code ratePerMinute} are null until enough
+ * samples have been seen to compute them.
+ */
+public record TelemetryAlert(String vehicleId, String type, String signal, boolean active,
+                             double value, Double zScore, Double ratePerMinute, String timestamp) {
+
+    public static final String ENGINE_OVERHEAT = "ENGINE_OVERHEAT";
+    public static final String FUEL_DROP = "FUEL_DROP";
+    public static final String TIRE_PRESSURE_LOSS = "TIRE_PRESSURE_LOSS";
+}
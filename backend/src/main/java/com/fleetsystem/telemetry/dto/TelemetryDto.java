@@ -6,13 +6,13 @@ public class TelemetryDto {
     private String vehicleId;
     private String timestamp;
     private Map<String, Object> specs;
-    private Map<String, Object> signals;
+    private TelemetrySignals signals;
     private Map<String, Object> status;
 
     public TelemetryDto() {}
 
     public TelemetryDto(String vehicleId, String timestamp, Map<String, Object> specs, 
-                       Map<String, Object> signals, Map<String, Object> status) {
+                       TelemetrySignals signals, Map<String, Object> status) {
         this.vehicleId = vehicleId;
         this.timestamp = timestamp;
         this.specs = specs;
@@ -44,11 +44,11 @@ public class TelemetryDto {
         this.specs = specs;
     }
 
-    public Map<String, Object> getSignals() {
+    public TelemetrySignals getSignals() {
         return signals;
     }
 
-    public void setSignals(Map<String, Object> signals) {
+    public void setSignals(TelemetrySignals signals) {
         this.signals = signals;
     }
 
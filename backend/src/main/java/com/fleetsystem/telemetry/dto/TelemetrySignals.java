@@ -0,0 +1,326 @@
+package com.fleetsystem.telemetry.dto;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Telemetry signal values. The signals every simulator payload carries are held as primitive
+ * doubles ({@link Double#NaN} when absent) so parsing a message does not box them; any other
+ * key lands in {@link #getExtra()} untouched. The JSON form is the same flat object of
+ * snake_case keys that devices send; a signal that arrived as an integer (e.g. {@code rpm})
+ * is written back as one.
+ */
+@JsonSerialize(using = TelemetrySignals.Serializer.class)
+@JsonDeserialize(using = TelemetrySignals.Deserializer.class)
+public class TelemetrySignals {
+
+    public static final String ENGINE_TEMP = "engine_temp";
+    public static final String FUEL_PRESSURE = "fuel_pressure";
+    public static final String SPEED = "speed";
+    public static final String RPM = "rpm";
+    public static final String OIL_PRESSURE = "oil_pressure";
+    public static final String FUEL_LEVEL = "fuel_level";
+    public static final String TIRE_PRESSURE = "tire_pressure";
+    public static final String COOLANT_TEMP = "coolant_temp";
+    public static final String BATTERY_VOLTAGE = "battery_voltage";
+    public static final String EXHAUST_TEMP = "exhaust_temp";
+
+    private double engineTemp = Double.NaN;
+    private double fuelPressure = Double.NaN;
+    private double speed = Double.NaN;
+    private double rpm = Double.NaN;
+    private double oilPressure = Double.NaN;
+    private double fuelLevel = Double.NaN;
+    private double tirePressure = Double.NaN;
+    private double coolantTemp = Double.NaN;
+    private double batteryVoltage = Double.NaN;
+    private double exhaustTemp = Double.NaN;
+
+    // Bit i set when known signal i (in declaration order) arrived as an integer
+    private int integral;
+
+    // Allocated only when a message carries a signal outside the known set
+    private Map<String, Object> extra;
+
+    public TelemetrySignals() {}
+
+    public double getEngineTemp() {
+        return engineTemp;
+    }
+
+    public void setEngineTemp(double engineTemp) {
+        set(ENGINE_TEMP, engineTemp);
+    }
+
+    public double getFuelPressure() {
+        return fuelPressure;
+    }
+
+    public void setFuelPressure(double fuelPressure) {
+        set(FUEL_PRESSURE, fuelPressure);
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(double speed) {
+        set(SPEED, speed);
+    }
+
+    public double getRpm() {
+        return rpm;
+    }
+
+    public void setRpm(double rpm) {
+        set(RPM, rpm);
+    }
+
+    public double getOilPressure() {
+        return oilPressure;
+    }
+
+    public void setOilPressure(double oilPressure) {
+        set(OIL_PRESSURE, oilPressure);
+    }
+
+    public double getFuelLevel() {
+        return fuelLevel;
+    }
+
+    public void setFuelLevel(double fuelLevel) {
+        set(FUEL_LEVEL, fuelLevel);
+    }
+
+    public double getTirePressure() {
+        return tirePressure;
+    }
+
+    public void setTirePressure(double tirePressure) {
+        set(TIRE_PRESSURE, tirePressure);
+    }
+
+    public double getCoolantTemp() {
+        return coolantTemp;
+    }
+
+    public void setCoolantTemp(double coolantTemp) {
+        set(COOLANT_TEMP, coolantTemp);
+    }
+
+    public double getBatteryVoltage() {
+        return batteryVoltage;
+    }
+
+    public void setBatteryVoltage(double batteryVoltage) {
+        set(BATTERY_VOLTAGE, batteryVoltage);
+    }
+
+    public double getExhaustTemp() {
+        return exhaustTemp;
+    }
+
+    public void setExhaustTemp(double exhaustTemp) {
+        set(EXHAUST_TEMP, exhaustTemp);
+    }
+
+    public Map<String, Object> getExtra() {
+        return extra;
+    }
+
+    public void setExtra(Map<String, Object> extra) {
+        this.extra = extra;
+    }
+
+    /**
+     * Stores a known signal in its primitive field.
+     *
+     * @return false if {@code name} is not a known signal
+     */
+    public boolean set(String name, double value) {
+        return set(name, value, false);
+    }
+
+    // As above, for a value that arrived as an integer and is written back as one
+    public boolean set(String name, long value) {
+        return set(name, value, true);
+    }
+
+    private boolean set(String name, double value, boolean isIntegral) {
+        int bit;
+        switch (name) {
+            case ENGINE_TEMP: engineTemp = value; bit = 0; break;
+            case FUEL_PRESSURE: fuelPressure = value; bit = 1; break;
+            case SPEED: speed = value; bit = 2; break;
+            case RPM: rpm = value; bit = 3; break;
+            case OIL_PRESSURE: oilPressure = value; bit = 4; break;
+            case FUEL_LEVEL: fuelLevel = value; bit = 5; break;
+            case TIRE_PRESSURE: tirePressure = value; bit = 6; break;
+            case COOLANT_TEMP: coolantTemp = value; bit = 7; break;
+            case BATTERY_VOLTAGE: batteryVoltage = value; bit = 8; break;
+            case EXHAUST_TEMP: exhaustTemp = value; bit = 9; break;
+            default: return false;
+        }
+        integral = isIntegral ? integral | 1 << bit : integral & ~(1 << bit);
+        return true;
+    }
+
+    private boolean isIntegral(int bit) {
+        return (integral & 1 << bit) != 0;
+    }
+
+    public void putExtra(String name, Object value) {
+        if (extra == null) {
+            extra = new LinkedHashMap<>();
+        }
+        extra.put(name, value);
+    }
+
+    // Boxed view for callers that still need a map, e.g. the jsonb entity column
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        putIfPresent(map, ENGINE_TEMP, engineTemp, isIntegral(0));
+        putIfPresent(map, FUEL_PRESSURE, fuelPressure, isIntegral(1));
+        putIfPresent(map, SPEED, speed, isIntegral(2));
+        putIfPresent(map, RPM, rpm, isIntegral(3));
+        putIfPresent(map, OIL_PRESSURE, oilPressure, isIntegral(4));
+        putIfPresent(map, FUEL_LEVEL, fuelLevel, isIntegral(5));
+        putIfPresent(map, TIRE_PRESSURE, tirePressure, isIntegral(6));
+        putIfPresent(map, COOLANT_TEMP, coolantTemp, isIntegral(7));
+        putIfPresent(map, BATTERY_VOLTAGE, batteryVoltage, isIntegral(8));
+        putIfPresent(map, EXHAUST_TEMP, exhaustTemp, isIntegral(9));
+        if (extra != null) {
+            map.putAll(extra);
+        }
+        return map;
+    }
+
+    public static TelemetrySignals fromMap(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+        TelemetrySignals signals = new TelemetrySignals();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            boolean known;
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                known = signals.set(entry.getKey(), ((Number) value).longValue());
+            } else {
+                known = value instanceof Number && signals.set(entry.getKey(), ((Number) value).doubleValue());
+            }
+            if (!known) {
+                signals.putExtra(entry.getKey(), value);
+            }
+        }
+        return signals;
+    }
+
+    // Integers boxed the way Jackson reads them into a map: Integer when they fit, else Long
+    private static void putIfPresent(Map<String, Object> map, String name, double value, boolean isIntegral) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (isIntegral) {
+            long whole = (long) value;
+            map.put(name, whole == (int) whole ? (Object) (int) whole : (Object) whole);
+        } else {
+            map.put(name, value);
+        }
+    }
+
+    public static class Serializer extends JsonSerializer<TelemetrySignals> {
+        @Override
+        public void serialize(TelemetrySignals value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeFields(value, gen, provider);
+            gen.writeEndObject();
+        }
+
+        // Needed by mappers with default typing enabled, e.g. the JSON Redis serializer
+        @Override
+        public void serializeWithType(TelemetrySignals value, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+            writeFields(value, gen, provider);
+            typeSer.writeTypeSuffix(gen, typeId);
+        }
+
+        private static void writeFields(TelemetrySignals value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeIfPresent(gen, ENGINE_TEMP, value.engineTemp, value.isIntegral(0));
+            writeIfPresent(gen, FUEL_PRESSURE, value.fuelPressure, value.isIntegral(1));
+            writeIfPresent(gen, SPEED, value.speed, value.isIntegral(2));
+            writeIfPresent(gen, RPM, value.rpm, value.isIntegral(3));
+            writeIfPresent(gen, OIL_PRESSURE, value.oilPressure, value.isIntegral(4));
+            writeIfPresent(gen, FUEL_LEVEL, value.fuelLevel, value.isIntegral(5));
+            writeIfPresent(gen, TIRE_PRESSURE, value.tirePressure, value.isIntegral(6));
+            writeIfPresent(gen, COOLANT_TEMP, value.coolantTemp, value.isIntegral(7));
+            writeIfPresent(gen, BATTERY_VOLTAGE, value.batteryVoltage, value.isIntegral(8));
+            writeIfPresent(gen, EXHAUST_TEMP, value.exhaustTemp, value.isIntegral(9));
+            if (value.extra != null) {
+                for (Map.Entry<String, Object> entry : value.extra.entrySet()) {
+                    gen.writeFieldName(entry.getKey());
+                    provider.defaultSerializeValue(entry.getValue(), gen);
+                }
+            }
+        }
+
+        private static void writeIfPresent(JsonGenerator gen, String name, double value, boolean isIntegral) throws IOException {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            if (isIntegral) {
+                gen.writeNumberField(name, (long) value);
+            } else {
+                gen.writeNumberField(name, value);
+            }
+        }
+    }
+
+    // Streams tokens straight into the primitive fields; only unknown keys are materialized
+    public static class Deserializer extends JsonDeserializer<TelemetrySignals> {
+        @Override
+        public TelemetrySignals deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                // FIELD_NAME / END_OBJECT: already inside the object, after a type id
+                throw MismatchedInputException.from(p, TelemetrySignals.class,
+                        "Expected signals to be a JSON object, got " + token);
+            }
+            TelemetrySignals signals = new TelemetrySignals();
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String name = p.currentName();
+                JsonToken valueToken = p.nextToken();
+                if (valueToken == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER
+                        ? signals.set(name, p.getLongValue())
+                        : valueToken.isNumeric() && signals.set(name, p.getDoubleValue())) {
+                    continue;
+                }
+                signals.putExtra(name, ctxt.readValue(p, Object.class));
+            }
+            return signals;
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt,
+                                          TypeDeserializer typeDeserializer) throws IOException {
+            return typeDeserializer.deserializeTypedFromObject(p, ctxt);
+        }
+    }
+}
@@ -14,6 +14,10 @@ public class VehicleTelemetryEntity {
     @Id
     private String vehicleId;
     private String timestamp;
+
+    // timestamp as epoch millis, compared by the latest-state upsert; null if it does not parse
+    @Column(name = "sampled_at_ms")
+    private Long sampledAtMs;
     
     @Type(JsonType.class)
     @Column(columnDefinition = "jsonb")
@@ -45,6 +49,14 @@ public class VehicleTelemetryEntity {
         this.timestamp = timestamp;
     }
 
+    public Long getSampledAtMs() {
+        return sampledAtMs;
+    }
+
+    public void setSampledAtMs(Long sampledAtMs) {
+        this.sampledAtMs = sampledAtMs;
+    }
+
     public Map<String, Object> getSpecs() {
         return specs;
     }
@@ -74,6 +86,7 @@ public class VehicleTelemetryEntity {
         return "VehicleTelemetryEntity{" +
                 "vehicleId=" + vehicleId +
                 ", timestamp=" + timestamp +
+                ", sampledAtMs=" + sampledAtMs +
                 ", specs=" + specs +
                 ", signals=" + signals +
                 ", status=" + status +
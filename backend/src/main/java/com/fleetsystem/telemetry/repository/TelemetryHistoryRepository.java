@@ -0,0 +1,323 @@
+package com.fleetsystem.telemetry.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fleetsystem.telemetry.Event.TelemetryEvent;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.service.TelemetryHistoryPartitionManager;
+
+/**
+ * Append-only access to the partitioned {@code telemetry_event} history table.
+ * Samples are written with multi-row INSERTs, one statement per chunk. Each sample's day
+ * partition is made sure of first; samples dated past retention are left out.
+ */
+@Repository
+public class TelemetryHistoryRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryHistoryRepository.class);
+
+    public static final String TABLE = "telemetry_event";
+
+    // 8 bind parameters per row keeps a full chunk well under Postgres' 32767 parameter limit
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int COLUMNS = 8;
+
+    private static final String INSERT_PREFIX = "INSERT INTO " + TABLE +
+            " (vehicle_id, telemetry_timestamp, speed, fuel_level, engine_temp, rpm, tire_pressure, status) VALUES ";
+    private static final String FULL_CHUNK_SQL = buildInsertSql(ROWS_PER_STATEMENT);
+
+    private static final String SELECT_BY_VEHICLE_SQL =
+            "SELECT id, vehicle_id, telemetry_timestamp, speed, fuel_level, engine_temp, rpm, tire_pressure, status " +
+            "FROM " + TABLE + " WHERE vehicle_id = ? AND telemetry_timestamp >= ? AND telemetry_timestamp < ? " +
+            "ORDER BY telemetry_timestamp DESC LIMIT ?";
+
+    // Export columns, named as in simulator/fleet_operational_data.csv
+    public static final List<String> EXPORT_FIELDS = List.of(
+            "vehicle_id", "timestamp", "speed", "fuel_level", "engine_temp", "rpm", "tire_pressure", "state");
+
+    private static final String EXPORT_SQL =
+            "SELECT vehicle_id, telemetry_timestamp, speed, fuel_level, engine_temp, rpm, tire_pressure, status " +
+            "FROM " + TABLE + " WHERE telemetry_timestamp >= ? AND telemetry_timestamp < ?";
+    private static final int EXPORT_FETCH_SIZE = 5000;
+
+    private static final TelemetrySignals NO_SIGNALS = new TelemetrySignals();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TelemetryHistoryPartitionManager partitionManager;
+
+    public TelemetryHistoryRepository(JdbcTemplate jdbcTemplate, TelemetryHistoryPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+    }
+
+    public int append(List<TelemetryDto> samples) {
+        List<Row> rows = admit(samples);
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<Row> chunk = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            String sql = chunk.size() == ROWS_PER_STATEMENT ? FULL_CHUNK_SQL : buildInsertSql(chunk.size());
+            written += jdbcTemplate.update(sql, ps -> {
+                int index = 1;
+                for (Row row : chunk) {
+                    bindRow(ps, index, row);
+                    index += COLUMNS;
+                }
+            });
+        }
+        return written;
+    }
+
+    private record Row(TelemetryDto dto, Instant at) {}
+
+    // Resolves each sample's instant once, and its day's partition once per distinct day
+    private List<Row> admit(List<TelemetryDto> samples) {
+        List<Row> rows = new ArrayList<>(samples.size());
+        Map<LocalDate, Boolean> days = new HashMap<>();
+        int expired = 0;
+        for (TelemetryDto dto : samples) {
+            Instant at = parseTimestamp(dto.getTimestamp());
+            LocalDate day = LocalDate.ofInstant(at, ZoneOffset.UTC);
+            if (days.computeIfAbsent(day, partitionManager::ensurePartition)) {
+                rows.add(new Row(dto, at));
+            } else {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.warn("Skipped {} telemetry history samples dated past retention", expired);
+        }
+        return rows;
+    }
+
+    public List<TelemetryEvent> findByVehicle(String vehicleId, Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(SELECT_BY_VEHICLE_SQL, this::mapRow,
+                vehicleId, Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    /**
+     * Streams samples in [from, to), optionally for one vehicle, in {@link #EXPORT_FIELDS} order
+     * through a server-side cursor (needs the read-only transaction for Postgres to honour it).
+     */
+    @Transactional(readOnly = true)
+    public void forEachInRange(String vehicleId, Instant from, Instant to, Consumer<Object[]> consumer) {
+        String sql = EXPORT_SQL + (vehicleId != null ? " AND vehicle_id = ?" : "") + " ORDER BY telemetry_timestamp";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.from(from));
+            ps.setTimestamp(2, Timestamp.from(to));
+            if (vehicleId != null) {
+                ps.setString(3, vehicleId);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(new Object[] {
+                    rs.getString(1),
+                    rs.getTimestamp(2).toInstant().toString(),
+                    rs.getObject(3, Double.class),
+                    rs.getObject(4, Double.class),
+                    rs.getObject(5, Double.class),
+                    rs.getObject(6, Double.class),
+                    rs.getObject(7, Double.class),
+                    rs.getString(8)
+            });
+        });
+    }
+
+    private void bindRow(PreparedStatement ps, int index, Row row) throws SQLException {
+        TelemetryDto dto = row.dto();
+        TelemetrySignals signals = dto.getSignals() != null ? dto.getSignals() : NO_SIGNALS;
+        ps.setString(index, dto.getVehicleId());
+        ps.setTimestamp(index + 1, Timestamp.from(row.at()));
+        setDouble(ps, index + 2, signals.getSpeed());
+        setDouble(ps, index + 3, signals.getFuelLevel());
+        setDouble(ps, index + 4, signals.getEngineTemp());
+        setDouble(ps, index + 5, signals.getRpm());
+        setDouble(ps, index + 6, signals.getTirePressure());
+        ps.setString(index + 7, state(dto.getStatus()));
+    }
+
+    private TelemetryEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        TelemetryEvent event = new TelemetryEvent();
+        event.setId(rs.getLong("id"));
+        event.setVehicleId(rs.getString("vehicle_id"));
+        event.setTelemetryTimestamp(rs.getTimestamp("telemetry_timestamp").toInstant());
+        event.setSpeed(rs.getObject("speed", Double.class));
+        event.setFuelLevel(rs.getObject("fuel_level", Double.class));
+        event.setEngineTemp(rs.getObject("engine_temp", Double.class));
+        event.setRpm(rs.getObject("rpm", Double.class));
+        event.setTirePressure(rs.getObject("tire_pressure", Double.class));
+        event.setStatus(rs.getString("status"));
+        return event;
+    }
+
+    private static String buildInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * 20).append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(?,?,?,?,?,?,?,?)");
+        }
+        return sql.toString();
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static String state(Map<String, Object> status) {
+        if (status == null) {
+            return null;
+        }
+        Object state = status.get("state");
+        return state != null ? state.toString() : null;
+    }
+
+    /**
+     * Same result as {@link #parseTimestamp} truncated to milliseconds, without allocating for the
+     * UTC forms devices send ({@code 2024-10-14T10:00:03[.fraction]Z} or {@code ...+00:00}).
+     */
+    public static long parseEpochMillis(String timestamp) {
+        long millis = timestamp != null ? parseUtcMillis(timestamp) : Long.MIN_VALUE;
+        return millis != Long.MIN_VALUE ? millis : parseTimestamp(timestamp).toEpochMilli();
+    }
+
+    /**
+     * Like {@link #parseEpochMillis} but returns {@code Long.MIN_VALUE} instead of substituting
+     * the current time when the timestamp is missing or not an ISO-8601 instant.
+     */
+    public static long tryParseEpochMillis(String timestamp) {
+        if (timestamp == null) {
+            return Long.MIN_VALUE;
+        }
+        long millis = parseUtcMillis(timestamp);
+        if (millis != Long.MIN_VALUE) {
+            return millis;
+        }
+        // Zone-less local times are common from simulators; skip the exception for them
+        if (!hasOffset(timestamp)) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Long.MIN_VALUE when the string is not one of the fast-path forms
+    private static long parseUtcMillis(String s) {
+        int length = s.length();
+        if (length < 20 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 28 && day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        int i = 19;
+        int millis = 0;
+        if (s.charAt(i) == '.') {
+            int scale = 100;
+            for (i++; i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i++) {
+                millis += (s.charAt(i) - '0') * scale;
+                scale /= 10;
+            }
+        }
+        boolean utc = i == length - 1 && s.charAt(i) == 'Z'
+                || i == length - 6 && s.startsWith("+00:00", i);
+        if (!utc) {
+            return Long.MIN_VALUE;
+        }
+        long seconds = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        return seconds * 1000 + millis;
+    }
+
+    private static boolean hasOffset(String s) {
+        if (s.endsWith("Z")) {
+            return true;
+        }
+        for (int i = s.length() - 1; i >= 19; i--) {
+            char c = s.charAt(i);
+            if (c == '+' || c == '-') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -1 if any character is not a digit
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar (Howard Hinnant's days_from_civil)
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    // Samples without a parseable timestamp are recorded at ingest time rather than dropped
+    public static Instant parseTimestamp(String timestamp) {
+        if (timestamp != null) {
+            try {
+                return Instant.parse(timestamp);
+            } catch (DateTimeParseException e) {
+                // fall through
+            }
+        }
+        return Instant.now();
+    }
+}
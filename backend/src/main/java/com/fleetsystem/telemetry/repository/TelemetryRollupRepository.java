@@ -0,0 +1,176 @@
+package com.fleetsystem.telemetry.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fleetsystem.telemetry.dto.RollupBucket;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+
+/**
+ * The {@code telemetry_rollup} table: one row per vehicle, resolution and bucket, with
+ * count/min/max/sum/last columns for each of {@link RollupBucket#SIGNALS}. Writes are deltas
+ * merged into the existing row, so partial flushes of one bucket add up.
+ */
+@Repository
+public class TelemetryRollupRepository {
+
+    public static final String TABLE = "telemetry_rollup";
+
+    private static final int SIGNALS = RollupBucket.SIGNALS.size();
+    private static final int COLUMNS = 4 + SIGNALS * 5;
+    // 29 bind parameters per row keeps a full chunk well under Postgres' 32767 parameter limit
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String COLUMN_LIST = columnList();
+    private static final String INSERT_PREFIX = "INSERT INTO " + TABLE + " AS r (" + COLUMN_LIST + ") VALUES ";
+    private static final String UPSERT_SUFFIX = upsertSuffix();
+    private static final String FULL_CHUNK_SQL = buildUpsertSql(ROWS_PER_STATEMENT);
+
+    private static final String SELECT_SERIES_SQL = "SELECT " + COLUMN_LIST + " FROM " + TABLE +
+            " WHERE vehicle_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ? " +
+            "ORDER BY bucket_start LIMIT ?";
+
+    public record RollupRow(String vehicleId, RollupResolution resolution, RollupBucket bucket) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TelemetryRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createTable() {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "vehicle_id VARCHAR(255) NOT NULL, " +
+                "resolution VARCHAR(8) NOT NULL, " +
+                "bucket_start TIMESTAMPTZ NOT NULL, " +
+                "last_at TIMESTAMPTZ NOT NULL");
+        for (String signal : RollupBucket.SIGNALS) {
+            ddl.append(", ").append(signal).append("_count INTEGER NOT NULL DEFAULT 0")
+                    .append(", ").append(signal).append("_min DOUBLE PRECISION")
+                    .append(", ").append(signal).append("_max DOUBLE PRECISION")
+                    .append(", ").append(signal).append("_sum DOUBLE PRECISION NOT NULL DEFAULT 0")
+                    .append(", ").append(signal).append("_last DOUBLE PRECISION");
+        }
+        ddl.append(", PRIMARY KEY (vehicle_id, resolution, bucket_start))");
+        jdbcTemplate.execute(ddl.toString());
+    }
+
+    /**
+     * Merges deltas into their rows. A statement must not touch one row twice, so each
+     * (vehicle, resolution, bucket) may appear at most once in {@code rows}.
+     */
+    public int mergeDeltas(List<RollupRow> rows) {
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<RollupRow> chunk = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            String sql = chunk.size() == ROWS_PER_STATEMENT ? FULL_CHUNK_SQL : buildUpsertSql(chunk.size());
+            written += jdbcTemplate.update(sql, ps -> {
+                int index = 1;
+                for (RollupRow row : chunk) {
+                    bindRow(ps, index, row);
+                    index += COLUMNS;
+                }
+            });
+        }
+        return written;
+    }
+
+    public List<RollupBucket> findSeries(String vehicleId, RollupResolution resolution, Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(SELECT_SERIES_SQL, (rs, rowNum) -> mapRow(rs),
+                vehicleId, resolution.getCode(), Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    public int deleteOlderThan(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE bucket_start < ?", Timestamp.from(cutoff));
+    }
+
+    private static void bindRow(PreparedStatement ps, int index, RollupRow row) throws SQLException {
+        RollupBucket bucket = row.bucket();
+        ps.setString(index, row.vehicleId());
+        ps.setString(index + 1, row.resolution().getCode());
+        ps.setTimestamp(index + 2, new Timestamp(bucket.getBucketStart()));
+        ps.setTimestamp(index + 3, new Timestamp(bucket.getLastAt()));
+        int column = index + 4;
+        for (int i = 0; i < SIGNALS; i++) {
+            ps.setInt(column, bucket.getCount(i));
+            setDouble(ps, column + 1, bucket.getMin(i));
+            setDouble(ps, column + 2, bucket.getMax(i));
+            ps.setDouble(column + 3, bucket.getCount(i) > 0 ? bucket.getSum(i) : 0);
+            setDouble(ps, column + 4, bucket.getLast(i));
+            column += 5;
+        }
+    }
+
+    private static RollupBucket mapRow(ResultSet rs) throws SQLException {
+        RollupBucket bucket = new RollupBucket(rs.getTimestamp(3).getTime(), rs.getTimestamp(4).getTime());
+        int column = 5;
+        for (int i = 0; i < SIGNALS; i++) {
+            int count = rs.getInt(column);
+            if (count > 0) {
+                bucket.set(i, count, rs.getDouble(column + 1), rs.getDouble(column + 2),
+                        rs.getDouble(column + 3), rs.getDouble(column + 4));
+            }
+            column += 5;
+        }
+        return bucket;
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static String columnList() {
+        StringBuilder columns = new StringBuilder("vehicle_id, resolution, bucket_start, last_at");
+        for (String signal : RollupBucket.SIGNALS) {
+            columns.append(", ").append(signal).append("_count, ").append(signal).append("_min, ")
+                    .append(signal).append("_max, ").append(signal).append("_sum, ").append(signal).append("_last");
+        }
+        return columns.toString();
+    }
+
+    // Counts and sums add up, min/max combine, and last comes from whichever side saw the newer sample
+    private static String upsertSuffix() {
+        StringBuilder sql = new StringBuilder(" ON CONFLICT (vehicle_id, resolution, bucket_start) DO UPDATE SET " +
+                "last_at = GREATEST(r.last_at, excluded.last_at)");
+        for (String signal : RollupBucket.SIGNALS) {
+            String count = signal + "_count";
+            String min = signal + "_min";
+            String max = signal + "_max";
+            String sum = signal + "_sum";
+            String last = signal + "_last";
+            sql.append(", ").append(count).append(" = r.").append(count).append(" + excluded.").append(count)
+                    .append(", ").append(min).append(" = LEAST(r.").append(min).append(", excluded.").append(min).append(')')
+                    .append(", ").append(max).append(" = GREATEST(r.").append(max).append(", excluded.").append(max).append(')')
+                    .append(", ").append(sum).append(" = r.").append(sum).append(" + excluded.").append(sum)
+                    .append(", ").append(last).append(" = CASE WHEN excluded.last_at >= r.last_at")
+                    .append(" THEN COALESCE(excluded.").append(last).append(", r.").append(last).append(')')
+                    .append(" ELSE COALESCE(r.").append(last).append(", excluded.").append(last).append(") END");
+        }
+        return sql.toString();
+    }
+
+    private static String buildUpsertSql(int rows) {
+        String placeholders = "(" + "?,".repeat(COLUMNS - 1) + "?)";
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (placeholders.length() + 1) + UPSERT_SUFFIX.length())
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(placeholders);
+        }
+        return sql.append(UPSERT_SUFFIX).toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.fleetsystem.telemetry.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+/**
+ * Plain JDBC access to the latest-telemetry table for all writes.
+ * Reads still go through {@link VehicleTelemetryRepository}.
+ */
+@Repository
+public class VehicleTelemetryJdbcRepository {
+
+    // 6 bind parameters per row; same chunk size as the history INSERTs
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int COLUMNS = 6;
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO vehicle_telemetry_entity AS latest (vehicle_id, timestamp, sampled_at_ms, specs, signals, status) VALUES ";
+    // timestamp is free-form text, so the guard compares the parsed millis; a row or sample
+    // without them is not ordered and always overwritten, as before the guard
+    private static final String UPSERT_SUFFIX =
+            " ON CONFLICT (vehicle_id) DO UPDATE SET " +
+            "timestamp = excluded.timestamp, " +
+            "sampled_at_ms = excluded.sampled_at_ms, " +
+            "specs = excluded.specs, " +
+            "signals = excluded.signals, " +
+            "status = excluded.status " +
+            "WHERE excluded.sampled_at_ms IS NULL OR latest.sampled_at_ms IS NULL " +
+            "OR excluded.sampled_at_ms > latest.sampled_at_ms";
+    private static final String FULL_CHUNK_SQL = buildUpsertSql(ROWS_PER_STATEMENT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public VehicleTelemetryJdbcRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Upserts the latest state with one multi-row statement per chunk. A row is only replaced by
+     * a newer sample, so concurrent writers and late samples cannot move a vehicle back in time.
+     * Vehicle ids must be distinct within the batch: Postgres refuses to update the same row twice
+     * in a statement.
+     *
+     * @return rows inserted or replaced; stale samples are not counted
+     */
+    public int upsertLatest(List<TelemetryDto> batch) {
+        int written = 0;
+        for (int from = 0; from < batch.size(); from += ROWS_PER_STATEMENT) {
+            List<TelemetryDto> chunk = batch.subList(from, Math.min(from + ROWS_PER_STATEMENT, batch.size()));
+            String sql = chunk.size() == ROWS_PER_STATEMENT ? FULL_CHUNK_SQL : buildUpsertSql(chunk.size());
+            written += jdbcTemplate.update(sql, ps -> {
+                int index = 1;
+                for (TelemetryDto dto : chunk) {
+                    ps.setString(index, dto.getVehicleId());
+                    ps.setString(index + 1, dto.getTimestamp());
+                    long sampledAt = TelemetryHistoryRepository.tryParseEpochMillis(dto.getTimestamp());
+                    if (sampledAt == Long.MIN_VALUE) {
+                        ps.setNull(index + 2, Types.BIGINT);
+                    } else {
+                        ps.setLong(index + 2, sampledAt);
+                    }
+                    setJson(ps, index + 3, dto.getSpecs());
+                    setJson(ps, index + 4, dto.getSignals());
+                    setJson(ps, index + 5, dto.getStatus());
+                    index += COLUMNS;
+                }
+            });
+        }
+        return written;
+    }
+
+    private void setJson(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+            return;
+        }
+        try {
+            ps.setString(index, objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize telemetry column", e);
+        }
+    }
+
+    private static String buildUpsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + UPSERT_SUFFIX.length() + rows * 44)
+                .append(UPSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb)");
+        }
+        return sql.append(UPSERT_SUFFIX).toString();
+    }
+}
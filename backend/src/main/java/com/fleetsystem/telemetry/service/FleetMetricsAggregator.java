@@ -0,0 +1,132 @@
+package com.fleetsystem.telemetry.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+
+/**
+ * Running fleet KPIs over every vehicle's latest sample. {@link TelemetryLatestStateRegistry}
+ * hands over the replaced and the new sample on each update, so a sample costs O(1) to apply
+ * and reading the KPIs never looks at individual vehicles.
+ *
+ * Sums are kept in fixed point (thousandths) so that subtracting a replaced sample is exact and
+ * does not drift. Min and max come from per-signal histograms of 0.1-unit buckets, which
+ * support removal; they are therefore reported to 0.1 km/h, % or °C.
+ */
+@Component
+public class FleetMetricsAggregator {
+
+    private final double lowFuelPercent;
+    private final double overheatTemp;
+
+    private final Signal speed = new Signal(0, 300);
+    private final Signal fuel = new Signal(0, 100);
+    private final Signal engineTemp = new Signal(-40, 200);
+    private long vehicles;
+    private long active;
+    private long lowFuel;
+    private long overheating;
+
+    public FleetMetricsAggregator(@Value("${analytics.fleet.low-fuel-percent:20}") double lowFuelPercent,
+                                  @Value("${analytics.fleet.overheat-temp:105}") double overheatTemp) {
+        this.lowFuelPercent = lowFuelPercent;
+        this.overheatTemp = overheatTemp;
+    }
+
+    /**
+     * Swaps one vehicle's contribution; {@code previous} is null for a vehicle seen for the first
+     * time. Callers must serialize replacements of the same vehicle.
+     */
+    public synchronized void replace(TelemetryDto previous, TelemetryDto current) {
+        if (previous != null) {
+            apply(previous.getSignals(), -1);
+            vehicles--;
+        }
+        if (current != null) {
+            apply(current.getSignals(), 1);
+            vehicles++;
+        }
+    }
+
+    public synchronized FleetMetrics snapshot() {
+        return new FleetMetrics(vehicles, active, lowFuel, overheating,
+                speed.stats(), fuel.stats(), engineTemp.stats());
+    }
+
+    private void apply(TelemetrySignals signals, int sign) {
+        if (signals == null) {
+            return;
+        }
+        double speedValue = finiteOrAbsent(signals.getSpeed());
+        double fuelValue = finiteOrAbsent(signals.getFuelLevel());
+        double tempValue = finiteOrAbsent(signals.getEngineTemp());
+        // NaN (signal absent) fails every comparison, so it is never counted
+        if (speedValue > 0) {
+            active += sign;
+        }
+        if (fuelValue < lowFuelPercent) {
+            lowFuel += sign;
+        }
+        if (tempValue > overheatTemp) {
+            overheating += sign;
+        }
+        speed.apply(speedValue, sign);
+        fuel.apply(fuelValue, sign);
+        engineTemp.apply(tempValue, sign);
+    }
+
+    public record SignalStats(long samples, Double mean, Double min, Double max) {}
+
+    public record FleetMetrics(long vehicles, long activeVehicles, long lowFuelVehicles, long overheatingVehicles,
+                               SignalStats speed, SignalStats fuelLevel, SignalStats engineTemp) {}
+
+    // An infinite reading is treated as absent: it would otherwise pin the sum at Long.MAX_VALUE
+    private static double finiteOrAbsent(double value) {
+        return Double.isFinite(value) ? value : Double.NaN;
+    }
+
+    // One signal's count, fixed-point sum and 0.1-unit histogram; values outside the range
+    // land in the edge buckets
+    private static final class Signal {
+        private final double lowest;
+        private final int[] buckets;
+        private long samples;
+        private long sumMillis;
+
+        Signal(double lowest, double highest) {
+            this.lowest = lowest;
+            this.buckets = new int[(int) Math.round((highest - lowest) * 10) + 1];
+        }
+
+        void apply(double value, int sign) {
+            if (!Double.isFinite(value)) {
+                return;
+            }
+            samples += sign;
+            sumMillis += sign * Math.round(value * 1000);
+            int bucket = (int) Math.floor((value - lowest) * 10);
+            buckets[Math.max(0, Math.min(buckets.length - 1, bucket))] += sign;
+        }
+
+        SignalStats stats() {
+            if (samples <= 0) {
+                return new SignalStats(0, null, null, null);
+            }
+            int first = 0;
+            while (first < buckets.length - 1 && buckets[first] <= 0) {
+                first++;
+            }
+            int last = buckets.length - 1;
+            while (last > 0 && buckets[last] <= 0) {
+                last--;
+            }
+            return new SignalStats(samples, sumMillis / 1000.0 / samples, bucketValue(first), bucketValue(last));
+        }
+
+        private double bucketValue(int bucket) {
+            return Math.round((lowest + bucket / 10.0) * 10) / 10.0;
+        }
+    }
+}
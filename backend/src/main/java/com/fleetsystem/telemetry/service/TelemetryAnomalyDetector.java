@@ -0,0 +1,287 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.telemetry.dto.TelemetryAlert;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+
+/**
+ * Streaming anomaly detection on the ingest path, replacing a call to the Python model per
+ * sample. For each vehicle and watched signal it keeps an exponentially weighted mean and
+ * variance, the previous value and its timestamp, all in primitive arrays; a sample costs a
+ * map lookup and a few dozen flops.
+ *
+ * A rule is abnormal when the value crosses its absolute raise threshold, its z-score against
+ * the running statistics passes {@code z-raise}, or it moves in the bad direction faster than
+ * its rate threshold. It raises after {@code confirm-samples} consecutive abnormal samples and
+ * only clears once the value is back past the clear threshold and the z-score under
+ * {@code z-clear}, so a signal hovering at a limit does not flap.
+ */
+@Component
+public class TelemetryAnomalyDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryAnomalyDetector.class);
+
+    private final Rule[] rules;
+    private final boolean enabled;
+    private final double alpha;
+    private final int warmupSamples;
+    private final int confirmSamples;
+    private final double zRaise;
+    private final double zClear;
+    private final int recentCapacity;
+
+    private final ConcurrentHashMap<String, VehicleState> states = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TelemetryAlert> active = new ConcurrentHashMap<>();
+    private final ArrayDeque<TelemetryAlert> recent = new ArrayDeque<>();
+
+    public TelemetryAnomalyDetector(@Value("${analytics.anomaly.enabled:true}") boolean enabled,
+                                    @Value("${analytics.anomaly.alpha:0.1}") double alpha,
+                                    @Value("${analytics.anomaly.warmup-samples:20}") int warmupSamples,
+                                    @Value("${analytics.anomaly.confirm-samples:2}") int confirmSamples,
+                                    @Value("${analytics.anomaly.z-raise:4}") double zRaise,
+                                    @Value("${analytics.anomaly.z-clear:2}") double zClear,
+                                    @Value("${analytics.anomaly.recent-capacity:1000}") int recentCapacity,
+                                    @Value("${analytics.anomaly.overheat-raise:105}") double overheatRaise,
+                                    @Value("${analytics.anomaly.overheat-clear:100}") double overheatClear,
+                                    @Value("${analytics.anomaly.fuel-drop-per-minute:10}") double fuelDropRate,
+                                    @Value("${analytics.anomaly.tire-low-raise:28}") double tireLowRaise,
+                                    @Value("${analytics.anomaly.tire-low-clear:30}") double tireLowClear,
+                                    @Value("${analytics.anomaly.tire-loss-per-minute:2}") double tireLossRate) {
+        this.enabled = enabled;
+        this.alpha = alpha;
+        this.warmupSamples = warmupSamples;
+        this.confirmSamples = Math.max(1, confirmSamples);
+        this.zRaise = zRaise;
+        this.zClear = zClear;
+        this.recentCapacity = recentCapacity;
+        this.rules = new Rule[] {
+                new Rule(TelemetryAlert.ENGINE_OVERHEAT, TelemetrySignals.ENGINE_TEMP, 1, overheatRaise, overheatClear, Double.NaN, 0.5),
+                new Rule(TelemetryAlert.FUEL_DROP, TelemetrySignals.FUEL_LEVEL, -1, Double.NaN, Double.NaN, fuelDropRate, 0.5),
+                new Rule(TelemetryAlert.TIRE_PRESSURE_LOSS, TelemetrySignals.TIRE_PRESSURE, -1, tireLowRaise, tireLowClear, tireLossRate, 0.2)
+        };
+    }
+
+    /**
+     * Updates the vehicle's statistics with one sample and raises or clears alerts.
+     *
+     * @return number of alerts raised or cleared by this sample
+     */
+    public int observe(TelemetryDto dto) {
+        TelemetrySignals signals = dto.getSignals();
+        if (!enabled || signals == null) {
+            return 0;
+        }
+        long timestamp = TelemetryHistoryRepository.parseEpochMillis(dto.getTimestamp());
+        VehicleState state = states.computeIfAbsent(dto.getVehicleId(), id -> new VehicleState(rules.length));
+        List<TelemetryAlert> transitions = null;
+        synchronized (state) {
+            for (int r = 0; r < rules.length; r++) {
+                TelemetryAlert alert = evaluate(dto, state, r, value(signals, r), timestamp);
+                if (alert != null) {
+                    if (transitions == null) {
+                        transitions = new ArrayList<>(2);
+                    }
+                    transitions.add(alert);
+                }
+            }
+        }
+        if (transitions == null) {
+            return 0;
+        }
+        for (TelemetryAlert alert : transitions) {
+            record(alert);
+        }
+        return transitions.size();
+    }
+
+    public void observeAll(List<TelemetryDto> samples) {
+        for (TelemetryDto dto : samples) {
+            observe(dto);
+        }
+    }
+
+    public List<TelemetryAlert> getActiveAlerts(String vehicleId) {
+        List<TelemetryAlert> alerts = new ArrayList<>();
+        for (TelemetryAlert alert : active.values()) {
+            if (vehicleId == null || vehicleId.equals(alert.vehicleId())) {
+                alerts.add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    public int getActiveAlertCount() {
+        return active.size();
+    }
+
+    // Newest first
+    public List<TelemetryAlert> getRecentAlerts(String vehicleId, int limit) {
+        List<TelemetryAlert> alerts = new ArrayList<>();
+        synchronized (recent) {
+            Iterator<TelemetryAlert> it = recent.descendingIterator();
+            while (it.hasNext() && alerts.size() < limit) {
+                TelemetryAlert alert = it.next();
+                if (vehicleId == null || vehicleId.equals(alert.vehicleId())) {
+                    alerts.add(alert);
+                }
+            }
+        }
+        return alerts;
+    }
+
+    private TelemetryAlert evaluate(TelemetryDto dto, VehicleState state, int r, double value, long timestamp) {
+        // An infinite reading (1e999 parses as one) would turn mean and variance into NaN for good
+        if (!Double.isFinite(value)) {
+            return null;
+        }
+        Rule rule = rules[r];
+        // z-score and rate are signed so that positive means "towards the bad direction"
+        double z = Double.NaN;
+        if (state.samples[r] >= warmupSamples) {
+            double std = Math.max(Math.sqrt(state.variance[r]), rule.minStd);
+            z = (value - state.mean[r]) / std * rule.direction;
+        }
+        double rate = Double.NaN;
+        if (state.samples[r] > 0 && timestamp > state.lastAt[r]) {
+            // Samples closer than a second apart are rated as a second, so timestamp jitter is no spike
+            double minutes = Math.max(timestamp - state.lastAt[r], 1000) / 60_000.0;
+            rate = (value - state.last[r]) / minutes * rule.direction;
+        }
+        boolean abnormal = beyond(value, rule.raise, rule.direction)
+                || z >= zRaise
+                || rate >= rule.rate;
+        // A candidate outlier stays out of the statistics until confirmed, so that a step change
+        // still scores as one on the confirming sample
+        boolean confirming = !state.active[r] && abnormal && state.pending[r] + 1 < confirmSamples;
+        update(state, r, value, timestamp, !confirming);
+
+        if (!state.active[r]) {
+            state.pending[r] = abnormal ? state.pending[r] + 1 : 0;
+            if (state.pending[r] < confirmSamples) {
+                return null;
+            }
+            state.pending[r] = 0;
+            state.active[r] = true;
+        } else {
+            boolean normal = !abnormal
+                    && !beyond(value, rule.clear, rule.direction)
+                    && !(z >= zClear);
+            if (!normal) {
+                return null;
+            }
+            state.active[r] = false;
+        }
+        return new TelemetryAlert(dto.getVehicleId(), rule.type, rule.signal, state.active[r],
+                value, Double.isNaN(z) ? null : z, Double.isNaN(rate) ? null : rate, dto.getTimestamp());
+    }
+
+    // EWMA mean and variance (West's incremental form); the first sample seeds the mean
+    private void update(VehicleState state, int r, double value, long timestamp, boolean statistics) {
+        if (state.samples[r] == 0) {
+            state.mean[r] = value;
+            state.variance[r] = 0;
+            state.samples[r] = 1;
+        } else if (statistics) {
+            double diff = value - state.mean[r];
+            double increment = alpha * diff;
+            state.mean[r] += increment;
+            state.variance[r] = (1 - alpha) * (state.variance[r] + diff * increment);
+            state.samples[r]++;
+        }
+        // A sample arriving out of order must not become the baseline for the next rate
+        if (timestamp >= state.lastAt[r]) {
+            state.last[r] = value;
+            state.lastAt[r] = timestamp;
+        }
+    }
+
+    private void record(TelemetryAlert alert) {
+        String key = alert.vehicleId() + '|' + alert.type();
+        if (alert.active()) {
+            active.put(key, alert);
+            log.warn("Anomaly {} raised for vehicle {}: {}={} (z={}, rate/min={})", alert.type(), alert.vehicleId(),
+                    alert.signal(), alert.value(), alert.zScore(), alert.ratePerMinute());
+        } else {
+            active.remove(key);
+            log.info("Anomaly {} cleared for vehicle {}: {}={}", alert.type(), alert.vehicleId(), alert.signal(), alert.value());
+        }
+        synchronized (recent) {
+            if (recent.size() == recentCapacity) {
+                recent.pollFirst();
+            }
+            recent.addLast(alert);
+        }
+    }
+
+    // NaN thresholds are disabled: every comparison with NaN is false
+    private static boolean beyond(double value, double threshold, int direction) {
+        return direction > 0 ? value >= threshold : value <= threshold;
+    }
+
+    private static double value(TelemetrySignals signals, int rule) {
+        switch (rule) {
+            case 0:
+                return signals.getEngineTemp();
+            case 1:
+                return signals.getFuelLevel();
+            default:
+                return signals.getTirePressure();
+        }
+    }
+
+    private static final class Rule {
+        private final String type;
+        private final String signal;
+        // +1 when high values are bad, -1 when low values are
+        private final int direction;
+        private final double raise;
+        private final double clear;
+        // Units per minute in the bad direction
+        private final double rate;
+        // Floor for the standard deviation, so a perfectly steady signal does not turn noise into huge z-scores
+        private final double minStd;
+
+        private Rule(String type, String signal, int direction, double raise, double clear, double rate, double minStd) {
+            this.type = type;
+            this.signal = signal;
+            this.direction = direction;
+            this.raise = raise;
+            this.clear = clear;
+            this.rate = rate;
+            this.minStd = minStd;
+        }
+    }
+
+    // One slot per rule
+    private static final class VehicleState {
+        private final double[] mean;
+        private final double[] variance;
+        private final double[] last;
+        private final long[] lastAt;
+        private final int[] samples;
+        private final int[] pending;
+        private final boolean[] active;
+
+        private VehicleState(int rules) {
+            mean = new double[rules];
+            variance = new double[rules];
+            last = new double[rules];
+            lastAt = new long[rules];
+            samples = new int[rules];
+            pending = new int[rules];
+            active = new boolean[rules];
+        }
+    }
+}
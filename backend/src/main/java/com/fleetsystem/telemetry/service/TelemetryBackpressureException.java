@@ -0,0 +1,12 @@
+package com.fleetsystem.telemetry.service;
+
+/**
+ * Thrown when the ingest pipeline cannot accept more telemetry right now.
+ * Controllers translate this into HTTP 429 so producers back off and retry.
+ */
+public class TelemetryBackpressureException extends RuntimeException {
+
+    public TelemetryBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package com.fleetsystem.telemetry.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+
+/**
+ * Replays of buffered telemetry in one request: a JSON array of messages, optionally gzip
+ * encoded. The array is parsed one element at a time and every element is validated on its
+ * own; valid ones are then persisted together through
+ * {@link TelemetryService#processTelemetryBatch} (one transaction, one multi-row latest-state
+ * upsert per chunk plus the history append). Invalid elements are reported and not written.
+ */
+@Service
+public class TelemetryBatchIngestService {
+
+    // vehicle_telemetry_entity.vehicle_id and telemetry_event.vehicle_id are VARCHAR(255)
+    private static final int MAX_VEHICLE_ID_LENGTH = 255;
+
+    private final TelemetryService telemetryService;
+    private final TelemetryMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader telemetryReader;
+    private final int maxItems;
+    private final long maxBytes;
+
+    public TelemetryBatchIngestService(TelemetryService telemetryService,
+                                       TelemetryMetrics metrics,
+                                       ObjectMapper objectMapper,
+                                       @Value("${telemetry.batch.max-items:10000}") int maxItems,
+                                       @Value("${telemetry.batch.max-bytes:33554432}") long maxBytes) {
+        this.telemetryService = telemetryService;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.telemetryReader = objectMapper.readerFor(TelemetryDto.class);
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
+    }
+
+    public record ItemStatus(int index, String vehicleId, String status, String error) {}
+
+    public record BatchResult(int received, int accepted, int rejected, List<ItemStatus> items) {}
+
+    /**
+     * @throws JsonProcessingException if the body is not well-formed JSON
+     * @throws IllegalArgumentException if the body is not an array
+     * @throws TelemetryBatchTooLargeException past {@code max-items} elements or {@code max-bytes}
+     *         (decompressed)
+     */
+    public BatchResult ingest(InputStream body, boolean gzip) throws IOException {
+        InputStream in = new LimitedInputStream(gzip ? new GZIPInputStream(body, 8192) : body, maxBytes);
+        List<ItemStatus> items = new ArrayList<>();
+        List<TelemetryDto> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of telemetry messages");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unterminated JSON array");
+                }
+                int index = items.size();
+                if (index >= maxItems) {
+                    throw new TelemetryBatchTooLargeException("Batch is limited to " + maxItems + " messages");
+                }
+                // Buffer the element so a message that fails to bind does not desync the array
+                TokenBuffer element = new TokenBuffer(parser);
+                element.copyCurrentStructure(parser);
+
+                long start = System.nanoTime();
+                TelemetryDto dto;
+                try (JsonParser elementParser = element.asParser(parser.getCodec())) {
+                    dto = telemetryReader.readValue(elementParser);
+                } catch (JsonProcessingException e) {
+                    items.add(new ItemStatus(index, null, "rejected", "Invalid message: " + e.getOriginalMessage()));
+                    continue;
+                } finally {
+                    metrics.recordParse(start);
+                }
+
+                String error = validate(dto);
+                if (error != null) {
+                    items.add(new ItemStatus(index, dto.getVehicleId(), "rejected", error));
+                    continue;
+                }
+                items.add(null);
+                valid.add(dto);
+                validIndexes.add(index);
+            }
+        }
+
+        // Throws if the transaction fails; nothing from this batch is then written
+        telemetryService.processTelemetryBatch(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            int index = validIndexes.get(i);
+            items.set(index, new ItemStatus(index, valid.get(i).getVehicleId(), "accepted", null));
+        }
+        return new BatchResult(items.size(), valid.size(), items.size() - valid.size(), items);
+    }
+
+    // Replayed samples must carry their own time: history would otherwise record them at ingest time
+    private static String validate(TelemetryDto dto) {
+        String vehicleId = dto.getVehicleId();
+        if (vehicleId == null || vehicleId.isBlank()) {
+            return "vehicleId is required";
+        }
+        if (vehicleId.length() > MAX_VEHICLE_ID_LENGTH) {
+            return "vehicleId is longer than " + MAX_VEHICLE_ID_LENGTH + " characters";
+        }
+        if (dto.getTimestamp() == null) {
+            return "timestamp is required";
+        }
+        if (TelemetryHistoryRepository.tryParseEpochMillis(dto.getTimestamp()) == Long.MIN_VALUE) {
+            return "timestamp must be an ISO-8601 instant with a zone offset";
+        }
+        return null;
+    }
+
+    // Bounds the decompressed size, so a small gzip body cannot expand without limit
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) {
+            count += bytes;
+            if (count > limit) {
+                throw new TelemetryBatchTooLargeException("Batch body is limited to " + limit + " bytes");
+            }
+        }
+    }
+}
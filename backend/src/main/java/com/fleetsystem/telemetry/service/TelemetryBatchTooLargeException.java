@@ -0,0 +1,12 @@
+package com.fleetsystem.telemetry.service;
+
+/**
+ * Thrown when a batch ingest request has more messages or bytes than allowed.
+ * Controllers translate this into HTTP 413 so gateways split the replay.
+ */
+public class TelemetryBatchTooLargeException extends RuntimeException {
+
+    public TelemetryBatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,267 @@
+package com.fleetsystem.telemetry.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Owns the DDL of the telemetry history table: a parent table range-partitioned by UTC day,
+ * one child partition per day, and a default partition. Partitions for the coming
+ * {@code precreate-days} are created ahead of time; a sample for an older day within retention
+ * (a backfill or replay) has its day's partition created in the background, see
+ * {@link #ensurePartition}. Until then, and for samples dated further ahead, rows land in the
+ * default partition and are moved out when their day's partition is created. Retention drops
+ * whole partitions and deletes expired rows from the default partition.
+ */
+@Component
+public class TelemetryHistoryPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryHistoryPartitionManager.class);
+
+    private static final String TABLE = TelemetryHistoryRepository.TABLE;
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Days known to have a partition, so the append path only touches the catalog for a new day
+    private final Set<LocalDate> partitionDays = ConcurrentHashMap.newKeySet();
+    // Days handed to the DDL thread and not created yet
+    private final Set<LocalDate> pendingDays = ConcurrentHashMap.newKeySet();
+    private final Object ddlLock = new Object();
+    // DDL never runs on an ingest thread: its transaction may hold locks on the default partition
+    private final ScheduledExecutorService ddlExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "telemetry-history-ddl");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int retentionDays;
+    private final int precreateDays;
+
+    public TelemetryHistoryPartitionManager(JdbcTemplate jdbcTemplate,
+                                            @Value("${telemetry.history.retention-days:30}") int retentionDays,
+                                            @Value("${telemetry.history.precreate-days:3}") int precreateDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.precreateDays = precreateDays;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            createParentTable();
+            maintainPartitions();
+        } catch (Exception e) {
+            log.error("Failed to initialize telemetry history table: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ddlExecutor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${telemetry.history.maintenance-cron:0 5 0 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        synchronized (ddlLock) {
+            partitionDays.clear();
+            partitionDays.addAll(listPartitions().keySet());
+            for (int day = 0; day <= precreateDays; day++) {
+                if (createPartition(today.plusDays(day))) {
+                    partitionDays.add(today.plusDays(day));
+                }
+            }
+            dropExpiredPartitions(today.minusDays(retentionDays));
+        }
+    }
+
+    /**
+     * Called for the day of every sample before it is appended. A missing partition within
+     * retention is requested from the DDL thread; the sample is stored in the meantime.
+     *
+     * @return false if the day is past retention; such samples are not stored, as the next
+     *         maintenance run would drop them anyway
+     */
+    public boolean ensurePartition(LocalDate day) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (day.isBefore(today.minusDays(retentionDays))) {
+            return false;
+        }
+        // Far-future device clocks go to the default partition rather than creating tables for them
+        if (day.isAfter(today.plusDays(precreateDays)) || partitionDays.contains(day)) {
+            return true;
+        }
+        if (pendingDays.add(day)) {
+            ddlExecutor.execute(() -> createRequested(day));
+        }
+        return true;
+    }
+
+    private void createRequested(LocalDate day) {
+        synchronized (ddlLock) {
+            if (partitionDays.contains(day) || createPartition(day)) {
+                partitionDays.add(day);
+                pendingDays.remove(day);
+                return;
+            }
+        }
+        // Let a later sample for the day ask again
+        ddlExecutor.schedule(() -> pendingDays.remove(day), 1, TimeUnit.MINUTES);
+    }
+
+    private void createParentTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "id BIGSERIAL NOT NULL, " +
+                "vehicle_id VARCHAR(255) NOT NULL, " +
+                "telemetry_timestamp TIMESTAMPTZ NOT NULL, " +
+                "speed DOUBLE PRECISION, " +
+                "fuel_level DOUBLE PRECISION, " +
+                "engine_temp DOUBLE PRECISION, " +
+                "rpm DOUBLE PRECISION, " +
+                "tire_pressure DOUBLE PRECISION, " +
+                "status VARCHAR(64), " +
+                "PRIMARY KEY (id, telemetry_timestamp)" +
+                ") PARTITION BY RANGE (telemetry_timestamp)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + TABLE + "_vehicle_ts_idx ON " + TABLE +
+                " (vehicle_id, telemetry_timestamp DESC)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+    }
+
+    // false if the partition could not be created; the day's samples keep going to the default one
+    private boolean createPartition(LocalDate day) {
+        String name = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+        try {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+            if (!Boolean.TRUE.equals(exists)) {
+                createLocked(name, day);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to create telemetry history partition {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    // Postgres refuses a new partition while the default one holds rows for its range, so those
+    // rows are moved into a standalone table which is then attached. The default partition is
+    // locked before it is checked, so a sample committed meanwhile cannot make the DDL fail
+    private void createLocked(String name, LocalDate day) throws SQLException {
+        Timestamp from = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // Gives up, to retry later, rather than queue ingest behind a long-running transaction
+                statement.execute("SET LOCAL lock_timeout = '5s'");
+                statement.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+                int moved = 0;
+                try (PreparedStatement inDefault = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM " +
+                        DEFAULT_PARTITION + " WHERE telemetry_timestamp >= ? AND telemetry_timestamp < ?)")) {
+                    inDefault.setTimestamp(1, from);
+                    inDefault.setTimestamp(2, to);
+                    try (ResultSet rs = inDefault.executeQuery()) {
+                        rs.next();
+                        if (rs.getBoolean(1)) {
+                            moved = moveOutOfDefault(connection, name, from, to);
+                        }
+                    }
+                }
+                if (moved > 0) {
+                    statement.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + " " + bounds(day));
+                } else {
+                    statement.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE + " " + bounds(day));
+                }
+                connection.commit();
+                if (moved > 0) {
+                    log.info("Created telemetry history partition {} with {} rows moved from {}", name, moved, DEFAULT_PARTITION);
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static int moveOutOfDefault(Connection connection, String name, Timestamp from, Timestamp to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+        }
+        try (PreparedStatement move = connection.prepareStatement("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE telemetry_timestamp >= ? AND telemetry_timestamp < ? RETURNING *) " +
+                "INSERT INTO " + name + " SELECT * FROM moved")) {
+            move.setTimestamp(1, from);
+            move.setTimestamp(2, to);
+            return move.executeUpdate();
+        }
+    }
+
+    private static String bounds(LocalDate day) {
+        return "FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" + day.plusDays(1) + " 00:00:00+00')";
+    }
+
+    private void dropExpiredPartitions(LocalDate cutoff) {
+        for (Map.Entry<LocalDate, String> partition : listPartitions().entrySet()) {
+            if (partition.getKey().isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.getValue());
+                partitionDays.remove(partition.getKey());
+                log.info("Dropped expired telemetry history partition {}", partition.getValue());
+            }
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE telemetry_timestamp < ?",
+                Timestamp.from(cutoff.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        if (deleted > 0) {
+            log.info("Deleted {} expired telemetry history rows from {}", deleted, DEFAULT_PARTITION);
+        }
+    }
+
+    // Day partitions by day; the default partition and anything not named by day are left out.
+    // The parent is resolved through the search path, as every other statement here resolves it
+    private Map<LocalDate, String> listPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?)", String.class, TABLE);
+
+        Map<LocalDate, String> days = new HashMap<>();
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            try {
+                days.put(LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX), partition);
+            } catch (DateTimeParseException e) {
+                // not one of ours
+            }
+        }
+        return days;
+    }
+}
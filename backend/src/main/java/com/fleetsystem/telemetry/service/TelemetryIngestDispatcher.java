@@ -0,0 +1,225 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+/**
+ * Entry point for single telemetry samples (HTTP posts and NDJSON streams).
+ *
+ * {@link TelemetryService#processTelemetryUpdate} reads and replaces a vehicle's latest state, so
+ * two request threads carrying the same vehicle could apply its samples out of order. Samples are
+ * therefore hashed by vehicleId onto {@code lanes} single-threaded lanes: one vehicle's samples
+ * are applied one at a time in arrival order, and different vehicles spread over all lanes. Each
+ * lane holds at most {@code lane-capacity} samples; past that, dispatch is refused so callers can
+ * apply backpressure. A lane refused by the full write-behind buffer waits and retries the same
+ * sample, so its queue fills up instead of losing data.
+ *
+ * Lanes only queue when write-behind is on, where applying a sample is in-memory work. On the
+ * direct path the sample is written to the database on the caller's thread while it holds its
+ * lane's lock: one vehicle is still applied one sample at a time, and a failed write reaches the
+ * caller instead of being dropped after the request was answered.
+ */
+@Service
+public class TelemetryIngestDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryIngestDispatcher.class);
+
+    // Below the web server's stop phase (WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE
+    // - 1024): requests have drained before the lanes stop taking samples. Above the write-behind
+    // stage, so draining lanes can still hand off to it
+    static final int PHASE = TelemetryWriteBehindService.PHASE + 1;
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final TelemetryService telemetryService;
+    private final boolean enabled;
+    private final boolean queued;
+    private final int laneCapacity;
+    private final long retryDelayMs;
+    private final Lane[] lanes;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running;
+
+    public TelemetryIngestDispatcher(TelemetryService telemetryService,
+                                     @Value("${telemetry.ingest.lanes.enabled:true}") boolean enabled,
+                                     @Value("${telemetry.ingest.lanes.count:0}") int laneCount,
+                                     @Value("${telemetry.ingest.lanes.capacity:1000}") int laneCapacity,
+                                     @Value("${telemetry.ingest.lanes.retry-delay-ms:20}") long retryDelayMs,
+                                     @Value("${telemetry.write-behind.enabled:true}") boolean writeBehindEnabled) {
+        this.telemetryService = telemetryService;
+        this.enabled = enabled;
+        this.queued = enabled && writeBehindEnabled;
+        this.laneCapacity = laneCapacity;
+        this.retryDelayMs = retryDelayMs;
+        // 0 = one lane per core
+        int count = !enabled ? 0 : laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, laneCapacity);
+        }
+    }
+
+    /**
+     * Queues a sample on its vehicle's lane and returns; it is applied asynchronously. On the
+     * direct (non write-behind) path, or with lanes disabled, the sample is applied on the calling
+     * thread and any failure to write it is thrown from here.
+     *
+     * @throws TelemetryBackpressureException if the lane is full or the dispatcher is stopped
+     */
+    public void dispatch(TelemetryDto dto) {
+        if (dto.getVehicleId() == null) {
+            throw new IllegalArgumentException("Telemetry message has no vehicleId");
+        }
+        if (!enabled) {
+            telemetryService.processTelemetryUpdate(dto);
+            return;
+        }
+        if (!running) {
+            rejectedCount.incrementAndGet();
+            throw new TelemetryBackpressureException("Telemetry ingest is not accepting samples, retry later");
+        }
+        Lane lane = lanes[laneOf(dto.getVehicleId())];
+        if (!queued) {
+            synchronized (lane) {
+                telemetryService.processTelemetryUpdate(dto);
+            }
+            lane.processed.incrementAndGet();
+            return;
+        }
+        if (!lane.queue.offer(dto)) {
+            rejectedCount.incrementAndGet();
+            throw new TelemetryBackpressureException("Telemetry ingest lane " + lane.index + " is full, retry later");
+        }
+    }
+
+    // Spreads the hash so vehicle ids differing only in trailing characters still use every lane
+    private int laneOf(String vehicleId) {
+        int h = vehicleId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getLaneDepth(int lane) {
+        return lanes[lane].queue.size();
+    }
+
+    public long getLaneProcessedCount(int lane) {
+        return lanes[lane].processed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Samples that threw while a lane applied them. Lanes only queue in front of the write-behind
+    // buffer, so these are bugs in the in-memory path, not failed database writes
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private final class Lane implements Runnable {
+
+        private final int index;
+        private final ArrayBlockingQueue<TelemetryDto> queue;
+        private final AtomicLong processed = new AtomicLong();
+        private Thread thread;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        // Keeps draining after stop() until the queue is empty, so accepted samples are not lost
+        @Override
+        public void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    TelemetryDto dto = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (dto != null) {
+                        apply(dto);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void apply(TelemetryDto dto) throws InterruptedException {
+            while (true) {
+                try {
+                    telemetryService.processTelemetryUpdate(dto);
+                    processed.incrementAndGet();
+                    return;
+                } catch (TelemetryBackpressureException e) {
+                    // Later samples of this vehicle must wait behind this one, so hold the lane
+                    Thread.sleep(retryDelayMs);
+                } catch (RuntimeException e) {
+                    failedCount.incrementAndGet();
+                    log.error("Failed to apply telemetry for vehicle {} on lane {}", dto.getVehicleId(), index, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!queued) {
+            return;
+        }
+        for (Lane lane : lanes) {
+            lane.thread = new Thread(lane, "telemetry-lane-" + lane.index);
+            lane.thread.setDaemon(true);
+            lane.thread.start();
+        }
+        log.info("Telemetry ingest lanes started (lanes={}, capacity={})", lanes.length, laneCapacity);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (!queued) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int unprocessed = 0;
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (lane.thread.isAlive()) {
+                lane.thread.interrupt();
+            }
+            unprocessed += lane.queue.size();
+        }
+        log.info("Telemetry ingest lanes stopped, {} samples left unprocessed", unprocessed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,158 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.entity.VehicleTelemetryEntity;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.repository.VehicleTelemetryRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-process view of the latest telemetry per vehicle. Updated on ingest and warmed from
+ * the database at startup, so dashboard reads never touch Postgres.
+ *
+ * Every update bumps a global version, which read endpoints publish as an ETag. The full
+ * snapshot list is rebuilt at most once per version no matter how many clients poll.
+ * Each replacement is also handed to {@link FleetMetricsAggregator} to keep fleet KPIs current.
+ * A vehicle's entry only moves forward in time: an update whose timestamp is not newer than the
+ * held one is ignored, so a late or replayed sample cannot roll the latest state back.
+ */
+@Component
+public class TelemetryLatestStateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryLatestStateRegistry.class);
+
+    private final VehicleTelemetryRepository repository;
+    private final FleetMetricsAggregator fleetMetrics;
+    private final ConcurrentHashMap<String, TelemetryDto> latest = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot = new Snapshot(-1, List.of());
+
+    public TelemetryLatestStateRegistry(VehicleTelemetryRepository repository, FleetMetricsAggregator fleetMetrics) {
+        this.repository = repository;
+        this.fleetMetrics = fleetMetrics;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        try {
+            int loaded = 0;
+            for (VehicleTelemetryEntity entity : repository.findAll()) {
+                // Never overwrite an update that was ingested while warming up
+                if (putIfAbsent(TelemetryService.convertToDto(entity))) {
+                    loaded++;
+                }
+            }
+            version.incrementAndGet();
+            log.info("Latest telemetry registry warmed with {} vehicles", loaded);
+        } catch (Exception e) {
+            log.error("Failed to warm latest telemetry registry: {}", e.getMessage());
+        }
+    }
+
+    public void update(TelemetryDto dto) {
+        if (put(dto)) {
+            version.incrementAndGet();
+        }
+    }
+
+    public void updateAll(Collection<TelemetryDto> dtos) {
+        boolean changed = false;
+        for (TelemetryDto dto : dtos) {
+            changed |= put(dto);
+        }
+        if (changed) {
+            version.incrementAndGet();
+        }
+    }
+
+    // True if the vehicle already has a sample at or after this one's timestamp
+    public boolean isStale(TelemetryDto dto) {
+        TelemetryDto current = latest.get(dto.getVehicleId());
+        return current != null && !isNewer(dto, current);
+    }
+
+    /**
+     * Whether {@code candidate} is newer than {@code current}. A timestamp that does not parse
+     * gives no ordering, so the candidate counts as newer, as it did before timestamps were compared.
+     */
+    public static boolean isNewer(TelemetryDto candidate, TelemetryDto current) {
+        long candidateMillis = TelemetryHistoryRepository.tryParseEpochMillis(candidate.getTimestamp());
+        long currentMillis = TelemetryHistoryRepository.tryParseEpochMillis(current.getTimestamp());
+        return candidateMillis == Long.MIN_VALUE || currentMillis == Long.MIN_VALUE || candidateMillis > currentMillis;
+    }
+
+    public FleetMetricsAggregator.FleetMetrics getFleetMetrics() {
+        return fleetMetrics.snapshot();
+    }
+
+    // compute() runs under the key's lock, so the aggregator sees each vehicle's replacements in order
+    private boolean put(TelemetryDto dto) {
+        boolean[] replaced = new boolean[1];
+        latest.compute(dto.getVehicleId(), (vehicleId, previous) -> {
+            if (previous != null && !isNewer(dto, previous)) {
+                return previous;
+            }
+            fleetMetrics.replace(previous, dto);
+            replaced[0] = true;
+            return dto;
+        });
+        return replaced[0];
+    }
+
+    private boolean putIfAbsent(TelemetryDto dto) {
+        boolean[] added = new boolean[1];
+        latest.computeIfAbsent(dto.getVehicleId(), vehicleId -> {
+            fleetMetrics.replace(null, dto);
+            added[0] = true;
+            return dto;
+        });
+        return added[0];
+    }
+
+    public TelemetryDto get(String vehicleId) {
+        return latest.get(vehicleId);
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public List<TelemetryDto> getAll() {
+        Snapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current.version == currentVersion) {
+            return current.values;
+        }
+        // Read the version before copying so a concurrent update just causes another rebuild
+        List<TelemetryDto> values = Collections.unmodifiableList(new ArrayList<>(latest.values()));
+        snapshot = new Snapshot(currentVersion, values);
+        return values;
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<TelemetryDto> values;
+
+        private Snapshot(long version, List<TelemetryDto> values) {
+            this.version = version;
+            this.values = values;
+        }
+    }
+}
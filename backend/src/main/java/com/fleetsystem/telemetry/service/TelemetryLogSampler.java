@@ -0,0 +1,54 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limit for per-message ingest logs: each vehicle gets at most one log line per
+ * {@code sample-interval-ms}, carrying how many of its messages went unlogged since the last
+ * one. A sampled-out call is a map lookup and a volatile read. An interval of 0 or less logs
+ * every message.
+ */
+@Component
+public class TelemetryLogSampler {
+
+    private final long intervalMs;
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public TelemetryLogSampler(@Value("${telemetry.logging.sample-interval-ms:60000}") long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * @return the number of messages suppressed for this vehicle since its last log line if
+     *         this one should be logged, or -1 if it should be skipped
+     */
+    public long sample(String vehicleId) {
+        if (intervalMs <= 0) {
+            return 0;
+        }
+        if (vehicleId == null) {
+            return -1;
+        }
+        Slot slot = slots.get(vehicleId);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(vehicleId, id -> new Slot());
+        }
+        long now = System.currentTimeMillis();
+        long next = slot.nextAt.get();
+        // Only the caller that moves the window forward logs; the rest count as suppressed
+        if (now >= next && slot.nextAt.compareAndSet(next, now + intervalMs)) {
+            return slot.suppressed.getAndSet(0);
+        }
+        slot.suppressed.incrementAndGet();
+        return -1;
+    }
+
+    private static final class Slot {
+        private final AtomicLong nextAt = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
@@ -0,0 +1,149 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers and histograms of the ingest pipeline, exported on {@code /actuator/prometheus}:
+ * <ul>
+ *   <li>{@code telemetry.parse} - JSON payload to {@link TelemetryDto}</li>
+ *   <li>{@code telemetry.db.write} - one batched statement group, tag {@code table=latest|history}</li>
+ *   <li>{@code telemetry.ingest.latency} - sample timestamp to durable commit, tag {@code path=batch|write-behind|direct}</li>
+ *   <li>{@code telemetry.ingest.committed} - samples committed, including those without a usable timestamp</li>
+ *   <li>{@code telemetry.ingest.stale} - single samples dropped because the vehicle already had a newer one</li>
+ *   <li>{@code telemetry.kafka.batch} / {@code telemetry.kafka.batch.records} - consumer poll handling time and size</li>
+ *   <li>{@code telemetry.kafka.records.skipped} - unparseable records</li>
+ * </ul>
+ * Percentile histograms are switched on in {@code management.metrics.distribution}. Queue
+ * depths and other gauges live in {@link TelemetryPipelineMeterBinder}.
+ */
+@Component
+public class TelemetryMetrics {
+
+    private final Timer parse;
+    private final Timer latestWrite;
+    private final Timer historyWrite;
+    private final Timer batchLatency;
+    private final Timer writeBehindLatency;
+    private final Timer directLatency;
+    private final Counter batchCommitted;
+    private final Counter writeBehindCommitted;
+    private final Counter directCommitted;
+    private final Counter stale;
+    private final Timer kafkaBatch;
+    private final DistributionSummary kafkaBatchRecords;
+    private final Counter kafkaSkipped;
+
+    public TelemetryMetrics(MeterRegistry registry) {
+        parse = Timer.builder("telemetry.parse")
+                .description("Time to parse one telemetry payload")
+                .register(registry);
+        latestWrite = dbWrite(registry, "latest");
+        historyWrite = dbWrite(registry, "history");
+        batchLatency = ingestLatency(registry, "batch");
+        writeBehindLatency = ingestLatency(registry, "write-behind");
+        directLatency = ingestLatency(registry, "direct");
+        batchCommitted = ingestCommitted(registry, "batch");
+        writeBehindCommitted = ingestCommitted(registry, "write-behind");
+        directCommitted = ingestCommitted(registry, "direct");
+        stale = Counter.builder("telemetry.ingest.stale")
+                .description("Telemetry samples dropped because they were older than the vehicle's latest state")
+                .register(registry);
+        kafkaBatch = Timer.builder("telemetry.kafka.batch")
+                .description("Time to handle one Kafka poll, parse to acknowledge")
+                .register(registry);
+        kafkaBatchRecords = DistributionSummary.builder("telemetry.kafka.batch.records")
+                .description("Records per Kafka poll")
+                .baseUnit("records")
+                .register(registry);
+        kafkaSkipped = Counter.builder("telemetry.kafka.records.skipped")
+                .description("Kafka records dropped because they could not be parsed")
+                .register(registry);
+    }
+
+    public void recordParse(long startNanos) {
+        parse.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer latestWrite() {
+        return latestWrite;
+    }
+
+    public Timer historyWrite() {
+        return historyWrite;
+    }
+
+    public void recordStale() {
+        stale.increment();
+    }
+
+    public void recordKafkaBatch(long startNanos, int records, int skipped) {
+        kafkaBatch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        kafkaBatchRecords.record(records);
+        if (skipped > 0) {
+            kafkaSkipped.increment(skipped);
+        }
+    }
+
+    public void recordBatchCommitted(List<TelemetryDto> samples) {
+        batchCommitted.increment(samples.size());
+        recordLatency(batchLatency, samples);
+    }
+
+    public void recordWriteBehindCommitted(List<TelemetryDto> samples) {
+        writeBehindCommitted.increment(samples.size());
+        recordLatency(writeBehindLatency, samples);
+    }
+
+    public void recordDirectCommitted(TelemetryDto sample) {
+        directCommitted.increment();
+        recordLatency(directLatency, sample, System.currentTimeMillis());
+    }
+
+    private static void recordLatency(Timer timer, List<TelemetryDto> samples) {
+        long now = System.currentTimeMillis();
+        for (TelemetryDto sample : samples) {
+            recordLatency(timer, sample, now);
+        }
+    }
+
+    // Samples without a parseable timestamp say nothing about latency; clock skew that puts a
+    // sample in the future yields a negative amount, which Micrometer ignores
+    private static void recordLatency(Timer timer, TelemetryDto sample, long now) {
+        long sampledAt = TelemetryHistoryRepository.tryParseEpochMillis(sample.getTimestamp());
+        if (sampledAt != Long.MIN_VALUE) {
+            timer.record(now - sampledAt, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Timer dbWrite(MeterRegistry registry, String table) {
+        return Timer.builder("telemetry.db.write")
+                .description("Time to write one batch of telemetry rows")
+                .tag("table", table)
+                .register(registry);
+    }
+
+    private static Timer ingestLatency(MeterRegistry registry, String path) {
+        return Timer.builder("telemetry.ingest.latency")
+                .description("Time from a sample's own timestamp until it is committed to Postgres")
+                .tag("path", path)
+                .register(registry);
+    }
+
+    private static Counter ingestCommitted(MeterRegistry registry, String path) {
+        return Counter.builder("telemetry.ingest.committed")
+                .description("Telemetry samples committed to Postgres")
+                .tag("path", path)
+                .register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package com.fleetsystem.telemetry.service;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Queue depths and drop counters of the ingest pipeline, read from the services' own getters
+ * at scrape time. Write-behind pending against its capacity is the main saturation signal.
+ */
+@Component
+public class TelemetryPipelineMeterBinder implements MeterBinder {
+
+    private final TelemetryWriteBehindService writeBehindService;
+    private final TelemetryLatestStateRegistry latestStateRegistry;
+    private final TelemetryPushService pushService;
+    private final TelemetryRollupService rollupService;
+    private final TelemetryAnomalyDetector anomalyDetector;
+    private final TelemetryStreamIngestService streamIngestService;
+    private final TelemetryIngestDispatcher ingestDispatcher;
+
+    public TelemetryPipelineMeterBinder(TelemetryWriteBehindService writeBehindService,
+                                        TelemetryLatestStateRegistry latestStateRegistry,
+                                        TelemetryPushService pushService,
+                                        TelemetryRollupService rollupService,
+                                        TelemetryAnomalyDetector anomalyDetector,
+                                        TelemetryStreamIngestService streamIngestService,
+                                        TelemetryIngestDispatcher ingestDispatcher) {
+        this.writeBehindService = writeBehindService;
+        this.latestStateRegistry = latestStateRegistry;
+        this.pushService = pushService;
+        this.rollupService = rollupService;
+        this.anomalyDetector = anomalyDetector;
+        this.streamIngestService = streamIngestService;
+        this.ingestDispatcher = ingestDispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // One series per lane; a lane far deeper than the rest means a few vehicles dominate it
+        for (int lane = 0; lane < ingestDispatcher.getLaneCount(); lane++) {
+            int index = lane;
+            Gauge.builder("telemetry.ingest.lane.depth", ingestDispatcher, d -> d.getLaneDepth(index))
+                    .description("Samples queued on an ingest lane")
+                    .tags("lane", Integer.toString(lane))
+                    .register(registry);
+            FunctionCounter.builder("telemetry.ingest.lane.processed", ingestDispatcher, d -> d.getLaneProcessedCount(index))
+                    .description("Samples handled by an ingest lane, stale ones included")
+                    .tags("lane", Integer.toString(lane))
+                    .register(registry);
+        }
+        FunctionCounter.builder("telemetry.ingest.lane.rejected", ingestDispatcher, TelemetryIngestDispatcher::getRejectedCount)
+                .description("Samples refused because their ingest lane was full")
+                .register(registry);
+        FunctionCounter.builder("telemetry.ingest.lane.failed", ingestDispatcher, TelemetryIngestDispatcher::getFailedCount)
+                .description("Samples that failed while an ingest lane applied them")
+                .register(registry);
+
+        Gauge.builder("telemetry.write.behind.pending", writeBehindService, TelemetryWriteBehindService::getPendingCount)
+                .description("Vehicles with a latest-state update waiting to be flushed")
+                .tags("queue", "latest")
+                .register(registry);
+        Gauge.builder("telemetry.write.behind.pending", writeBehindService, TelemetryWriteBehindService::getPendingHistoryCount)
+                .description("Samples waiting to be appended to history")
+                .tags("queue", "history")
+                .register(registry);
+        FunctionCounter.builder("telemetry.write.behind.rejected", writeBehindService, TelemetryWriteBehindService::getRejectedCount)
+                .description("Updates refused because the write-behind buffer was full")
+                .register(registry);
+        FunctionCounter.builder("telemetry.write.behind.dropped", writeBehindService, TelemetryWriteBehindService::getDroppedHistoryCount)
+                .description("History samples lost after a failed append")
+                .register(registry);
+
+        Gauge.builder("telemetry.latest.vehicles", latestStateRegistry, TelemetryLatestStateRegistry::size)
+                .description("Vehicles held in the in-memory latest-state registry")
+                .register(registry);
+        Gauge.builder("telemetry.push.subscriptions", pushService, TelemetryPushService::getSubscriptionCount)
+                .description("Open WebSocket telemetry subscriptions")
+                .register(registry);
+        FunctionCounter.builder("telemetry.push.conflated", pushService, TelemetryPushService::getConflatedCount)
+                .description("Push updates superseded before they were sent")
+                .register(registry);
+
+        Gauge.builder("telemetry.rollup.vehicles", rollupService, TelemetryRollupService::getTrackedVehicleCount)
+                .description("Vehicles with in-memory rollup rings")
+                .register(registry);
+        FunctionCounter.builder("telemetry.rollup.dropped", rollupService, TelemetryRollupService::getDroppedLateCount)
+                .description("Samples too old for any rollup ring")
+                .tags("reason", "late")
+                .register(registry);
+        FunctionCounter.builder("telemetry.rollup.dropped", rollupService, TelemetryRollupService::getEvictedUnflushedCount)
+                .description("Rollup samples recycled before they were flushed")
+                .tags("reason", "unflushed")
+                .register(registry);
+
+        Gauge.builder("telemetry.anomaly.active", anomalyDetector, TelemetryAnomalyDetector::getActiveAlertCount)
+                .description("Currently raised anomaly alerts")
+                .register(registry);
+
+        Gauge.builder("telemetry.stream.open", streamIngestService, TelemetryStreamIngestService::getOpenStreamCount)
+                .description("Open NDJSON ingest streams")
+                .register(registry);
+        FunctionCounter.builder("telemetry.stream.paused", streamIngestService, TelemetryStreamIngestService::getPausedCount)
+                .description("Times an ingest stream stopped reading because an ingest lane was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,313 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes telemetry deltas to STOMP subscribers of
+ * <ul>
+ *   <li>{@code /topic/telemetry} - every vehicle</li>
+ *   <li>{@code /topic/telemetry/vehicle/{vehicleId}} - one vehicle</li>
+ *   <li>{@code /topic/telemetry/status/{state}} - vehicles whose status.state matches</li>
+ * </ul>
+ *
+ * Updates are conflated per subscription: ingest only overwrites the subscription's pending
+ * entry for the vehicle, and a ticker sends whatever is pending at most once per
+ * {@code max-rate-ms} (a client may ask for a slower rate with a {@code max-rate-ms}
+ * SUBSCRIBE header). While a subscriber's previous frame is still being written to its
+ * socket no new frame is sent, so stale updates for slow consumers are replaced rather than
+ * queued and ingestion never waits on a socket.
+ *
+ * A vehicle whose state changes is offered once more to the subscriptions of its previous
+ * state: that frame carries the new state, so those views can drop the vehicle, and it replaces
+ * any update still pending there under the old state.
+ */
+@Service
+public class TelemetryPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryPushService.class);
+
+    public static final String TOPIC_ALL = "/topic/telemetry";
+    private static final String TOPIC_VEHICLE_PREFIX = TOPIC_ALL + "/vehicle/";
+    private static final String TOPIC_STATUS_PREFIX = TOPIC_ALL + "/status/";
+    private static final String MAX_RATE_HEADER = "max-rate-ms";
+
+    private final MessageChannel clientOutboundChannel;
+    private final ObjectMapper objectMapper;
+    private final long minIntervalMs;
+    private final long tickMs;
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final List<Subscription> allVehicles = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Subscription>> byVehicle = new ConcurrentHashMap<>();
+    private final Map<String, List<Subscription>> byStatus = new ConcurrentHashMap<>();
+    // State of each vehicle's last published sample, to notice it leaving a status topic
+    private final Map<String, String> lastState = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    public TelemetryPushService(@Qualifier("clientOutboundChannel") @Lazy MessageChannel clientOutboundChannel,
+                                ObjectMapper objectMapper,
+                                @Value("${telemetry.push.max-rate-ms:500}") long minIntervalMs,
+                                @Value("${telemetry.push.tick-ms:50}") long tickMs) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.objectMapper = objectMapper;
+        this.minIntervalMs = minIntervalMs;
+        this.tickMs = tickMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "telemetry-push");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    // Called on the ingest path; must stay cheap and never block
+    public void publish(TelemetryDto dto) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : allVehicles) {
+            subscription.offer(dto);
+        }
+        offerAll(byVehicle.get(dto.getVehicleId()), dto);
+        String state = state(dto);
+        if (state != null) {
+            offerAll(byStatus.get(state), dto);
+        }
+        String previous = state != null ? lastState.put(dto.getVehicleId(), state) : lastState.remove(dto.getVehicleId());
+        if (previous != null && !previous.equals(state)) {
+            offerAll(byStatus.get(previous), dto);
+        }
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    // Updates replaced in a subscription's pending set before they could be sent
+    public long getConflatedCount() {
+        long total = 0;
+        for (Subscription subscription : subscriptions.values()) {
+            total += subscription.conflated.get();
+        }
+        return total;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        if (destination == null || sessionId == null || subscriptionId == null || !destination.startsWith(TOPIC_ALL)) {
+            return;
+        }
+
+        Subscription subscription = new Subscription(sessionId, subscriptionId, destination,
+                requestedInterval(accessor.getFirstNativeHeader(MAX_RATE_HEADER)));
+        if (destination.equals(TOPIC_ALL)) {
+            allVehicles.add(subscription);
+        } else if (destination.startsWith(TOPIC_VEHICLE_PREFIX)) {
+            subscription.index = byVehicle;
+            subscription.indexKey = destination.substring(TOPIC_VEHICLE_PREFIX.length());
+        } else if (destination.startsWith(TOPIC_STATUS_PREFIX)) {
+            subscription.index = byStatus;
+            subscription.indexKey = destination.substring(TOPIC_STATUS_PREFIX.length()).toUpperCase(Locale.ROOT);
+        } else {
+            return;
+        }
+        if (subscription.index != null) {
+            subscription.index.computeIfAbsent(subscription.indexKey, k -> new CopyOnWriteArrayList<>()).add(subscription);
+        }
+        subscriptions.put(key(sessionId, subscriptionId), subscription);
+        log.debug("Telemetry push subscription {} on {} every {} ms", subscriptionId, destination, subscription.intervalMs);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        remove(subscriptions.remove(key(accessor.getSessionId(), accessor.getSubscriptionId())));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + ":";
+        Iterator<Map.Entry<String, Subscription>> it = subscriptions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Subscription> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                it.remove();
+                remove(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Invoked once the outbound channel has handed a frame to the session, so the
+     * subscription may receive its next frame.
+     */
+    public void onFrameHandled(Message<?> message) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE) {
+            return;
+        }
+        Subscription subscription = subscriptions.get(key(accessor.getSessionId(), accessor.getSubscriptionId()));
+        if (subscription != null) {
+            subscription.inFlight.set(false);
+        }
+    }
+
+    void tick() {
+        long now = System.currentTimeMillis();
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.pending.isEmpty() || now < subscription.nextDueAt) {
+                continue;
+            }
+            if (!subscription.inFlight.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                send(subscription, subscription.drain());
+                subscription.nextDueAt = now + subscription.intervalMs;
+            } catch (Exception e) {
+                subscription.inFlight.set(false);
+                log.warn("Failed to push telemetry to session {}: {}", subscription.sessionId, e.getMessage());
+            }
+        }
+    }
+
+    private void send(Subscription subscription, List<TelemetryDto> delta) throws Exception {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(subscription.sessionId);
+        accessor.setSubscriptionId(subscription.subscriptionId);
+        accessor.setDestination(subscription.destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        byte[] payload = objectMapper.writeValueAsBytes(delta);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private long requestedInterval(String header) {
+        if (header != null) {
+            try {
+                return Math.max(minIntervalMs, Long.parseLong(header.trim()));
+            } catch (NumberFormatException e) {
+                // fall back to the default rate
+            }
+        }
+        return minIntervalMs;
+    }
+
+    private void remove(Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        allVehicles.remove(subscription);
+        if (subscription.index != null) {
+            List<Subscription> indexed = subscription.index.get(subscription.indexKey);
+            if (indexed != null) {
+                indexed.remove(subscription);
+            }
+        }
+    }
+
+    private static void offerAll(List<Subscription> list, TelemetryDto dto) {
+        if (list != null) {
+            for (Subscription subscription : list) {
+                subscription.offer(dto);
+            }
+        }
+    }
+
+    private static String key(String sessionId, String subscriptionId) {
+        return sessionId + ":" + subscriptionId;
+    }
+
+    private static String state(TelemetryDto dto) {
+        Map<String, Object> status = dto.getStatus();
+        Object state = status != null ? status.get("state") : null;
+        return state != null ? state.toString().toUpperCase(Locale.ROOT) : null;
+    }
+
+    private static final class Subscription {
+        private final String sessionId;
+        private final String subscriptionId;
+        private final String destination;
+        private final long intervalMs;
+        private final ConcurrentHashMap<String, TelemetryDto> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private final AtomicLong conflated = new AtomicLong();
+        private volatile long nextDueAt;
+        private Map<String, List<Subscription>> index;
+        private String indexKey;
+
+        private Subscription(String sessionId, String subscriptionId, String destination, long intervalMs) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.destination = destination;
+            this.intervalMs = intervalMs;
+        }
+
+        private void offer(TelemetryDto dto) {
+            if (pending.put(dto.getVehicleId(), dto) != null) {
+                conflated.incrementAndGet();
+            }
+        }
+
+        private List<TelemetryDto> drain() {
+            List<TelemetryDto> delta = new ArrayList<>(pending.size());
+            for (String vehicleId : pending.keySet()) {
+                TelemetryDto dto = pending.remove(vehicleId);
+                if (dto != null) {
+                    delta.add(dto);
+                }
+            }
+            return delta;
+        }
+    }
+}
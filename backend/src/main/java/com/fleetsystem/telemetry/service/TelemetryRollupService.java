@@ -0,0 +1,187 @@
+package com.fleetsystem.telemetry.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fleetsystem.telemetry.dto.RollupBucket;
+import com.fleetsystem.telemetry.dto.RollupPoint;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.repository.TelemetryRollupRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-vehicle 1m/5m/1h rollups of the numeric signals, fed by every ingested sample.
+ *
+ * Recent buckets live in {@link VehicleRollups} rings; every {@code flush-interval-ms} their
+ * unflushed deltas are merged into {@code telemetry_rollup}. Series reads combine the table
+ * with what has not been flushed yet, so charts never scan raw history rows.
+ */
+@Service
+public class TelemetryRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryRollupService.class);
+
+    public static final int MAX_SERIES_POINTS = 5000;
+
+    private final TelemetryRollupRepository repository;
+    private final int retentionDays;
+
+    private final ConcurrentHashMap<String, VehicleRollups> rollups = new ConcurrentHashMap<>();
+    private final AtomicLong droppedLate = new AtomicLong();
+    private final AtomicLong evictedUnflushed = new AtomicLong();
+
+    public TelemetryRollupService(TelemetryRollupRepository repository,
+                                  @Value("${telemetry.rollup.retention-days:90}") int retentionDays) {
+        this.repository = repository;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            repository.createTable();
+        } catch (Exception e) {
+            log.error("Failed to initialize telemetry rollup table: {}", e.getMessage());
+        }
+    }
+
+    public void record(TelemetryDto dto) {
+        if (dto.getSignals() == null) {
+            return;
+        }
+        long timestamp = TelemetryHistoryRepository.parseEpochMillis(dto.getTimestamp());
+        double[] values = new double[RollupBucket.SIGNALS.size()];
+        RollupBucket.read(dto.getSignals(), values);
+        // compute() keeps a concurrent eviction of this vehicle from swallowing the sample
+        rollups.compute(dto.getVehicleId(), (vehicleId, vehicle) -> {
+            VehicleRollups target = vehicle != null ? vehicle : new VehicleRollups();
+            int dropped = target.add(timestamp, values);
+            if (dropped > 0) {
+                droppedLate.addAndGet(dropped);
+            }
+            return target;
+        });
+    }
+
+    public void recordAll(List<TelemetryDto> samples) {
+        for (TelemetryDto dto : samples) {
+            record(dto);
+        }
+    }
+
+    /**
+     * Buckets of one vehicle in [from, to), oldest first, at most {@link #MAX_SERIES_POINTS}.
+     */
+    public List<RollupPoint> getSeries(String vehicleId, RollupResolution resolution, Instant from, Instant to) {
+        Map<Long, RollupBucket> buckets = new TreeMap<>();
+        for (RollupBucket bucket : repository.findSeries(vehicleId, resolution, from, to, MAX_SERIES_POINTS)) {
+            buckets.put(bucket.getBucketStart(), bucket);
+        }
+        VehicleRollups vehicle = rollups.get(vehicleId);
+        if (vehicle != null) {
+            List<RollupBucket> unflushed = new ArrayList<>();
+            vehicle.collectUnflushed(resolution, from.toEpochMilli(), to.toEpochMilli(), unflushed);
+            for (RollupBucket delta : unflushed) {
+                buckets.merge(delta.getBucketStart(), delta, (stored, pending) -> {
+                    stored.merge(pending);
+                    return stored;
+                });
+            }
+        }
+        List<RollupPoint> points = new ArrayList<>(Math.min(buckets.size(), MAX_SERIES_POINTS));
+        for (RollupBucket bucket : buckets.values()) {
+            if (points.size() == MAX_SERIES_POINTS) {
+                break;
+            }
+            points.add(bucket.toPoint());
+        }
+        return points;
+    }
+
+    @Scheduled(fixedDelayString = "${telemetry.rollup.flush-interval-ms:30000}",
+               initialDelayString = "${telemetry.rollup.flush-interval-ms:30000}")
+    public void flush() {
+        List<VehicleRollups.Delta> deltas = new ArrayList<>();
+        List<TelemetryRollupRepository.RollupRow> rows = new ArrayList<>();
+        long evicted = 0;
+        for (Map.Entry<String, VehicleRollups> entry : rollups.entrySet()) {
+            entry.getValue().collectDirty(entry.getKey(), deltas);
+            evicted += entry.getValue().takeEvictedUnflushed();
+        }
+        if (evicted > 0) {
+            evictedUnflushed.addAndGet(evicted);
+            log.warn("{} rollup samples were recycled before they could be flushed", evicted);
+        }
+        if (!deltas.isEmpty()) {
+            for (VehicleRollups.Delta delta : deltas) {
+                rows.add(delta.row);
+            }
+            try {
+                repository.mergeDeltas(rows);
+            } catch (Exception e) {
+                // Deltas stay unflushed and are retried next time, until their slot is recycled
+                log.error("Failed to flush {} telemetry rollup buckets: {}", rows.size(), e.getMessage());
+                return;
+            }
+            for (VehicleRollups.Delta delta : deltas) {
+                VehicleRollups vehicle = rollups.get(delta.row.vehicleId());
+                if (vehicle != null) {
+                    vehicle.markFlushed(delta);
+                }
+            }
+        }
+        evictIdle();
+    }
+
+    @Scheduled(cron = "${telemetry.history.maintenance-cron:0 5 0 * * *}", zone = "UTC")
+    public void deleteExpired() {
+        try {
+            int deleted = repository.deleteOlderThan(Instant.now().minus(Duration.ofDays(retentionDays)));
+            log.info("Deleted {} telemetry rollup rows older than {} days", deleted, retentionDays);
+        } catch (Exception e) {
+            log.error("Failed to delete expired telemetry rollups: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getTrackedVehicleCount() {
+        return rollups.size();
+    }
+
+    public long getDroppedLateCount() {
+        return droppedLate.get();
+    }
+
+    public long getEvictedUnflushedCount() {
+        return evictedUnflushed.get();
+    }
+
+    // Vehicles quiet for longer than the widest ring, with everything flushed, free their rings
+    private void evictIdle() {
+        RollupResolution widest = RollupResolution.HOUR;
+        long cutoff = System.currentTimeMillis() - widest.getWidthMillis() * widest.getSlots();
+        for (String vehicleId : rollups.keySet()) {
+            rollups.computeIfPresent(vehicleId, (id, vehicle) -> vehicle.isIdle(cutoff) ? null : vehicle);
+        }
+    }
+}
@@ -1,14 +1,32 @@
 package com.fleetsystem.telemetry.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fleetsystem.telemetry.Event.TelemetryEvent;
+import com.fleetsystem.telemetry.dto.RollupPoint;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+import com.fleetsystem.telemetry.dto.TelemetryAlert;
 import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
 import com.fleetsystem.telemetry.entity.VehicleTelemetryEntity;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.repository.VehicleTelemetryJdbcRepository;
 import com.fleetsystem.telemetry.repository.VehicleTelemetryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,28 +34,85 @@ public class TelemetryService {
 
     private static final Logger log = LoggerFactory.getLogger(TelemetryService.class);
     private final VehicleTelemetryRepository repository;
+    private final VehicleTelemetryJdbcRepository jdbcRepository;
+    private final TelemetryHistoryRepository historyRepository;
+    private final TelemetryWriteBehindService writeBehindService;
+    private final TelemetryLatestStateRegistry latestStateRegistry;
+    private final TelemetryPushService pushService;
+    private final TelemetryRollupService rollupService;
+    private final TelemetryAnomalyDetector anomalyDetector;
+    private final TelemetryMetrics metrics;
+    private final TransactionTemplate transaction;
+    private final boolean writeBehindEnabled;
+    // Immutable and thread-safe; built once from the application's ObjectMapper
+    private final ObjectReader telemetryReader;
 
-    public TelemetryService(VehicleTelemetryRepository repository) {
+    public TelemetryService(VehicleTelemetryRepository repository,
+                            VehicleTelemetryJdbcRepository jdbcRepository,
+                            TelemetryHistoryRepository historyRepository,
+                            TelemetryWriteBehindService writeBehindService,
+                            TelemetryLatestStateRegistry latestStateRegistry,
+                            TelemetryPushService pushService,
+                            TelemetryRollupService rollupService,
+                            TelemetryAnomalyDetector anomalyDetector,
+                            TelemetryMetrics metrics,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${telemetry.write-behind.enabled:true}") boolean writeBehindEnabled) {
         this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.historyRepository = historyRepository;
+        this.writeBehindService = writeBehindService;
+        this.latestStateRegistry = latestStateRegistry;
+        this.pushService = pushService;
+        this.rollupService = rollupService;
+        this.anomalyDetector = anomalyDetector;
+        this.metrics = metrics;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.telemetryReader = objectMapper.readerFor(TelemetryDto.class);
     }
 
-    public void processTelemetryUpdate(TelemetryDto dto) {
-        log.info("Processing telemetry update for vehicle: {}", dto.getVehicleId());
-
-        VehicleTelemetryEntity v = repository.findByVehicleId(dto.getVehicleId());
-
-        if (v == null) {
-            v = new VehicleTelemetryEntity();
+    /**
+     * Applies one sample. Not safe to call concurrently for the same vehicle; single samples
+     * come through {@link TelemetryIngestDispatcher}, which serializes each vehicle on a lane.
+     *
+     * @return false if the sample was dropped because the vehicle already has a newer one
+     */
+    public boolean processTelemetryUpdate(TelemetryDto dto) {
+        if (latestStateRegistry.isStale(dto)) {
+            metrics.recordStale();
+            log.debug("Dropping stale telemetry for vehicle {} at {}", dto.getVehicleId(), dto.getTimestamp());
+            return false;
+        }
+        if (writeBehindEnabled) {
+            if (!writeBehindService.offer(dto)) {
+                throw new TelemetryBackpressureException("Telemetry write buffer is full, retry later");
+            }
+            latestStateRegistry.update(dto);
+            rollupService.record(dto);
+            anomalyDetector.observe(dto);
+            pushService.publish(dto);
+            return true;
         }
 
-        v.setVehicleId(dto.getVehicleId());
-        v.setTimestamp(dto.getTimestamp());
-        v.setSpecs(dto.getSpecs());
-        v.setSignals(dto.getSignals());
-        v.setStatus(dto.getStatus());
+        log.debug("Processing telemetry update for vehicle: {}", dto.getVehicleId());
 
-        repository.save(v);
-        log.info("Telemetry data saved for vehicle: {}", dto.getVehicleId());
+        // One guarded upsert instead of loading the entity and letting Hibernate merge it. It commits
+        // together with the history row, as in processTelemetryBatch, and in-memory state follows only
+        // once both are durable
+        List<TelemetryDto> latest = List.of(dto);
+        transaction.executeWithoutResult(status -> {
+            metrics.latestWrite().record(() -> jdbcRepository.upsertLatest(latest));
+            metrics.historyWrite().record(() -> historyRepository.append(latest));
+        });
+        metrics.recordDirectCommitted(dto);
+        latestStateRegistry.update(dto);
+        rollupService.record(dto);
+        anomalyDetector.observe(dto);
+        pushService.publish(dto);
+        log.debug("Telemetry data saved for vehicle: {}", dto.getVehicleId());
+        return true;
     }
 
     // New method for telemetry controller
@@ -46,43 +121,153 @@ public class TelemetryService {
     }
     
     // Method to process JSON telemetry messages (used by HTTP endpoint and Kafka consumer)
-    public void processTelemetryMessage(String telemetryJson) {
+    public void processTelemetryMessage(byte[] telemetryJson) {
+        processTelemetryUpdate(parseTelemetryMessage(telemetryJson));
+    }
+
+    // Parses straight from the request body bytes, without decoding them to a String first
+    public TelemetryDto parseTelemetryMessage(byte[] telemetryJson) {
+        return parseTelemetryMessage(telemetryJson, 0, telemetryJson.length);
+    }
+
+    // One message inside a larger buffer, e.g. a line of an NDJSON stream. Failures log at debug only:
+    // every caller reports them itself, and a bad gateway must not turn its stream into an ERROR per line
+    public TelemetryDto parseTelemetryMessage(byte[] buffer, int offset, int length) {
+        long start = System.nanoTime();
+        try {
+            return requireVehicleId(telemetryReader.readValue(buffer, offset, length));
+        } catch (Exception e) {
+            log.debug("Error parsing telemetry JSON: {}", e.getMessage());
+            throw new RuntimeException("Failed to parse telemetry data", e);
+        } finally {
+            metrics.recordParse(start);
+        }
+    }
+
+    public TelemetryDto parseTelemetryMessage(String telemetryJson) {
+        long start = System.nanoTime();
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            TelemetryDto dto = objectMapper.readValue(telemetryJson, TelemetryDto.class);
-            processTelemetryUpdate(dto);
+            return requireVehicleId(telemetryReader.readValue(telemetryJson));
         } catch (Exception e) {
-            log.error("Error parsing telemetry JSON: {}", e.getMessage(), e);
+            log.debug("Error parsing telemetry JSON: {}", e.getMessage());
             throw new RuntimeException("Failed to parse telemetry data", e);
+        } finally {
+            metrics.recordParse(start);
+        }
+    }
+
+    private static TelemetryDto requireVehicleId(TelemetryDto dto) {
+        if (dto.getVehicleId() == null) {
+            throw new IllegalArgumentException("Telemetry message has no vehicleId");
+        }
+        return dto;
+    }
+
+    // Persists a whole batch in one transaction, bypassing the write-behind buffer so that
+    // callers (e.g. the Kafka consumer) know the data is durable when this returns
+    @Transactional
+    public int processTelemetryBatch(List<TelemetryDto> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Keep only the newest update per vehicle; on equal timestamps the later record wins
+        Map<String, TelemetryDto> latest = new LinkedHashMap<>();
+        for (TelemetryDto dto : batch) {
+            latest.merge(dto.getVehicleId(), dto, TelemetryService::newest);
+        }
+        List<TelemetryDto> coalesced = new ArrayList<>(latest.values());
+        metrics.latestWrite().record(() -> jdbcRepository.upsertLatest(coalesced));
+        metrics.historyWrite().record(() -> historyRepository.append(batch));
+        afterCommit(batch, coalesced);
+        return coalesced.size();
+    }
+
+    private static TelemetryDto newest(TelemetryDto current, TelemetryDto candidate) {
+        long currentMillis = TelemetryHistoryRepository.tryParseEpochMillis(current.getTimestamp());
+        long candidateMillis = TelemetryHistoryRepository.tryParseEpochMillis(candidate.getTimestamp());
+        return currentMillis != Long.MIN_VALUE && candidateMillis != Long.MIN_VALUE && currentMillis > candidateMillis
+                ? current : candidate;
+    }
+
+    // The commit happens after this method returns through the proxy. Ingest latency runs to it,
+    // and in-memory state (latest registry, ETags, fleet KPIs, rollups, alerts, pushed frames)
+    // only shows what it made durable: a rolled-back batch is redelivered and applied then, once
+    private void afterCommit(List<TelemetryDto> batch, List<TelemetryDto> coalesced) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyCommitted(batch, coalesced);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyCommitted(batch, coalesced);
+            }
+        });
+    }
+
+    private void applyCommitted(List<TelemetryDto> batch, List<TelemetryDto> coalesced) {
+        metrics.recordBatchCommitted(batch);
+        latestStateRegistry.updateAll(coalesced);
+        // Rollups and anomaly detection see every sample, not just the newest per vehicle
+        rollupService.recordAll(batch);
+        anomalyDetector.observeAll(batch);
+        for (TelemetryDto dto : coalesced) {
+            pushService.publish(dto);
+        }
+    }
+
+    public List<TelemetryEvent> getTelemetryHistory(String vehicleId, Instant from, Instant to, int limit) {
+        return historyRepository.findByVehicle(vehicleId, from, to, limit);
     }
 
     public List<TelemetryDto> getAllTelemetryData() {
         List<VehicleTelemetryEntity> entities = repository.findAll();
         return entities.stream()
-                .map(this::convertToDto)
+                .map(TelemetryService::convertToDto)
                 .collect(Collectors.toList());
     }
 
     public List<TelemetryDto> getTelemetryByVehicleId(String vehicleId) {
-        VehicleTelemetryEntity entity = repository.findByVehicleId(vehicleId);
-        if (entity != null) {
-            return List.of(convertToDto(entity));
-        }
-        return List.of();
+        TelemetryDto dto = latestStateRegistry.get(vehicleId);
+        return dto != null ? List.of(dto) : List.of();
     }
 
     public List<TelemetryDto> getLatestTelemetryData() {
-        // For now, return all data. In production, this would be optimized to get latest per vehicle
-        return getAllTelemetryData();
+        return latestStateRegistry.getAll();
+    }
+
+    public TelemetryDto getLatestTelemetry(String vehicleId) {
+        return latestStateRegistry.get(vehicleId);
+    }
+
+    // Maintained incrementally on ingest; never scans vehicles or the database
+    public FleetMetricsAggregator.FleetMetrics getFleetMetrics() {
+        return latestStateRegistry.getFleetMetrics();
+    }
+
+    public List<RollupPoint> getVehicleSeries(String vehicleId, RollupResolution resolution, Instant from, Instant to) {
+        return rollupService.getSeries(vehicleId, resolution, from, to);
+    }
+
+    public List<TelemetryAlert> getActiveAlerts(String vehicleId) {
+        return anomalyDetector.getActiveAlerts(vehicleId);
+    }
+
+    public List<TelemetryAlert> getRecentAlerts(String vehicleId, int limit) {
+        return anomalyDetector.getRecentAlerts(vehicleId, limit);
+    }
+
+    // Changes whenever any vehicle's latest telemetry changes; used as the ETag of read endpoints
+    public long getLatestTelemetryVersion() {
+        return latestStateRegistry.getVersion();
     }
 
-    private TelemetryDto convertToDto(VehicleTelemetryEntity entity) {
+    public static TelemetryDto convertToDto(VehicleTelemetryEntity entity) {
         TelemetryDto dto = new TelemetryDto();
         dto.setVehicleId(entity.getVehicleId());
         dto.setTimestamp(entity.getTimestamp());
         dto.setSpecs(entity.getSpecs());
-        dto.setSignals(entity.getSignals());
+        dto.setSignals(TelemetrySignals.fromMap(entity.getSignals()));
         dto.setStatus(entity.getStatus());
         return dto;
     }
@@ -0,0 +1,405 @@
+package com.fleetsystem.telemetry.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Ingest of NDJSON streams: one telemetry message per line, many vehicles per connection, for
+ * gateways that keep a request open instead of posting each sample.
+ *
+ * The body is read with servlet non-blocking I/O, so an idle stream holds no thread. Each
+ * complete line is parsed as soon as it arrives and handed to {@link TelemetryIngestDispatcher}.
+ * Reading is demand-driven: when the vehicle's ingest lane refuses a sample, the stream stops
+ * reading and retries that sample after {@code retry-delay-ms}, leaving the rest in the socket
+ * so TCP flow control slows the sender down. Nothing is dropped for backpressure. Malformed or oversized
+ * lines are counted and skipped. When the body ends the response carries a summary.
+ */
+@Service
+public class TelemetryStreamIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryStreamIngestService.class);
+
+    private static final int READ_CHUNK_BYTES = 8192;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final TelemetryService telemetryService;
+    private final TelemetryIngestDispatcher ingestDispatcher;
+    private final TelemetryLogSampler logSampler;
+    private final ObjectMapper objectMapper;
+    private final int maxLineBytes;
+    private final long retryDelayMs;
+    private final long timeoutMs;
+
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final AtomicLong pausedCount = new AtomicLong();
+
+    private ScheduledExecutorService resumer;
+
+    public TelemetryStreamIngestService(TelemetryService telemetryService,
+                                        TelemetryIngestDispatcher ingestDispatcher,
+                                        TelemetryLogSampler logSampler,
+                                        ObjectMapper objectMapper,
+                                        @Value("${telemetry.stream.max-line-bytes:65536}") int maxLineBytes,
+                                        @Value("${telemetry.stream.retry-delay-ms:50}") long retryDelayMs,
+                                        @Value("${telemetry.stream.timeout-ms:0}") long timeoutMs) {
+        this.telemetryService = telemetryService;
+        this.ingestDispatcher = ingestDispatcher;
+        this.logSampler = logSampler;
+        this.objectMapper = objectMapper;
+        this.maxLineBytes = maxLineBytes;
+        this.retryDelayMs = retryDelayMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        resumer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "telemetry-stream-resume");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (resumer != null) {
+            resumer.shutdownNow();
+        }
+    }
+
+    /**
+     * Switches the request to async mode and starts reading its body; returns immediately.
+     * The response is written once the client ends the body.
+     */
+    public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AsyncContext context = request.startAsync(request, response);
+        // 0 keeps gateway connections open for as long as they keep sending
+        context.setTimeout(timeoutMs);
+        NdjsonStream stream = new NdjsonStream(context, request.getInputStream());
+        context.addListener(stream);
+        openStreams.incrementAndGet();
+        stream.input.setReadListener(stream);
+    }
+
+    public int getOpenStreamCount() {
+        return openStreams.get();
+    }
+
+    // Times a stream stopped reading because an ingest lane was full
+    public long getPausedCount() {
+        return pausedCount.get();
+    }
+
+    /**
+     * State of one request body. Container callbacks and resumes from the scheduler are
+     * serialized on the instance; a paused stream has no read outstanding, so the container
+     * does not call back until it is resumed and reads again.
+     */
+    private final class NdjsonStream implements ReadListener, AsyncListener {
+
+        private final AsyncContext context;
+        private final ServletInputStream input;
+
+        private final byte[] chunk = new byte[READ_CHUNK_BYTES];
+        private int chunkPos;
+        private int chunkLen;
+        // Start of a line whose end has not arrived yet
+        private byte[] partial = new byte[1024];
+        private int partialLen;
+        private boolean discarding;
+
+        private TelemetryDto blocked;
+        private boolean paused;
+        private boolean endOfInput;
+        private boolean finished;
+
+        private long lines;
+        private long accepted;
+        private long failed;
+        private long pauses;
+        private final List<String> errors = new ArrayList<>();
+
+        NdjsonStream(AsyncContext context, ServletInputStream input) {
+            this.context = context;
+            this.input = input;
+        }
+
+        @Override
+        public synchronized void onDataAvailable() throws IOException {
+            if (!paused) {
+                pump();
+            }
+        }
+
+        @Override
+        public synchronized void onAllDataRead() throws IOException {
+            endOfInput = true;
+            if (!paused) {
+                pump();
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable t) {
+            abort(t);
+        }
+
+        @Override
+        public synchronized void onTimeout(AsyncEvent event) {
+            abort(new IOException("stream timed out after " + timeoutMs + " ms"));
+        }
+
+        @Override
+        public synchronized void onError(AsyncEvent event) {
+            abort(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private synchronized void resume() {
+            if (finished) {
+                return;
+            }
+            paused = false;
+            try {
+                pump();
+            } catch (IOException | RuntimeException e) {
+                abort(e);
+            }
+        }
+
+        // Drains what is buffered, then reads while the container has data without blocking
+        private void pump() throws IOException {
+            while (!finished) {
+                if (!drain()) {
+                    return;
+                }
+                if (endOfInput) {
+                    if (partialLen > 0 && !discarding) {
+                        // Last line without a trailing newline
+                        blocked = parseLine(partial, 0, partialLen);
+                        partialLen = 0;
+                        if (blocked != null) {
+                            continue;
+                        }
+                    }
+                    finish();
+                    return;
+                }
+                if (input.isFinished()) {
+                    endOfInput = true;
+                    continue;
+                }
+                if (!input.isReady()) {
+                    // The container calls onDataAvailable or onAllDataRead when there is more
+                    return;
+                }
+                int read = input.read(chunk);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    chunkPos = 0;
+                    chunkLen = read;
+                }
+            }
+        }
+
+        // @return false if the stream paused on a full ingest lane
+        private boolean drain() {
+            if (blocked != null) {
+                if (!submit(blocked)) {
+                    return pause();
+                }
+                blocked = null;
+            }
+            while (chunkPos < chunkLen) {
+                int newline = indexOf(chunk, (byte) '\n', chunkPos, chunkLen);
+                if (newline < 0) {
+                    append(chunkPos, chunkLen);
+                    chunkPos = chunkLen;
+                    return true;
+                }
+                TelemetryDto dto;
+                if (discarding) {
+                    discarding = false;
+                    dto = null;
+                } else if (partialLen == 0) {
+                    dto = parseLine(chunk, chunkPos, newline - chunkPos);
+                } else {
+                    append(chunkPos, newline);
+                    dto = discarding ? null : parseLine(partial, 0, partialLen);
+                    discarding = false;
+                }
+                partialLen = 0;
+                chunkPos = newline + 1;
+                if (dto != null && !submit(dto)) {
+                    blocked = dto;
+                    return pause();
+                }
+            }
+            return true;
+        }
+
+        private boolean pause() {
+            paused = true;
+            pauses++;
+            pausedCount.incrementAndGet();
+            resumer.schedule(this::resume, retryDelayMs, TimeUnit.MILLISECONDS);
+            return false;
+        }
+
+        private boolean submit(TelemetryDto dto) {
+            try {
+                ingestDispatcher.dispatch(dto);
+            } catch (TelemetryBackpressureException e) {
+                return false;
+            } catch (RuntimeException e) {
+                // Only on the direct (non write-behind) path, which writes on this thread; skip the sample
+                failed++;
+                error("vehicle " + dto.getVehicleId() + ": " + e.getMessage());
+                return true;
+            }
+            accepted++;
+            long suppressed = logSampler.sample(dto.getVehicleId());
+            if (suppressed >= 0) {
+                log.info("Received telemetry via stream for vehicle {} ({} more since last logged)", dto.getVehicleId(), suppressed);
+            }
+            return true;
+        }
+
+        private TelemetryDto parseLine(byte[] buffer, int from, int length) {
+            int end = from + length;
+            while (end > from && isWhitespace(buffer[end - 1])) {
+                end--;
+            }
+            while (from < end && isWhitespace(buffer[from])) {
+                from++;
+            }
+            if (from == end) {
+                return null;
+            }
+            lines++;
+            try {
+                return telemetryService.parseTelemetryMessage(buffer, from, end - from);
+            } catch (RuntimeException e) {
+                failed++;
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                error("line " + lines + ": " + cause.getMessage());
+                return null;
+            }
+        }
+
+        private void append(int from, int to) {
+            if (discarding) {
+                return;
+            }
+            int length = to - from;
+            if (partialLen + length > maxLineBytes) {
+                // Skip the rest of this line; it counts as one failed line
+                discarding = true;
+                partialLen = 0;
+                lines++;
+                failed++;
+                error("line " + lines + ": longer than " + maxLineBytes + " bytes");
+                return;
+            }
+            if (partialLen + length > partial.length) {
+                partial = Arrays.copyOf(partial, Math.min(maxLineBytes, Math.max(partial.length * 2, partialLen + length)));
+            }
+            System.arraycopy(chunk, from, partial, partialLen, length);
+            partialLen += length;
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            openStreams.decrementAndGet();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("success", failed == 0);
+            summary.put("lines", lines);
+            summary.put("accepted", accepted);
+            summary.put("failed", failed);
+            summary.put("pauses", pauses);
+            summary.put("errors", errors);
+            HttpServletResponse response = (HttpServletResponse) context.getResponse();
+            try {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), summary);
+            } catch (IOException e) {
+                log.warn("Could not write telemetry stream summary: {}", e.getMessage());
+            } finally {
+                context.complete();
+            }
+            log.debug("Telemetry stream ended: {} lines, {} accepted, {} failed, {} pauses", lines, accepted, failed, pauses);
+        }
+
+        private void abort(Throwable t) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            openStreams.decrementAndGet();
+            // Samples accepted before this point stay accepted; the client decides what to resend
+            log.warn("Telemetry stream aborted after {} lines ({} accepted): {}",
+                    lines, accepted, t != null ? t.getMessage() : "unknown error");
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -0,0 +1,261 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.repository.VehicleTelemetryJdbcRepository;
+
+/**
+ * Write-behind stage for telemetry updates.
+ *
+ * Pending latest-state updates are coalesced per vehicleId so only the newest one is
+ * written, and flushed as a JDBC batch upsert when either {@code batch-size} vehicles are
+ * pending or {@code flush-interval-ms} has elapsed. Every sample is also queued, uncoalesced,
+ * for the history table and appended on the same trigger. The pending map is bounded by
+ * {@code capacity} distinct vehicles and the history queue by {@code history-capacity}
+ * samples; once either is full, updates are rejected so callers can apply backpressure.
+ */
+@Service
+public class TelemetryWriteBehindService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryWriteBehindService.class);
+
+    // Below the web server's graceful-shutdown (and, 1024 lower, its stop) phase: requests have
+    // drained and the stages that feed this buffer have stopped before its final flush
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final VehicleTelemetryJdbcRepository jdbcRepository;
+    private final TelemetryHistoryRepository historyRepository;
+    private final TelemetryMetrics metrics;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final ConcurrentHashMap<String, TelemetryDto> pending = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<TelemetryDto> history;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong droppedHistoryCount = new AtomicLong();
+    // offer() holds the read side across its running check and enqueue; stop() takes the write
+    // side to flip running, so no offer can land after the final flush
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+
+    private volatile ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public TelemetryWriteBehindService(VehicleTelemetryJdbcRepository jdbcRepository,
+                                       TelemetryHistoryRepository historyRepository,
+                                       TelemetryMetrics metrics,
+                                       @Value("${telemetry.write-behind.capacity:10000}") int capacity,
+                                       @Value("${telemetry.write-behind.history-capacity:50000}") int historyCapacity,
+                                       @Value("${telemetry.write-behind.batch-size:500}") int batchSize,
+                                       @Value("${telemetry.write-behind.flush-interval-ms:250}") long flushIntervalMs) {
+        this.jdbcRepository = jdbcRepository;
+        this.historyRepository = historyRepository;
+        this.metrics = metrics;
+        this.history = new ArrayBlockingQueue<>(historyCapacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * Queues an update, replacing any pending update for the same vehicle.
+     *
+     * @return false if the buffer is full or not running and the update was not accepted
+     */
+    public boolean offer(TelemetryDto dto) {
+        lifecycleLock.readLock().lock();
+        try {
+            if (!running) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            // Soft bound: concurrent producers may overshoot capacity by at most their own count
+            if (pending.size() >= capacity && !pending.containsKey(dto.getVehicleId())) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (!history.offer(dto)) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            pending.put(dto.getVehicleId(), dto);
+
+            if ((pending.size() >= batchSize || history.size() >= batchSize)
+                    && flushScheduled.compareAndSet(false, true)) {
+                flusher.execute(this::flushFromTrigger);
+            }
+            return true;
+        } finally {
+            lifecycleLock.readLock().unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getPendingHistoryCount() {
+        return history.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+
+    public long getDroppedHistoryCount() {
+        return droppedHistoryCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void flushFromTrigger() {
+        flushScheduled.set(false);
+        flush();
+    }
+
+    // Only ever invoked from the single flusher thread, or from stop() after it has terminated
+    void flush() {
+        flushHistory();
+        flushLatest();
+    }
+
+    private void flushHistory() {
+        while (!history.isEmpty()) {
+            List<TelemetryDto> batch = new ArrayList<>(Math.min(batchSize, history.size()));
+            history.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                appendedCount.addAndGet(metrics.historyWrite().recordCallable(() -> historyRepository.append(batch)));
+                metrics.recordWriteBehindCommitted(batch);
+            } catch (Exception e) {
+                log.error("Failed to append {} telemetry history samples, re-queueing: {}", batch.size(), e.getMessage());
+                for (TelemetryDto dto : batch) {
+                    if (!history.offer(dto)) {
+                        droppedHistoryCount.incrementAndGet();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void flushLatest() {
+        while (!pending.isEmpty()) {
+            List<TelemetryDto> batch = drain(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                metrics.latestWrite().record(() -> jdbcRepository.upsertLatest(batch));
+                flushedCount.addAndGet(batch.size());
+            } catch (Exception e) {
+                log.error("Failed to flush {} telemetry updates, re-queueing: {}", batch.size(), e.getMessage());
+                // A newer update that arrived meanwhile takes precedence over the failed one
+                for (TelemetryDto dto : batch) {
+                    pending.putIfAbsent(dto.getVehicleId(), dto);
+                }
+                return;
+            }
+        }
+    }
+
+    private List<TelemetryDto> drain(int max) {
+        List<TelemetryDto> batch = new ArrayList<>(Math.min(max, pending.size()));
+        Iterator<Map.Entry<String, TelemetryDto>> it = pending.entrySet().iterator();
+        while (it.hasNext() && batch.size() < max) {
+            String vehicleId = it.next().getKey();
+            // remove(key) is atomic, so an update racing with the drain lands in the next flush
+            TelemetryDto dto = pending.remove(vehicleId);
+            if (dto != null) {
+                batch.add(dto);
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "telemetry-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Telemetry write-behind started (capacity={}, batchSize={}, flushIntervalMs={})",
+                capacity, batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        // Waits for offers in progress; every accepted sample is in the buffer once this returns
+        lifecycleLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+        ScheduledExecutorService executor = flusher;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Telemetry write-behind flusher did not terminate in time");
+                    executor.shutdownNow();
+                    executor.awaitTermination(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Final drain on this thread, once the flusher can no longer run
+        if (executor == null || executor.isTerminated()) {
+            flush();
+        }
+        log.info("Telemetry write-behind stopped, {} updates and {} history samples left unflushed",
+                pending.size(), history.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
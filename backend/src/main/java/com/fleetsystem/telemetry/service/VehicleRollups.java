@@ -0,0 +1,227 @@
+package com.fleetsystem.telemetry.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fleetsystem.telemetry.dto.RollupBucket;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+import com.fleetsystem.telemetry.repository.TelemetryRollupRepository;
+
+/**
+ * One vehicle's rollup rings, one per {@link RollupResolution}, held in primitive arrays
+ * indexed by {@code slot * SIGNALS + signal}. A bucket maps to slot
+ * {@code (start / width) mod slots}; a sample for a newer bucket recycles the slot, a sample
+ * for a bucket that has already been recycled is dropped.
+ *
+ * Alongside the running aggregates each slot remembers how much of it has been flushed, so a
+ * flush writes only the delta and the table can merge it with what other flushes (from before
+ * a restart, or from other instances) already wrote. All methods lock the instance.
+ */
+final class VehicleRollups {
+
+    private static final int SIGNALS = RollupBucket.SIGNALS.size();
+    private static final RollupResolution[] RESOLUTIONS = RollupResolution.values();
+
+    private final Ring[] rings = new Ring[RESOLUTIONS.length];
+    private long newestSampleAt = Long.MIN_VALUE;
+
+    VehicleRollups() {
+        for (int r = 0; r < rings.length; r++) {
+            rings[r] = new Ring(RESOLUTIONS[r]);
+        }
+    }
+
+    /**
+     * @return number of resolutions whose bucket for this sample had already been recycled
+     */
+    synchronized int add(long timestamp, double[] values) {
+        newestSampleAt = Math.max(newestSampleAt, timestamp);
+        int dropped = 0;
+        for (Ring ring : rings) {
+            if (!ring.add(timestamp, values)) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    // Unflushed part of every dirty slot
+    synchronized void collectDirty(String vehicleId, List<Delta> out) {
+        for (Ring ring : rings) {
+            for (int slot = 0; slot < ring.slots; slot++) {
+                if (ring.samples[slot] != ring.flushedSamples[slot]) {
+                    out.add(ring.delta(vehicleId, slot));
+                }
+            }
+        }
+    }
+
+    synchronized void markFlushed(Delta delta) {
+        rings[delta.row.resolution().ordinal()].markFlushed(delta);
+    }
+
+    // Unflushed deltas of the buckets in [from, to), to be merged over rows read from the table
+    synchronized void collectUnflushed(RollupResolution resolution, long from, long to, List<RollupBucket> out) {
+        Ring ring = rings[resolution.ordinal()];
+        for (int slot = 0; slot < ring.slots; slot++) {
+            long start = ring.start[slot];
+            if (start >= from && start < to && ring.samples[slot] != ring.flushedSamples[slot]) {
+                out.add(ring.delta(null, slot).row.bucket());
+            }
+        }
+    }
+
+    // True once every slot is flushed and no sample arrived since the cutoff
+    synchronized boolean isIdle(long cutoff) {
+        if (newestSampleAt >= cutoff) {
+            return false;
+        }
+        for (Ring ring : rings) {
+            for (int slot = 0; slot < ring.slots; slot++) {
+                if (ring.samples[slot] != ring.flushedSamples[slot]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Counts of lost data; only read and reset by the flusher
+    synchronized long takeEvictedUnflushed() {
+        long evicted = 0;
+        for (Ring ring : rings) {
+            evicted += ring.evictedUnflushed;
+            ring.evictedUnflushed = 0;
+        }
+        return evicted;
+    }
+
+    static final class Delta {
+        final TelemetryRollupRepository.RollupRow row;
+        final int slot;
+        final int samples;
+
+        private Delta(TelemetryRollupRepository.RollupRow row, int slot, int samples) {
+            this.row = row;
+            this.slot = slot;
+            this.samples = samples;
+        }
+    }
+
+    private static final class Ring {
+        private final RollupResolution resolution;
+        private final int slots;
+        private final long[] start;
+        private final long[] lastAt;
+        private final int[] samples;
+        private final int[] flushedSamples;
+        private final int[] count;
+        private final int[] flushedCount;
+        private final double[] min;
+        private final double[] max;
+        private final double[] sum;
+        private final double[] flushedSum;
+        private final double[] last;
+        private long evictedUnflushed;
+
+        Ring(RollupResolution resolution) {
+            this.resolution = resolution;
+            this.slots = resolution.getSlots();
+            this.start = new long[slots];
+            this.lastAt = new long[slots];
+            this.samples = new int[slots];
+            this.flushedSamples = new int[slots];
+            this.count = new int[slots * SIGNALS];
+            this.flushedCount = new int[slots * SIGNALS];
+            this.min = new double[slots * SIGNALS];
+            this.max = new double[slots * SIGNALS];
+            this.sum = new double[slots * SIGNALS];
+            this.flushedSum = new double[slots * SIGNALS];
+            this.last = new double[slots * SIGNALS];
+            Arrays.fill(start, Long.MIN_VALUE);
+        }
+
+        boolean add(long timestamp, double[] values) {
+            long bucketStart = resolution.bucketStart(timestamp);
+            int slot = (int) Math.floorMod(bucketStart / resolution.getWidthMillis(), (long) slots);
+            if (start[slot] != bucketStart) {
+                if (start[slot] > bucketStart) {
+                    return false;
+                }
+                reset(slot, bucketStart);
+            }
+            boolean newest = samples[slot] == 0 || timestamp >= lastAt[slot];
+            if (newest) {
+                lastAt[slot] = timestamp;
+            }
+            samples[slot]++;
+            int base = slot * SIGNALS;
+            for (int i = 0; i < SIGNALS; i++) {
+                double value = values[i];
+                // Absent, or a reading like 1e999 that parsed as infinity: either would poison the sum
+                if (!Double.isFinite(value)) {
+                    continue;
+                }
+                int at = base + i;
+                if (count[at] == 0) {
+                    min[at] = value;
+                    max[at] = value;
+                    last[at] = value;
+                } else {
+                    min[at] = Math.min(min[at], value);
+                    max[at] = Math.max(max[at], value);
+                    if (newest) {
+                        last[at] = value;
+                    }
+                }
+                count[at]++;
+                sum[at] += value;
+            }
+            return true;
+        }
+
+        Delta delta(String vehicleId, int slot) {
+            RollupBucket bucket = new RollupBucket(start[slot], lastAt[slot]);
+            int base = slot * SIGNALS;
+            for (int i = 0; i < SIGNALS; i++) {
+                int at = base + i;
+                int unflushed = count[at] - flushedCount[at];
+                if (unflushed > 0) {
+                    // Min, max and last cover the whole bucket; merging them again is harmless
+                    bucket.set(i, unflushed, min[at], max[at], sum[at] - flushedSum[at], last[at]);
+                }
+            }
+            return new Delta(new TelemetryRollupRepository.RollupRow(vehicleId, resolution, bucket), slot, samples[slot]);
+        }
+
+        void markFlushed(Delta delta) {
+            int slot = delta.slot;
+            // The slot may have moved on to a newer bucket since the delta was taken
+            RollupBucket bucket = delta.row.bucket();
+            if (start[slot] != bucket.getBucketStart()) {
+                return;
+            }
+            flushedSamples[slot] = delta.samples;
+            int base = slot * SIGNALS;
+            for (int i = 0; i < SIGNALS; i++) {
+                flushedCount[base + i] += bucket.getCount(i);
+                flushedSum[base + i] += bucket.getSum(i);
+            }
+        }
+
+        private void reset(int slot, long bucketStart) {
+            if (samples[slot] != flushedSamples[slot]) {
+                evictedUnflushed += samples[slot] - flushedSamples[slot];
+            }
+            start[slot] = bucketStart;
+            lastAt[slot] = 0;
+            samples[slot] = 0;
+            flushedSamples[slot] = 0;
+            int base = slot * SIGNALS;
+            Arrays.fill(count, base, base + SIGNALS, 0);
+            Arrays.fill(flushedCount, base, base + SIGNALS, 0);
+            Arrays.fill(sum, base, base + SIGNALS, 0);
+            Arrays.fill(flushedSum, base, base + SIGNALS, 0);
+        }
+    }
+}
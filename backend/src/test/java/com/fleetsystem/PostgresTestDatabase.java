@@ -0,0 +1,75 @@
+package com.fleetsystem;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A throwaway schema in the Postgres named by the application's {@code DB_*} environment
+ * variables (defaults as in application.yml), for tests of hand-written SQL. Connections made
+ * through {@link #jdbcTemplate()} resolve unqualified table names in that schema; it is dropped
+ * on {@link #close()}. Tests using it are skipped when the database cannot be reached.
+ */
+public final class PostgresTestDatabase implements AutoCloseable {
+
+    private final String schema;
+    private final DriverManagerDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private PostgresTestDatabase(String schema, DriverManagerDataSource dataSource) {
+        this.schema = schema;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static PostgresTestDatabase createOrSkip() {
+        String url = "jdbc:postgresql://" + env("DB_HOST", "localhost") + ":" + env("DB_PORT", "5434") + "/"
+                + env("DB_NAME", "fleetdb") + "?connectTimeout=2";
+        String user = env("DB_USER", "umeshreddy");
+        String password = env("DB_PASSWORD", "");
+        String schema = "test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toLowerCase(Locale.ROOT);
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+        } catch (SQLException e) {
+            Assumptions.abort("Postgres not available at " + url + ": " + e.getMessage());
+        }
+        return new PostgresTestDatabase(schema, new DriverManagerDataSource(url + "&currentSchema=" + schema, user, password));
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    // Transactions on the connections jdbcTemplate() uses
+    public DataSourceTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    // Stands in for @Transactional(readOnly = true), which needs a Spring proxy; the template's
+    // statements inside it share one connection, so Postgres honours their fetch size
+    public TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager());
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
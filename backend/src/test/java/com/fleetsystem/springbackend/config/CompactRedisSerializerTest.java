@@ -0,0 +1,81 @@
+package com.fleetsystem.springbackend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(1024);
+    private final GenericJackson2JsonRedisSerializer json = CompactRedisSerializer.jsonSerializer();
+
+    @Test
+    void roundTripsCachedTypesInBothFormats() {
+        VehicleEntity vehicle = new VehicleEntity();
+        vehicle.setVehicleId("V-1");
+        vehicle.setDriverName("Ada");
+        vehicle.setCreatedAt(Instant.parse("2024-05-01T10:15:30Z"));
+
+        TelemetrySignals signals = new TelemetrySignals();
+        signals.set(TelemetrySignals.RPM, 1800L);
+        TelemetryDto telemetry = new TelemetryDto();
+        telemetry.setVehicleId("V-1");
+        telemetry.setSignals(signals);
+        telemetry.setStatus(Map.of("alerts", List.of("low_fuel"), "code", 7));
+
+        for (Object value : List.of(vehicle, telemetry, "plain", 42)) {
+            assertThat(compact.deserialize(compact.serialize(value))).usingRecursiveComparison()
+                    .withComparatorForType(Double::compare, Double.class).isEqualTo(value);
+            assertThat(compact.deserialize(json.serialize(value))).usingRecursiveComparison()
+                    .withComparatorForType(Double::compare, Double.class).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void refusesToWriteTypesOutsideTheAllowList() {
+        assertThatThrownBy(() -> compact.serialize(new AtomicLong(1)))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("not an allowed cache value type");
+    }
+
+    @Test
+    void rejectsCompactValueNamingTypeOutsideTheAllowList() throws Exception {
+        byte[] className = ProcessBuilder.class.getName().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {CompactRedisSerializer.MAGIC, CompactRedisSerializer.FORMAT_VERSION, 0, 0});
+        out.write(className.length >>> 8);
+        out.write(className.length);
+        out.write(className);
+        out.write(new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of("command", List.of("true"))));
+
+        assertThatThrownBy(() -> compact.deserialize(out.toByteArray()))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining(ProcessBuilder.class.getName());
+    }
+
+    @Test
+    void rejectsJsonTypeIdOutsideTheAllowList() {
+        byte[] top = "{\"@class\":\"java.lang.ProcessBuilder\",\"command\":[\"true\"]}".getBytes(StandardCharsets.UTF_8);
+        byte[] nested = ("{\"@class\":\"java.util.LinkedHashMap\",\"cmd\":{\"@class\":\"java.lang.ProcessBuilder\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> compact.deserialize(top)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> compact.deserialize(nested)).isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.fleetsystem.springbackend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.PostgresTestDatabase;
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+
+class VehicleJdbcRepositoryTest {
+
+    // The vehicles table as Hibernate creates it from VehicleEntity
+    private static final String CREATE_VEHICLES = "CREATE TABLE vehicles (" +
+            "vehicle_id VARCHAR(255) PRIMARY KEY, " +
+            "created_at TIMESTAMPTZ, " +
+            "driver_name VARCHAR(255) NOT NULL, " +
+            "engine_health VARCHAR(255), " +
+            "engine_temp DOUBLE PRECISION, " +
+            "fuel_level DOUBLE PRECISION, " +
+            "gps_id VARCHAR(255) NOT NULL UNIQUE, " +
+            "iot_device_id VARCHAR(255) NOT NULL UNIQUE, " +
+            "location VARCHAR(255), " +
+            "make VARCHAR(255) NOT NULL, " +
+            "model VARCHAR(255) NOT NULL, " +
+            "registration_number VARCHAR(255) NOT NULL UNIQUE, " +
+            "rpm INTEGER, " +
+            "speed DOUBLE PRECISION, " +
+            "status VARCHAR(255) NOT NULL, " +
+            "tire_pressure DOUBLE PRECISION, " +
+            "updated_at TIMESTAMPTZ, " +
+            "year INTEGER NOT NULL)";
+
+    private static PostgresTestDatabase database;
+    private static VehicleJdbcRepository repository;
+
+    @BeforeAll
+    static void createTable() {
+        database = PostgresTestDatabase.createOrSkip();
+        database.jdbcTemplate().execute(CREATE_VEHICLES);
+        repository = new VehicleJdbcRepository(database.jdbcTemplate());
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        database.jdbcTemplate().execute("TRUNCATE vehicles");
+        repository.insertSkippingConflicts(List.of(vehicle("V-1", "G-1", "I-1", "R-1")));
+    }
+
+    @Test
+    void insertsNewRowsAndSkipsRowsConflictingWithTheTableOrTheChunk() {
+        Set<String> inserted = repository.insertSkippingConflicts(List.of(
+                vehicle("V-2", "G-2", "I-2", "R-2"),
+                vehicle("V-1", "G-9", "I-9", "R-9"),   // existing vehicleId
+                vehicle("V-3", "G-1", "I-3", "R-3"),   // existing gpsId
+                vehicle("V-4", "G-4", "I-1", "R-4"),   // existing iotDeviceId
+                vehicle("V-5", "G-5", "I-5", "R-1"),   // existing registrationNumber
+                vehicle("V-6", "G-6", "I-6", "R-6"),
+                vehicle("V-6", "G-7", "I-7", "R-7"),   // vehicleId earlier in the chunk
+                vehicle("V-8", "G-2", "I-8", "R-8")));  // gpsId earlier in the chunk
+
+        assertThat(inserted).containsExactlyInAnyOrder("V-2", "V-6");
+        assertThat(database.jdbcTemplate().queryForList("SELECT gps_id FROM vehicles ORDER BY vehicle_id", String.class))
+                .containsExactly("G-1", "G-2", "G-6");
+    }
+
+    @Test
+    void insertsAFullChunkInOneStatement() {
+        List<VehicleEntity> chunk = new ArrayList<>();
+        for (int i = 0; i < repository.maxRowsPerStatement(); i++) {
+            chunk.add(vehicle("B-" + i, "BG-" + i, "BI-" + i, "BR-" + i));
+        }
+
+        assertThat(repository.insertSkippingConflicts(chunk)).hasSize(repository.maxRowsPerStatement());
+        chunk.add(vehicle("B-x", "BG-x", "BI-x", "BR-x"));
+        assertThatThrownBy(() -> repository.insertSkippingConflicts(chunk)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findsTakenValuesOfEveryUniqueColumnInOneQuery() {
+        repository.insertSkippingConflicts(List.of(vehicle("V-2", "G-2", "I-2", "R-2")));
+
+        Map<String, Set<String>> taken = repository.findTakenValues(List.of(
+                vehicle("V-3", "G-1", "I-3", "R-3"),
+                vehicle("V-4", "G-4", "I-4", "R-2"),
+                vehicle("V-5", "G-5", "I-5", "R-5")));
+
+        assertThat(taken.keySet()).containsExactly("vehicleId", "gpsId", "iotDeviceId", "registrationNumber");
+        assertThat(taken.get("vehicleId")).containsExactlyInAnyOrder("V-1", "V-2");
+        assertThat(taken.get("gpsId")).containsExactlyInAnyOrder("G-1", "G-2");
+        assertThat(taken.get("registrationNumber")).containsExactlyInAnyOrder("R-1", "R-2");
+    }
+
+    @Test
+    void exportsEveryVehicleInIdOrderThroughACursor() {
+        List<VehicleEntity> chunk = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            chunk.add(vehicle(String.format("E-%04d", i), "EG-" + i, "EI-" + i, "ER-" + i));
+            if (chunk.size() == repository.maxRowsPerStatement()) {
+                repository.insertSkippingConflicts(chunk);
+                chunk.clear();
+            }
+        }
+        VehicleEntity detailed = vehicle("V-2", "G-2", "I-2", "R-2");
+        detailed.setCreatedAt(Instant.parse("2024-05-01T10:15:30Z"));
+        detailed.setUpdatedAt(Instant.parse("2024-05-02T08:00:00Z"));
+        repository.insertSkippingConflicts(List.of(detailed));
+        database.jdbcTemplate().update("UPDATE vehicles SET fuel_level = 61.5, rpm = 1400 WHERE vehicle_id = 'V-2'");
+
+        List<Object[]> rows = new ArrayList<>();
+        database.readOnlyTransaction().executeWithoutResult(status -> repository.forEachVehicle(rows::add));
+
+        assertThat(rows).hasSize(2502);
+        assertThat(rows.get(0)[0]).isEqualTo("E-0000");
+        assertThat(rows.get(2499)[0]).isEqualTo("E-2499");
+        Map<String, Object> last = new LinkedHashMap<>();
+        for (int i = 0; i < VehicleJdbcRepository.EXPORT_FIELDS.size(); i++) {
+            last.put(VehicleJdbcRepository.EXPORT_FIELDS.get(i), rows.get(2501)[i]);
+        }
+        assertThat(last)
+                .containsEntry("vehicleId", "V-2")
+                .containsEntry("gpsId", "G-2")
+                .containsEntry("registrationNumber", "R-2")
+                .containsEntry("year", 2022)
+                .containsEntry("createdAt", "2024-05-01T10:15:30Z")
+                .containsEntry("updatedAt", "2024-05-02T08:00:00Z")
+                .containsEntry("fuelLevel", 61.5)
+                .containsEntry("rpm", 1400)
+                .containsEntry("speed", null);
+    }
+
+    private static VehicleEntity vehicle(String vehicleId, String gpsId, String iotDeviceId, String registrationNumber) {
+        return new VehicleEntity(vehicleId, gpsId, iotDeviceId, "Driver " + vehicleId, registrationNumber, "Scania", "R450", 2022);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fleetsystem.springbackend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fleetsystem.springbackend.repository.VehicleJdbcRepository;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.service.TelemetryService;
+
+class BulkTransferServiceTest {
+
+    private final VehicleService vehicleService = mock(VehicleService.class);
+    private final BulkTransferService service = new BulkTransferService(vehicleService, mock(VehicleJdbcRepository.class),
+            mock(TelemetryService.class), mock(TelemetryHistoryRepository.class), Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void refusesASpecificationsOnlyCsvBeforeWritingAnything() throws IOException {
+        try (InputStream specs = Files.newInputStream(Path.of("../simulator/fleet_specifications.csv"))) {
+            assertThatThrownBy(() -> service.importVehicles(specs, BulkTransferService.Format.CSV))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("CSV has no gpsId, iotDeviceId, driverName, registrationNumber column(s)");
+        }
+        verifyNoInteractions(vehicleService);
+    }
+
+    @Test
+    void importsACsvWithEveryRequiredColumnInSnakeCase() throws IOException {
+        when(vehicleService.importVehicles(anyList())).thenReturn(new VehicleService.ImportResult(1, List.of()));
+        String csv = "vehicle_id,gps_id,iot_device_id,driver_name,registration_number,make,model,year,engine_type\n" +
+                "TRUCK-001,G-1,I-1,Anna,ABC 123,Scania,R450,2023,DC13\n";
+
+        BulkTransferService.ImportSummary summary = service.importVehicles(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkTransferService.Format.CSV);
+
+        assertThat(summary.rows()).isEqualTo(1);
+        assertThat(summary.imported()).isEqualTo(1);
+        assertThat(summary.failed()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.fleetsystem.springbackend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.springbackend.entity.VehicleEntity;
+import com.fleetsystem.springbackend.service.VehicleSearchIndex.Field;
+import com.fleetsystem.springbackend.service.VehicleSearchIndex.Hit;
+
+class VehicleSearchIndexTest {
+
+    private final VehicleSearchIndex index = new VehicleSearchIndex(null);
+
+    @Test
+    void ranksExactThenPrefixThenWordPrefixThenSubstring() {
+        index.put(vehicle("V-4", "Mary Anderson", "AAA 111"));
+        index.put(vehicle("V-3", "Leanne Berg", "AAA 112"));
+        index.put(vehicle("V-2", "Anne", "AAA 113"));
+        index.put(vehicle("V-1", "Anne Smith", "AAA 114"));
+
+        assertThat(index.search("anne", 10, Field.DRIVER)).containsExactly(
+                new Hit("V-2", Field.DRIVER, 0),
+                new Hit("V-1", Field.DRIVER, 1),
+                new Hit("V-3", Field.DRIVER, 3));
+        // Two characters go through the word-prefix map
+        assertThat(index.search("an", 10, Field.DRIVER)).extracting(Hit::vehicleId)
+                .containsExactly("V-2", "V-1", "V-4");
+    }
+
+    @Test
+    void breaksTiesOnFieldLengthThenVehicleId() {
+        index.put(vehicle("V-3", "Erik Lund", "BBB 1"));
+        index.put(vehicle("V-1", "Erik Lundqvist", "BBB 2"));
+        index.put(vehicle("V-2", "Erik Lund", "BBB 3"));
+
+        assertThat(index.search("erik", 10, Field.DRIVER)).extracting(Hit::vehicleId)
+                .containsExactly("V-2", "V-3", "V-1");
+    }
+
+    @Test
+    void keepsOnlyTheBestHitsUpToTheLimit() {
+        for (int i = 0; i < 50; i++) {
+            index.put(vehicle(String.format("V-%02d", i), "Driver " + i, "CCC " + i));
+        }
+        index.put(vehicle("V-99", "Zed", "DRIVER"));
+
+        // Exact registration match first, then driver prefixes by length and id
+        assertThat(index.search("driver", 3)).containsExactly(
+                new Hit("V-99", Field.REGISTRATION, 0),
+                new Hit("V-00", Field.DRIVER, 1),
+                new Hit("V-01", Field.DRIVER, 1));
+    }
+
+    @Test
+    void reportsTheBetterFieldOnceWhenBothMatch() {
+        index.put(vehicle("V-1", "Kim Abc", "ABC"));
+
+        assertThat(index.search("abc", 10)).containsExactly(new Hit("V-1", Field.REGISTRATION, 0));
+    }
+
+    @Test
+    void normalizesRegistrationSpacesAndDashes() {
+        index.put(vehicle("V-1", "Kim", "ABC-123"));
+
+        assertThat(index.search("c 12", 10, Field.REGISTRATION)).extracting(Hit::vehicleId).containsExactly("V-1");
+    }
+
+    @Test
+    void removedAndReplacedValuesNoLongerMatch() {
+        index.put(vehicle("V-1", "Nils Holm", "EEE 1"));
+        index.put(vehicle("V-2", "Nils Berg", "EEE 2"));
+
+        index.remove("V-2");
+        index.put(vehicle("V-1", "Olof Holm", "EEE 1"));
+
+        assertThat(index.search("nils", 10)).isEmpty();
+        assertThat(index.search("holm", 10)).extracting(Hit::vehicleId).containsExactly("V-1");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsLiveVehiclesSearchable() {
+        // Far more updates than the initial 1024 slots, so the table is compacted repeatedly
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 300; i++) {
+                index.put(vehicle(String.format("V-%03d", i), "Driver r" + round + " n" + i, "FFF " + i));
+            }
+        }
+        for (int i = 0; i < 300; i += 2) {
+            index.remove(String.format("V-%03d", i));
+        }
+
+        assertThat(index.size()).isEqualTo(150);
+        assertThat(index.search("r0 ", 10)).isEmpty();
+        List<Hit> hits = index.search("r9 n1", 500, Field.DRIVER);
+        assertThat(hits).extracting(Hit::vehicleId).allMatch(id -> Integer.parseInt(id.substring(2)) % 2 == 1);
+        assertThat(hits).hasSize(1 + 5 + 50);
+    }
+
+    @Test
+    void growsWhenMostSlotsAreLive() {
+        for (int i = 0; i < 5000; i++) {
+            index.put(vehicle("V-" + i, "Driver " + i, "GGG " + i));
+        }
+
+        assertThat(index.size()).isEqualTo(5000);
+        assertThat(index.search("driver 4999", 10)).containsExactly(new Hit("V-4999", Field.DRIVER, 0));
+    }
+
+    private static VehicleEntity vehicle(String vehicleId, String driverName, String registrationNumber) {
+        VehicleEntity vehicle = new VehicleEntity();
+        vehicle.setVehicleId(vehicleId);
+        vehicle.setDriverName(driverName);
+        vehicle.setRegistrationNumber(registrationNumber);
+        return vehicle;
+    }
+}
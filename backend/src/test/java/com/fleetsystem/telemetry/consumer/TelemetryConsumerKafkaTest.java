@@ -0,0 +1,137 @@
+package com.fleetsystem.telemetry.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.fleetsystem.springbackend.config.KafkaConfig;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.service.TelemetryMetrics;
+import com.fleetsystem.telemetry.service.TelemetryService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs {@link TelemetryConsumer} with the production {@link KafkaConfig} against an embedded
+ * broker. The service is mocked: each record's value is taken as its vehicleId, and a vehicle
+ * counts as written once a {@code processTelemetryBatch} call carrying it has returned.
+ */
+@SpringJUnitConfig(classes = {KafkaConfig.class, TelemetryConsumer.class, TelemetryConsumerKafkaTest.Beans.class})
+@EmbeddedKafka(partitions = 3, topics = "scania-telemetry")
+@TestPropertySource(properties = {
+        "kafka.enabled=true",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "kafka.telemetry.retry-initial-interval-ms=20",
+        "kafka.telemetry.retry-max-interval-ms=100"
+})
+class TelemetryConsumerKafkaTest {
+
+    private static final String TOPIC = "scania-telemetry";
+
+    @Configuration
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TelemetryMetrics telemetryMetrics(MeterRegistry meterRegistry) {
+            return new TelemetryMetrics(meterRegistry);
+        }
+    }
+
+    @MockBean
+    private TelemetryService telemetryService;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long outageEndsAt;
+
+    @BeforeEach
+    void stubService() {
+        outageEndsAt = 0;
+        when(telemetryService.parseTelemetryMessage(anyString()))
+                .thenAnswer(invocation -> new TelemetryDto(invocation.getArgument(0), null, null, null, null));
+        when(telemetryService.processTelemetryBatch(anyList())).thenAnswer(invocation -> {
+            List<TelemetryDto> batch = invocation.getArgument(0);
+            if (System.nanoTime() < outageEndsAt) {
+                failures.incrementAndGet();
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            batch.forEach(dto -> written.add(dto.getVehicleId()));
+            batches.incrementAndGet();
+            return batch.size();
+        });
+    }
+
+    @Test
+    void consumesBurstInBatches() throws Exception {
+        List<String> ids = send("burst", 20_000);
+        long started = System.nanoTime();
+
+        awaitWritten(ids, Duration.ofSeconds(60));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Consumed %d records in %.2f s (%.0f records/s, %d batches)%n",
+                ids.size(), seconds, ids.size() / seconds, batches.get());
+        // Polls carry many records each, so there are far fewer transactions than records
+        assertThat(batches.get()).isLessThan(ids.size() / 10);
+    }
+
+    @Test
+    void retriesBatchThroughDatabaseOutage() throws Exception {
+        // Far longer than retry-max-interval-ms, so a bounded back-off would give up and skip
+        outageEndsAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        List<String> ids = send("outage", 300);
+
+        awaitWritten(ids, Duration.ofSeconds(30));
+
+        assertThat(failures.get()).isPositive();
+    }
+
+    private List<String> send(String prefix, int count) throws Exception {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = prefix + "-" + i;
+            ids.add(id);
+            kafkaTemplate.send(TOPIC, id, id);
+        }
+        kafkaTemplate.flush();
+        return ids;
+    }
+
+    private void awaitWritten(List<String> ids, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!written.containsAll(ids) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(written).as("vehicles written").containsAll(ids);
+    }
+}
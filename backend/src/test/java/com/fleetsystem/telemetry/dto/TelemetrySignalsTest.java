@@ -0,0 +1,59 @@
+package com.fleetsystem.telemetry.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+class TelemetrySignalsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Known signals are written first, in declaration order, then unknown keys as they came
+    @Test
+    void writesSignalsBackInTheNumberFormTheyArrivedIn() throws Exception {
+        String json = "{\"engine_temp\":90.5,\"speed\":72.0,\"rpm\":1800,\"gear\":4,\"mode\":\"eco\"}";
+
+        TelemetrySignals signals = mapper.readValue(json, TelemetrySignals.class);
+
+        assertThat(signals.getRpm()).isEqualTo(1800.0);
+        assertThat(mapper.writeValueAsString(signals)).isEqualTo(json);
+        assertThat(signals.toMap()).containsEntry("rpm", 1800).containsEntry("speed", 72.0);
+    }
+
+    @Test
+    void setterClearsIntegerForm() throws Exception {
+        TelemetrySignals signals = mapper.readValue("{\"rpm\":1800}", TelemetrySignals.class);
+
+        signals.setRpm(1800.5);
+
+        assertThat(mapper.writeValueAsString(signals)).isEqualTo("{\"rpm\":1800.5}");
+    }
+
+    @Test
+    void mapRoundTripKeepsIntegers() {
+        TelemetrySignals signals = TelemetrySignals.fromMap(Map.of("rpm", 1800L, "fuel_level", 55.25));
+
+        assertThat(signals.toMap()).containsEntry("rpm", 1800).containsEntry("fuel_level", 55.25);
+    }
+
+    @Test
+    void rejectsSignalsThatAreNotAnObject() {
+        for (String signals : new String[] {"[1,2]", "\"hot\"", "42", "true"}) {
+            assertThatThrownBy(() -> mapper.readValue("{\"vehicleId\":\"V1\",\"signals\":" + signals + "}", TelemetryDto.class))
+                    .as(signals)
+                    .isInstanceOf(MismatchedInputException.class);
+        }
+    }
+
+    @Test
+    void acceptsEmptyAndNullSignals() throws Exception {
+        assertThat(mapper.readValue("{\"signals\":{}}", TelemetryDto.class).getSignals().toMap()).isEmpty();
+        assertThat(mapper.readValue("{\"signals\":null}", TelemetryDto.class).getSignals()).isNull();
+    }
+}
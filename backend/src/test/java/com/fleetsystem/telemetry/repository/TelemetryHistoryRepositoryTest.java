@@ -0,0 +1,129 @@
+package com.fleetsystem.telemetry.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.PostgresTestDatabase;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.service.TelemetryHistoryPartitionManager;
+
+class TelemetryHistoryRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+    private static PostgresTestDatabase database;
+    private static TelemetryHistoryPartitionManager partitionManager;
+    private static TelemetryHistoryRepository repository;
+
+    @BeforeAll
+    static void createTable() {
+        database = PostgresTestDatabase.createOrSkip();
+        partitionManager = new TelemetryHistoryPartitionManager(database.jdbcTemplate(), 30, 3);
+        partitionManager.initialize();
+        repository = new TelemetryHistoryRepository(database.jdbcTemplate(), partitionManager);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (database != null) {
+            partitionManager.shutdown();
+            database.close();
+        }
+    }
+
+    @BeforeEach
+    void truncate() {
+        database.jdbcTemplate().execute("TRUNCATE " + TelemetryHistoryRepository.TABLE);
+    }
+
+    @Test
+    void precreatesPartitionsForTodayAndTheComingDays() {
+        assertThat(partitions()).contains(partition(TODAY), partition(TODAY.plusDays(3)))
+                .doesNotContain(partition(TODAY.plusDays(4)));
+    }
+
+    @Test
+    void movesBackfilledRowsOutOfTheDefaultPartitionOnceTheirDayIsCreated() throws InterruptedException {
+        LocalDate backfilled = TODAY.minusDays(5);
+
+        repository.append(List.of(sample("V-1", backfilled.atTime(10, 0).toInstant(ZoneOffset.UTC), 50.0)));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!partitions().contains(partition(backfilled)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(database.jdbcTemplate().queryForList(
+                "SELECT tableoid::regclass::text FROM " + TelemetryHistoryRepository.TABLE, String.class))
+                .containsExactly(partition(backfilled));
+    }
+
+    @Test
+    void skipsSamplesDatedPastRetention() {
+        Instant expired = TODAY.minusDays(31).atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        assertThat(repository.append(List.of(sample("V-1", expired, 50.0), sample("V-1", Instant.now(), 60.0))))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void exportsSamplesInAHalfOpenRangeInTimestampOrder() {
+        Instant start = TODAY.atTime(8, 0).toInstant(ZoneOffset.UTC);
+        TelemetryDto noSignals = sample("V-2", start.plusSeconds(30), 0);
+        noSignals.setSignals(null);
+        noSignals.setStatus(Map.of("state", "idle"));
+        repository.append(List.of(
+                sample("V-1", start.plusSeconds(60), 72.5),
+                sample("V-2", start.minusSeconds(1), 10.0),
+                noSignals,
+                sample("V-1", start, 70.0),
+                sample("V-1", start.plusSeconds(120), 80.0)));
+
+        List<Object[]> all = new ArrayList<>();
+        List<Object[]> v1 = new ArrayList<>();
+        database.readOnlyTransaction().executeWithoutResult(status -> {
+            repository.forEachInRange(null, start, start.plusSeconds(120), all::add);
+            repository.forEachInRange("V-1", start, start.plusSeconds(121), v1::add);
+        });
+
+        assertThat(all).extracting(row -> row[1]).containsExactly(
+                start.toString(), start.plusSeconds(30).toString(), start.plusSeconds(60).toString());
+        assertThat(all.get(0)).containsExactly("V-1", start.toString(), 70.0, null, null, 1500.0, null, null);
+        assertThat(all.get(1)).containsExactly("V-2", start.plusSeconds(30).toString(), null, null, null, null, null, "idle");
+        assertThat(v1).extracting(row -> row[2]).containsExactly(70.0, 72.5, 80.0);
+    }
+
+    private static List<String> partitions() {
+        return database.jdbcTemplate().queryForList("SELECT c.relname::text FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)",
+                String.class, TelemetryHistoryRepository.TABLE);
+    }
+
+    private static String partition(LocalDate day) {
+        return TelemetryHistoryRepository.TABLE + "_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    static TelemetryDto sample(String vehicleId, Instant at, double speed) {
+        TelemetrySignals signals = new TelemetrySignals();
+        signals.setSpeed(speed);
+        signals.set(TelemetrySignals.RPM, 1500L);
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId(vehicleId);
+        dto.setTimestamp(at.toString());
+        dto.setSignals(signals);
+        return dto;
+    }
+}
@@ -0,0 +1,128 @@
+package com.fleetsystem.telemetry.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.PostgresTestDatabase;
+import com.fleetsystem.telemetry.dto.RollupBucket;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+import com.fleetsystem.telemetry.repository.TelemetryRollupRepository.RollupRow;
+
+class TelemetryRollupRepositoryTest {
+
+    private static final int SPEED = RollupBucket.SIGNALS.indexOf("speed");
+    private static final int RPM = RollupBucket.SIGNALS.indexOf("rpm");
+    private static final long T0 = Instant.parse("2024-10-14T10:00:00Z").toEpochMilli();
+
+    private static PostgresTestDatabase database;
+    private static TelemetryRollupRepository repository;
+
+    @BeforeAll
+    static void createTable() {
+        database = PostgresTestDatabase.createOrSkip();
+        repository = new TelemetryRollupRepository(database.jdbcTemplate());
+        repository.createTable();
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @BeforeEach
+    void truncate() {
+        database.jdbcTemplate().execute("TRUNCATE " + TelemetryRollupRepository.TABLE);
+    }
+
+    @Test
+    void mergesPartialFlushesOfOneBucket() {
+        RollupBucket first = new RollupBucket(T0, T0 + 20_000);
+        first.set(SPEED, 2, 40.0, 60.0, 100.0, 60.0);
+        first.set(RPM, 2, 1200.0, 1400.0, 2600.0, 1400.0);
+        RollupBucket second = new RollupBucket(T0, T0 + 50_000);
+        second.set(SPEED, 3, 30.0, 90.0, 180.0, 30.0);
+
+        repository.mergeDeltas(List.of(new RollupRow("V-1", RollupResolution.MINUTE, first)));
+        repository.mergeDeltas(List.of(new RollupRow("V-1", RollupResolution.MINUTE, second)));
+
+        RollupBucket merged = series("V-1").get(0);
+        assertThat(merged.getLastAt()).isEqualTo(T0 + 50_000);
+        assertThat(stats(merged, SPEED)).containsExactly(5.0, 30.0, 90.0, 280.0, 30.0);
+        // The newer flush had no rpm, so the last rpm comes from the older one
+        assertThat(stats(merged, RPM)).containsExactly(2.0, 1200.0, 1400.0, 2600.0, 1400.0);
+    }
+
+    @Test
+    void keepsTheNewerLastValueWhenAnOlderFlushArrivesLate() {
+        RollupBucket newer = new RollupBucket(T0, T0 + 50_000);
+        newer.set(SPEED, 1, 70.0, 70.0, 70.0, 70.0);
+        RollupBucket older = new RollupBucket(T0, T0 + 10_000);
+        older.set(SPEED, 1, 20.0, 20.0, 20.0, 20.0);
+
+        repository.mergeDeltas(List.of(new RollupRow("V-1", RollupResolution.MINUTE, newer)));
+        repository.mergeDeltas(List.of(new RollupRow("V-1", RollupResolution.MINUTE, older)));
+
+        RollupBucket merged = series("V-1").get(0);
+        assertThat(merged.getLastAt()).isEqualTo(T0 + 50_000);
+        assertThat(stats(merged, SPEED)).containsExactly(2.0, 20.0, 70.0, 90.0, 70.0);
+    }
+
+    @Test
+    void writesManyRowsPerStatementAndReadsASeriesInOrder() {
+        List<RollupRow> rows = new ArrayList<>();
+        for (int vehicle = 0; vehicle < 3; vehicle++) {
+            for (int minute = 0; minute < 400; minute++) {
+                long start = T0 + minute * 60_000L;
+                RollupBucket bucket = new RollupBucket(start, start + 1_000);
+                bucket.set(SPEED, 1, minute, minute, minute, minute);
+                rows.add(new RollupRow("V-" + vehicle, RollupResolution.MINUTE, bucket));
+            }
+        }
+        RollupBucket hour = new RollupBucket(T0, T0 + 1_000);
+        hour.set(SPEED, 60, 0, 59, 1770, 59);
+        rows.add(new RollupRow("V-1", RollupResolution.HOUR, hour));
+
+        assertThat(repository.mergeDeltas(rows)).isEqualTo(1201);
+
+        List<RollupBucket> series = repository.findSeries("V-1", RollupResolution.MINUTE,
+                Instant.ofEpochMilli(T0 + 10 * 60_000L), Instant.ofEpochMilli(T0 + 20 * 60_000L), 5);
+        assertThat(series).extracting(RollupBucket::getBucketStart)
+                .containsExactly(T0 + 600_000, T0 + 660_000, T0 + 720_000, T0 + 780_000, T0 + 840_000);
+        assertThat(repository.findSeries("V-1", RollupResolution.HOUR,
+                Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 3_600_000), 10)).hasSize(1);
+    }
+
+    @Test
+    void deletesBucketsOlderThanTheCutoff() {
+        List<RollupRow> rows = new ArrayList<>();
+        for (int minute = 0; minute < 10; minute++) {
+            RollupBucket bucket = new RollupBucket(T0 + minute * 60_000L, T0 + minute * 60_000L);
+            bucket.set(SPEED, 1, 1, 1, 1, 1);
+            rows.add(new RollupRow("V-1", RollupResolution.MINUTE, bucket));
+        }
+        repository.mergeDeltas(rows);
+
+        assertThat(repository.deleteOlderThan(Instant.ofEpochMilli(T0 + 4 * 60_000L))).isEqualTo(4);
+        assertThat(series("V-1")).hasSize(6);
+    }
+
+    private static List<RollupBucket> series(String vehicleId) {
+        return repository.findSeries(vehicleId, RollupResolution.MINUTE,
+                Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 3_600_000), 100);
+    }
+
+    private static double[] stats(RollupBucket bucket, int signal) {
+        return new double[] {bucket.getCount(signal), bucket.getMin(signal), bucket.getMax(signal),
+                bucket.getSum(signal), bucket.getLast(signal)};
+    }
+}
@@ -0,0 +1,119 @@
+package com.fleetsystem.telemetry.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.PostgresTestDatabase;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+class VehicleTelemetryJdbcRepositoryTest {
+
+    // The latest-telemetry table as Hibernate creates it from VehicleTelemetryEntity
+    private static final String CREATE_LATEST = "CREATE TABLE vehicle_telemetry_entity (" +
+            "vehicle_id VARCHAR(255) PRIMARY KEY, " +
+            "timestamp VARCHAR(255), " +
+            "sampled_at_ms BIGINT, " +
+            "specs JSONB, " +
+            "signals JSONB, " +
+            "status JSONB)";
+
+    private static PostgresTestDatabase database;
+    private static VehicleTelemetryJdbcRepository repository;
+
+    @BeforeAll
+    static void createTable() {
+        database = PostgresTestDatabase.createOrSkip();
+        database.jdbcTemplate().execute(CREATE_LATEST);
+        repository = new VehicleTelemetryJdbcRepository(database.jdbcTemplate(), new ObjectMapper());
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @BeforeEach
+    void truncate() {
+        database.jdbcTemplate().execute("TRUNCATE vehicle_telemetry_entity");
+    }
+
+    @Test
+    void replacesARowOnlyWithANewerSample() {
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "2024-10-14T10:00:00Z", "first")))).isEqualTo(1);
+
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "2024-10-14T09:59:59Z", "older")))).isZero();
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "2024-10-14T10:00:00Z", "same")))).isZero();
+        assertThat(state("V-1")).isEqualTo("first");
+
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "2024-10-14T10:00:00.001Z", "newer")))).isEqualTo(1);
+        assertThat(state("V-1")).isEqualTo("newer");
+        assertThat(sampledAtMs("V-1")).isEqualTo(1728900000001L);
+    }
+
+    @Test
+    void alwaysWritesASampleWithoutAParseableTimestamp() {
+        repository.upsertLatest(List.of(sample("V-1", "2024-10-14T10:00:00Z", "first")));
+
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "yesterday", "unordered")))).isEqualTo(1);
+        assertThat(state("V-1")).isEqualTo("unordered");
+        assertThat(sampledAtMs("V-1")).isNull();
+    }
+
+    @Test
+    void alwaysReplacesARowWrittenWithoutSampledAt() {
+        // Rows written before the guard existed, or from a sample without a parseable timestamp
+        database.jdbcTemplate().update("INSERT INTO vehicle_telemetry_entity (vehicle_id, timestamp, status) " +
+                "VALUES ('V-1', '2024-10-15T00:00:00Z', '{\"state\":\"legacy\"}')");
+
+        assertThat(repository.upsertLatest(List.of(sample("V-1", "2024-10-14T10:00:00Z", "first")))).isEqualTo(1);
+        assertThat(state("V-1")).isEqualTo("first");
+        assertThat(sampledAtMs("V-1")).isEqualTo(1728900000000L);
+    }
+
+    @Test
+    void countsOnlyTheRowsAStatementWroteAcrossChunks() {
+        List<TelemetryDto> seed = new ArrayList<>();
+        List<TelemetryDto> batch = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            seed.add(sample("V-" + i, "2024-10-14T10:00:00Z", "first"));
+            // Even vehicles get a newer sample, odd ones a stale one
+            batch.add(sample("V-" + i, i % 2 == 0 ? "2024-10-14T10:01:00Z" : "2024-10-14T09:00:00Z", "second"));
+        }
+        batch.add(sample("V-new", "2024-10-14T09:00:00Z", "second"));
+
+        assertThat(repository.upsertLatest(seed)).isEqualTo(600);
+        assertThat(repository.upsertLatest(batch)).isEqualTo(301);
+        assertThat(state("V-10")).isEqualTo("second");
+        assertThat(state("V-11")).isEqualTo("first");
+        assertThat(state("V-new")).isEqualTo("second");
+    }
+
+    private static String state(String vehicleId) {
+        return database.jdbcTemplate().queryForObject(
+                "SELECT status->>'state' FROM vehicle_telemetry_entity WHERE vehicle_id = ?", String.class, vehicleId);
+    }
+
+    private static Long sampledAtMs(String vehicleId) {
+        return database.jdbcTemplate().queryForObject(
+                "SELECT sampled_at_ms FROM vehicle_telemetry_entity WHERE vehicle_id = ?", Long.class, vehicleId);
+    }
+
+    private static TelemetryDto sample(String vehicleId, String timestamp, String state) {
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId(vehicleId);
+        dto.setTimestamp(timestamp);
+        dto.setStatus(Map.of("state", state));
+        return dto;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+import com.fleetsystem.telemetry.service.FleetMetricsAggregator.FleetMetrics;
+import com.fleetsystem.telemetry.service.FleetMetricsAggregator.SignalStats;
+
+class FleetMetricsAggregatorTest {
+
+    private final FleetMetricsAggregator aggregator = new FleetMetricsAggregator(20, 105);
+
+    @Test
+    void replacingASampleSubtractsItExactly() {
+        TelemetryDto first = sample(50.0, 80.0, 90.0);
+        aggregator.replace(null, first);
+        aggregator.replace(null, sample(0.0, 10.0, 110.0));
+        aggregator.replace(first, sample(70.0, 60.0, 95.0));
+
+        FleetMetrics metrics = aggregator.snapshot();
+
+        assertThat(metrics.vehicles()).isEqualTo(2);
+        assertThat(metrics.activeVehicles()).isEqualTo(1);
+        assertThat(metrics.lowFuelVehicles()).isEqualTo(1);
+        assertThat(metrics.overheatingVehicles()).isEqualTo(1);
+        assertThat(metrics.speed()).isEqualTo(new SignalStats(2, 35.0, 0.0, 70.0));
+    }
+
+    @Test
+    void treatsInfiniteReadingsAsAbsent() {
+        TelemetryDto broken = sample(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        aggregator.replace(null, sample(60.0, 50.0, 90.0));
+        aggregator.replace(null, broken);
+
+        FleetMetrics metrics = aggregator.snapshot();
+
+        assertThat(metrics.vehicles()).isEqualTo(2);
+        assertThat(metrics.activeVehicles()).isEqualTo(1);
+        assertThat(metrics.lowFuelVehicles()).isZero();
+        assertThat(metrics.overheatingVehicles()).isZero();
+        assertThat(metrics.speed()).isEqualTo(new SignalStats(1, 60.0, 60.0, 60.0));
+
+        aggregator.replace(broken, sample(40.0, 50.0, 90.0));
+        assertThat(aggregator.snapshot().speed()).isEqualTo(new SignalStats(2, 50.0, 40.0, 60.0));
+    }
+
+    private static TelemetryDto sample(double speed, double fuelLevel, double engineTemp) {
+        TelemetrySignals signals = new TelemetrySignals();
+        signals.setSpeed(speed);
+        signals.setFuelLevel(fuelLevel);
+        signals.setEngineTemp(engineTemp);
+        TelemetryDto dto = new TelemetryDto();
+        dto.setSignals(signals);
+        return dto;
+    }
+}
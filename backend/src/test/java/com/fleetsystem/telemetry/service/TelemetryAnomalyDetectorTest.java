@@ -0,0 +1,64 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.telemetry.dto.TelemetryAlert;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.dto.TelemetrySignals;
+
+class TelemetryAnomalyDetectorTest {
+
+    private static final Instant T0 = Instant.parse("2024-10-14T10:00:00Z");
+
+    private final TelemetryAnomalyDetector detector = new TelemetryAnomalyDetector(
+            true, 0.1, 20, 1, 4, 2, 100, 105, 100, 10, 28, 30, 2);
+
+    @Test
+    void raisesOnAFuelDropFasterThanTheRateThreshold() {
+        detector.observe(sample(0, 80.0));
+
+        assertThat(detector.observe(sample(60, 65.0))).isEqualTo(1);
+        assertThat(detector.getActiveAlerts("V-1")).extracting(TelemetryAlert::type)
+                .containsExactly(TelemetryAlert.FUEL_DROP);
+    }
+
+    @Test
+    void aLateSampleDoesNotBecomeTheBaselineForTheNextRate() {
+        detector.observe(sample(0, 80.0));
+        detector.observe(sample(60, 79.0));
+        // Delivered late: older than the previous sample, and well above the current level
+        assertThat(detector.observe(sample(30, 95.0))).isZero();
+
+        assertThat(detector.observe(sample(120, 78.0))).isZero();
+        assertThat(detector.getActiveAlerts("V-1")).isEmpty();
+    }
+
+    @Test
+    void anInfiniteReadingDoesNotStopDetection() {
+        for (int minute = 0; minute < 20; minute++) {
+            detector.observe(sample(minute * 60, minute % 2 == 0 ? 80.0 : 80.2));
+        }
+        assertThat(detector.observe(sample(20 * 60, Double.POSITIVE_INFINITY))).isZero();
+        assertThat(detector.observe(sample(21 * 60, 80.0))).isZero();
+        assertThat(detector.observe(sample(22 * 60, 80.2))).isZero();
+
+        // 3 units in a minute is under the rate threshold; only the z-score can catch it
+        assertThat(detector.observe(sample(23 * 60, 77.0))).isEqualTo(1);
+        assertThat(detector.getActiveAlerts("V-1")).singleElement()
+                .satisfies(alert -> assertThat(alert.zScore()).isGreaterThan(4.0));
+    }
+
+    private static TelemetryDto sample(long seconds, double fuelLevel) {
+        TelemetrySignals signals = new TelemetrySignals();
+        signals.setFuelLevel(fuelLevel);
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId("V-1");
+        dto.setTimestamp(T0.plusSeconds(seconds).toString());
+        dto.setSignals(signals);
+        return dto;
+    }
+}
@@ -0,0 +1,69 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+class TelemetryIngestDispatcherTest {
+
+    private final TelemetryService telemetryService = mock(TelemetryService.class);
+    private TelemetryIngestDispatcher dispatcher;
+
+    @AfterEach
+    void stop() {
+        if (dispatcher != null && dispatcher.isRunning()) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void stopsAfterTheWebServerAndBeforeTheWriteBehindBuffer() {
+        // Higher phases stop first; the web server stops 1024 below its graceful-shutdown phase
+        assertThat(TelemetryIngestDispatcher.PHASE)
+                .isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024)
+                .isGreaterThan(TelemetryWriteBehindService.PHASE);
+    }
+
+    @Test
+    void queuesOnALaneInFrontOfTheWriteBehindBuffer() {
+        dispatcher = start(true);
+
+        dispatcher.dispatch(sample("V-1"));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(telemetryService).processTelemetryUpdate(any()));
+    }
+
+    @Test
+    void writesOnTheCallersThreadAndRethrowsFailuresOnTheDirectPath() {
+        dispatcher = start(false);
+        when(telemetryService.processTelemetryUpdate(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThatThrownBy(() -> dispatcher.dispatch(sample("V-1"))).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(dispatcher.getFailedCount()).isZero();
+    }
+
+    private TelemetryIngestDispatcher start(boolean writeBehindEnabled) {
+        TelemetryIngestDispatcher started = new TelemetryIngestDispatcher(telemetryService, true, 2, 10, 20, writeBehindEnabled);
+        started.start();
+        return started;
+    }
+
+    private static TelemetryDto sample(String vehicleId) {
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId(vehicleId);
+        return dto;
+    }
+}
@@ -0,0 +1,89 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+
+class TelemetryPushServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final TelemetryPushService pushService = new TelemetryPushService((message, timeout) -> {
+        sent.add(message);
+        return true;
+    }, objectMapper, 0, 50);
+
+    @Test
+    void sendsAVehicleLeavingAStatusToThatStatusOnce() throws Exception {
+        subscribe("s-running", "/topic/telemetry/status/running");
+        subscribe("s-idle", "/topic/telemetry/status/IDLE");
+
+        pushService.publish(sample("V-1", "running"));
+        pushService.tick();
+        pushService.publish(sample("V-1", "idle"));
+        acknowledgeAll();
+        pushService.tick();
+        pushService.publish(sample("V-1", "idle"));
+        acknowledgeAll();
+        pushService.tick();
+
+        assertThat(states("s-running")).containsExactly(List.of("running"), List.of("idle"));
+        assertThat(states("s-idle")).containsExactly(List.of("idle"), List.of("idle"));
+    }
+
+    @Test
+    void replacesAnUpdatePendingUnderTheOldStatus() throws Exception {
+        subscribe("s-running", "/topic/telemetry/status/RUNNING");
+
+        pushService.publish(sample("V-1", "running"));
+        pushService.publish(sample("V-1", "idle"));
+        pushService.tick();
+
+        assertThat(states("s-running")).containsExactly(List.of("idle"));
+    }
+
+    private void subscribe(String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId("session");
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        pushService.onSubscribe(new SessionSubscribeEvent(this,
+                MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+    }
+
+    private void acknowledgeAll() {
+        sent.forEach(pushService::onFrameHandled);
+    }
+
+    // The states carried by each frame sent to one subscription, in order
+    private List<List<String>> states(String subscriptionId) throws Exception {
+        List<List<String>> frames = new ArrayList<>();
+        for (Message<?> message : sent) {
+            if (subscriptionId.equals(SimpMessageHeaderAccessor.wrap(message).getSubscriptionId())) {
+                List<TelemetryDto> delta = objectMapper.readValue((byte[]) message.getPayload(), new TypeReference<>() {});
+                frames.add(delta.stream().map(dto -> (String) dto.getStatus().get("state")).toList());
+            }
+        }
+        return frames;
+    }
+
+    private static TelemetryDto sample(String vehicleId, String state) {
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId(vehicleId);
+        dto.setStatus(Map.of("state", state));
+        return dto;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetsystem.PostgresTestDatabase;
+import com.fleetsystem.telemetry.dto.TelemetryDto;
+import com.fleetsystem.telemetry.repository.TelemetryHistoryRepository;
+import com.fleetsystem.telemetry.repository.VehicleTelemetryJdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TelemetryServiceTest {
+
+    // The latest-telemetry table as Hibernate creates it from VehicleTelemetryEntity
+    private static final String CREATE_LATEST = "CREATE TABLE vehicle_telemetry_entity (" +
+            "vehicle_id VARCHAR(255) PRIMARY KEY, " +
+            "timestamp VARCHAR(255), " +
+            "sampled_at_ms BIGINT, " +
+            "specs JSONB, " +
+            "signals JSONB, " +
+            "status JSONB)";
+
+    private static PostgresTestDatabase database;
+
+    private final TelemetryHistoryRepository historyRepository = mock(TelemetryHistoryRepository.class);
+    private final TelemetryLatestStateRegistry latestStateRegistry =
+            new TelemetryLatestStateRegistry(null, new FleetMetricsAggregator(20, 105));
+    private final TelemetryPushService pushService = mock(TelemetryPushService.class);
+    private TelemetryService service;
+
+    @BeforeAll
+    static void createTable() {
+        database = PostgresTestDatabase.createOrSkip();
+        database.jdbcTemplate().execute(CREATE_LATEST);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        database.jdbcTemplate().execute("TRUNCATE vehicle_telemetry_entity");
+        ObjectMapper objectMapper = new ObjectMapper();
+        service = new TelemetryService(null, new VehicleTelemetryJdbcRepository(database.jdbcTemplate(), objectMapper),
+                historyRepository, null, latestStateRegistry, pushService, mock(TelemetryRollupService.class),
+                mock(TelemetryAnomalyDetector.class), new TelemetryMetrics(new SimpleMeterRegistry()), objectMapper,
+                database.transactionManager(), false);
+    }
+
+    @Test
+    void writesTheLatestStateOnTheDirectPath() {
+        assertThat(service.processTelemetryUpdate(sample())).isTrue();
+
+        assertThat(latestRows()).isEqualTo(1);
+        assertThat(latestStateRegistry.get("V-1")).isNotNull();
+    }
+
+    @Test
+    void rollsTheLatestStateBackWhenTheHistoryInsertFails() {
+        when(historyRepository.append(anyList())).thenThrow(new DataAccessResourceFailureException("history down"));
+
+        assertThatThrownBy(() -> service.processTelemetryUpdate(sample()))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(latestRows()).isZero();
+        assertThat(latestStateRegistry.get("V-1")).isNull();
+        verifyNoInteractions(pushService);
+    }
+
+    private static int latestRows() {
+        return database.jdbcTemplate().queryForObject("SELECT count(*) FROM vehicle_telemetry_entity", Integer.class);
+    }
+
+    private static TelemetryDto sample() {
+        TelemetryDto dto = new TelemetryDto();
+        dto.setVehicleId("V-1");
+        dto.setTimestamp("2024-10-14T10:00:00Z");
+        dto.setStatus(Map.of("state", "running"));
+        return dto;
+    }
+}
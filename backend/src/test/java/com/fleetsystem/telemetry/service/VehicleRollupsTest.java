@@ -0,0 +1,55 @@
+package com.fleetsystem.telemetry.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fleetsystem.telemetry.dto.RollupBucket;
+import com.fleetsystem.telemetry.dto.RollupResolution;
+
+class VehicleRollupsTest {
+
+    private static final int SPEED = RollupBucket.SIGNALS.indexOf("speed");
+    private static final int FUEL = RollupBucket.SIGNALS.indexOf("fuel_level");
+    private static final long T0 = Instant.parse("2024-10-14T10:00:00Z").toEpochMilli();
+
+    private final VehicleRollups rollups = new VehicleRollups();
+
+    @Test
+    void skipsInfiniteReadingsLikeAbsentOnes() {
+        rollups.add(T0, values(50.0, 80.0));
+        rollups.add(T0 + 10_000, values(Double.POSITIVE_INFINITY, Double.NaN));
+        rollups.add(T0 + 20_000, values(70.0, Double.NEGATIVE_INFINITY));
+
+        RollupBucket bucket = minute();
+
+        assertThat(bucket.getLastAt()).isEqualTo(T0 + 20_000);
+        assertThat(bucket.getCount(SPEED)).isEqualTo(2);
+        assertThat(bucket.getSum(SPEED)).isEqualTo(120.0);
+        assertThat(bucket.getMin(SPEED)).isEqualTo(50.0);
+        assertThat(bucket.getMax(SPEED)).isEqualTo(70.0);
+        assertThat(bucket.getLast(SPEED)).isEqualTo(70.0);
+        assertThat(bucket.getCount(FUEL)).isEqualTo(1);
+        assertThat(bucket.getLast(FUEL)).isEqualTo(80.0);
+    }
+
+    private RollupBucket minute() {
+        List<RollupBucket> buckets = new ArrayList<>();
+        rollups.collectUnflushed(RollupResolution.MINUTE, T0, T0 + 60_000, buckets);
+        assertThat(buckets).hasSize(1);
+        return buckets.get(0);
+    }
+
+    private static double[] values(double speed, double fuelLevel) {
+        double[] values = new double[RollupBucket.SIGNALS.size()];
+        Arrays.fill(values, Double.NaN);
+        values[SPEED] = speed;
+        values[FUEL] = fuelLevel;
+        return values;
+    }
+}
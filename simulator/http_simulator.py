@@ -11,11 +11,15 @@ BACKEND_URL = os.getenv("BACKEND_URL", "http://localhost:8081")
 NUM_VEHICLES = int(os.getenv("NUM_VEHICLES", 30))  # Increased to 30 vehicles
 SEND_INTERVAL = float(os.getenv("SEND_INTERVAL", 3.0))
 ANOMALY_PROB = float(os.getenv("ANOMALY_PROB", 0.02))
+# STREAM=true sends every vehicle over one NDJSON connection, reopened every STREAM_SECONDS
+STREAM = os.getenv("STREAM", "false").lower() in ("1", "true", "yes")
+STREAM_SECONDS = float(os.getenv("STREAM_SECONDS", 300))
 
 print(f"🚀 Starting HTTP Telemetry Simulator...")
 print(f"Backend URL: {BACKEND_URL}")
 print(f"Vehicles: {NUM_VEHICLES}")
 print(f"Interval: {SEND_INTERVAL}s")
+print(f"Mode: {'NDJSON stream' if STREAM else 'one request per sample'}")
 print("-" * 50)
 
 # Load fleet dataset metadata
@@ -113,6 +117,50 @@ def send_telemetry_http(vehicle_data):
     except requests.exceptions.RequestException as e:
         return None, str(e)
 
+def build_telemetry(vehicle_id_str, is_anomaly):
+    """Telemetry payload matching the backend DTO format"""
+    return {
+        "vehicleId": vehicle_id_str,
+        "timestamp": datetime.utcnow().isoformat() + "Z",
+        "specs": generate_vehicle_specs(vehicle_id_str),
+        "signals": generate_signals(anomaly=is_anomaly),
+        "status": {
+            "state": "ANOMALY" if is_anomaly else "NORMAL",
+            "location": {
+                "latitude": round(random.uniform(55.0, 69.0), 6),
+                "longitude": round(random.uniform(10.0, 25.0), 6)
+            }
+        }
+    }
+
+def stream_lines():
+    """NDJSON body: one line per vehicle every SEND_INTERVAL, for STREAM_SECONDS"""
+    end = time.time() + STREAM_SECONDS
+    while time.time() < end:
+        batch_start = time.time()
+        for vehicle_id in range(1, NUM_VEHICLES + 1):
+            is_anomaly = random.random() < ANOMALY_PROB
+            yield (json.dumps(build_telemetry(f"TRUCK-{vehicle_id:03d}", is_anomaly)) + "\n").encode()
+        time.sleep(max(0, SEND_INTERVAL - (time.time() - batch_start)))
+
+def stream_main():
+    """Keeps one long-lived NDJSON upload open; the backend answers with a summary when it ends"""
+    while True:
+        try:
+            response = requests.post(
+                f"{BACKEND_URL}/api/telemetry/ingest/stream",
+                data=stream_lines(),
+                headers={"Content-Type": "application/x-ndjson"},
+                timeout=(5, None)
+            )
+            print(f"📊 Stream closed: {response.status_code} - {response.text}")
+        except KeyboardInterrupt:
+            print("\n🛑 Simulation stopped")
+            break
+        except requests.exceptions.RequestException as e:
+            print(f"❌ Stream error: {e}")
+            time.sleep(1)
+
 def main():
     """Main simulation loop"""
     sent_count = 0
@@ -128,20 +176,7 @@ def main():
                 is_anomaly = random.random() < ANOMALY_PROB
                 
                 # Create telemetry payload (matching backend DTO format)
-                vehicle_id_str = f"TRUCK-{vehicle_id:03d}"
-                telemetry_data = {
-                    "vehicleId": vehicle_id_str,
-                    "timestamp": datetime.utcnow().isoformat() + "Z",
-                    "specs": generate_vehicle_specs(vehicle_id_str),
-                    "signals": generate_signals(anomaly=is_anomaly),
-                    "status": {
-                        "state": "ANOMALY" if is_anomaly else "NORMAL",
-                        "location": {
-                            "latitude": round(random.uniform(55.0, 69.0), 6),
-                            "longitude": round(random.uniform(10.0, 25.0), 6)
-                        }
-                    }
-                }
+                telemetry_data = build_telemetry(f"TRUCK-{vehicle_id:03d}", is_anomaly)
                 
                 # Send via HTTP
                 status_code, response = send_telemetry_http(telemetry_data)
@@ -173,4 +208,7 @@ def main():
             time.sleep(1)
 
 if __name__ == "__main__":
-    main()
\ No newline at end of file
+    if STREAM:
+        stream_main()
+    else:
+        main()
\ No newline at end of file